@@ -12,21 +12,173 @@ import javax.annotation.Nonnegative;
 @ConfigurationProperties(prefix = "cache")
 public class CacheConfiguration {
     private int profileCacheTime = 86400;
+    private int profileSoftCacheTime = 3600;
     private int nameCacheTime = 3024000;
     private int historyCacheTime = 86400;
+    private int historySoftCacheTime = 3600;
+    private int localCacheTime = 300;
+    private int profileLocalCacheSize = 64;
+    private int nameLocalCacheSize = 16;
+    private int historyLocalCacheSize = 16;
+    private int negativeCacheTime = 300;
+    private int negativeLocalCacheSize = 4;
+    private int negativeFilterSize = 0;
+    private int writeBufferSize = 10000;
+    private int writeBatchSize = 100;
+    private int writeFlushInterval = 50;
+    private int responseCacheSize = 16;
+    private int profileIndexSize = 0;
 
     @Nonnegative
     public int getProfileCacheTime() {
         return this.profileCacheTime;
     }
 
+    public void setProfileCacheTime(@Nonnegative int profileCacheTime) {
+        this.profileCacheTime = profileCacheTime;
+    }
+
+    @Nonnegative
+    public int getProfileSoftCacheTime() {
+        return this.profileSoftCacheTime;
+    }
+
+    public void setProfileSoftCacheTime(@Nonnegative int profileSoftCacheTime) {
+        this.profileSoftCacheTime = profileSoftCacheTime;
+    }
+
     @Nonnegative
     public int getNameCacheTime() {
         return this.nameCacheTime;
     }
 
+    public void setNameCacheTime(@Nonnegative int nameCacheTime) {
+        this.nameCacheTime = nameCacheTime;
+    }
+
     @Nonnegative
     public int getHistoryCacheTime() {
         return this.historyCacheTime;
     }
+
+    public void setHistoryCacheTime(@Nonnegative int historyCacheTime) {
+        this.historyCacheTime = historyCacheTime;
+    }
+
+    @Nonnegative
+    public int getHistorySoftCacheTime() {
+        return this.historySoftCacheTime;
+    }
+
+    public void setHistorySoftCacheTime(@Nonnegative int historySoftCacheTime) {
+        this.historySoftCacheTime = historySoftCacheTime;
+    }
+
+    @Nonnegative
+    public int getLocalCacheTime() {
+        return this.localCacheTime;
+    }
+
+    public void setLocalCacheTime(@Nonnegative int localCacheTime) {
+        this.localCacheTime = localCacheTime;
+    }
+
+    @Nonnegative
+    public int getProfileLocalCacheSize() {
+        return this.profileLocalCacheSize;
+    }
+
+    public void setProfileLocalCacheSize(@Nonnegative int profileLocalCacheSize) {
+        this.profileLocalCacheSize = profileLocalCacheSize;
+    }
+
+    @Nonnegative
+    public int getNameLocalCacheSize() {
+        return this.nameLocalCacheSize;
+    }
+
+    public void setNameLocalCacheSize(@Nonnegative int nameLocalCacheSize) {
+        this.nameLocalCacheSize = nameLocalCacheSize;
+    }
+
+    @Nonnegative
+    public int getHistoryLocalCacheSize() {
+        return this.historyLocalCacheSize;
+    }
+
+    public void setHistoryLocalCacheSize(@Nonnegative int historyLocalCacheSize) {
+        this.historyLocalCacheSize = historyLocalCacheSize;
+    }
+
+    @Nonnegative
+    public int getNegativeCacheTime() {
+        return this.negativeCacheTime;
+    }
+
+    public void setNegativeCacheTime(@Nonnegative int negativeCacheTime) {
+        this.negativeCacheTime = negativeCacheTime;
+    }
+
+    @Nonnegative
+    public int getNegativeLocalCacheSize() {
+        return this.negativeLocalCacheSize;
+    }
+
+    public void setNegativeLocalCacheSize(@Nonnegative int negativeLocalCacheSize) {
+        this.negativeLocalCacheSize = negativeLocalCacheSize;
+    }
+
+    @Nonnegative
+    public int getNegativeFilterSize() {
+        return this.negativeFilterSize;
+    }
+
+    public void setNegativeFilterSize(@Nonnegative int negativeFilterSize) {
+        this.negativeFilterSize = negativeFilterSize;
+    }
+
+    @Nonnegative
+    public int getWriteBufferSize() {
+        return this.writeBufferSize;
+    }
+
+    public void setWriteBufferSize(@Nonnegative int writeBufferSize) {
+        this.writeBufferSize = writeBufferSize;
+    }
+
+    @Nonnegative
+    public int getWriteBatchSize() {
+        return this.writeBatchSize;
+    }
+
+    public void setWriteBatchSize(@Nonnegative int writeBatchSize) {
+        this.writeBatchSize = writeBatchSize;
+    }
+
+    @Nonnegative
+    public int getWriteFlushInterval() {
+        return this.writeFlushInterval;
+    }
+
+    public void setWriteFlushInterval(@Nonnegative int writeFlushInterval) {
+        this.writeFlushInterval = writeFlushInterval;
+    }
+
+    @Nonnegative
+    public int getResponseCacheSize() {
+        return this.responseCacheSize;
+    }
+
+    public void setResponseCacheSize(@Nonnegative int responseCacheSize) {
+        this.responseCacheSize = responseCacheSize;
+    }
+
+    @Nonnegative
+    public int getProfileIndexSize() {
+        return this.profileIndexSize;
+    }
+
+    public void setProfileIndexSize(@Nonnegative int profileIndexSize) {
+        this.profileIndexSize = profileIndexSize;
+    }
 }
@@ -0,0 +1,194 @@
+package net.minepay.mcapi.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nonnegative;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@Component
+@ConfigurationProperties(prefix = "client")
+public class ClientConfiguration {
+    private int rateLimitWindow = 600;
+    private int rateLimitLease = 20;
+    private int rateLimitFlushInterval = 100;
+    private int batchDelay = 5;
+    private int batchSize = 10;
+    private int connectTimeout = 2000;
+    private int socketTimeout = 5000;
+    private int cooldownTime = 10;
+    private int maximumCooldownTime = 600;
+    private int retryAttempts = 3;
+    private int retryTimeout = 3000;
+    private int retryRatio = 10;
+    private int retryCapacity = 50;
+    private int profileHedgePercentile = 95;
+    private int nameHedgePercentile = 95;
+    private int historyHedgePercentile = 0;
+    private int hedgeMinimumDelay = 50;
+    private int hedgeReserve = 50;
+
+    @Nonnegative
+    public int getRateLimitWindow() {
+        return this.rateLimitWindow;
+    }
+
+    public void setRateLimitWindow(@Nonnegative int rateLimitWindow) {
+        this.rateLimitWindow = rateLimitWindow;
+    }
+
+    @Nonnegative
+    public int getRateLimitLease() {
+        return this.rateLimitLease;
+    }
+
+    public void setRateLimitLease(@Nonnegative int rateLimitLease) {
+        this.rateLimitLease = rateLimitLease;
+    }
+
+    @Nonnegative
+    public int getRateLimitFlushInterval() {
+        return this.rateLimitFlushInterval;
+    }
+
+    public void setRateLimitFlushInterval(@Nonnegative int rateLimitFlushInterval) {
+        this.rateLimitFlushInterval = rateLimitFlushInterval;
+    }
+
+    @Nonnegative
+    public int getBatchDelay() {
+        return this.batchDelay;
+    }
+
+    public void setBatchDelay(@Nonnegative int batchDelay) {
+        this.batchDelay = batchDelay;
+    }
+
+    @Nonnegative
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    public void setBatchSize(@Nonnegative int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Nonnegative
+    public int getConnectTimeout() {
+        return this.connectTimeout;
+    }
+
+    public void setConnectTimeout(@Nonnegative int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    @Nonnegative
+    public int getSocketTimeout() {
+        return this.socketTimeout;
+    }
+
+    public void setSocketTimeout(@Nonnegative int socketTimeout) {
+        this.socketTimeout = socketTimeout;
+    }
+
+    @Nonnegative
+    public int getCooldownTime() {
+        return this.cooldownTime;
+    }
+
+    public void setCooldownTime(@Nonnegative int cooldownTime) {
+        this.cooldownTime = cooldownTime;
+    }
+
+    @Nonnegative
+    public int getMaximumCooldownTime() {
+        return this.maximumCooldownTime;
+    }
+
+    public void setMaximumCooldownTime(@Nonnegative int maximumCooldownTime) {
+        this.maximumCooldownTime = maximumCooldownTime;
+    }
+
+    @Nonnegative
+    public int getRetryAttempts() {
+        return this.retryAttempts;
+    }
+
+    public void setRetryAttempts(@Nonnegative int retryAttempts) {
+        this.retryAttempts = retryAttempts;
+    }
+
+    @Nonnegative
+    public int getRetryTimeout() {
+        return this.retryTimeout;
+    }
+
+    public void setRetryTimeout(@Nonnegative int retryTimeout) {
+        this.retryTimeout = retryTimeout;
+    }
+
+    @Nonnegative
+    public int getRetryRatio() {
+        return this.retryRatio;
+    }
+
+    public void setRetryRatio(@Nonnegative int retryRatio) {
+        this.retryRatio = retryRatio;
+    }
+
+    @Nonnegative
+    public int getRetryCapacity() {
+        return this.retryCapacity;
+    }
+
+    public void setRetryCapacity(@Nonnegative int retryCapacity) {
+        this.retryCapacity = retryCapacity;
+    }
+
+    @Nonnegative
+    public int getProfileHedgePercentile() {
+        return this.profileHedgePercentile;
+    }
+
+    public void setProfileHedgePercentile(@Nonnegative int profileHedgePercentile) {
+        this.profileHedgePercentile = profileHedgePercentile;
+    }
+
+    @Nonnegative
+    public int getNameHedgePercentile() {
+        return this.nameHedgePercentile;
+    }
+
+    public void setNameHedgePercentile(@Nonnegative int nameHedgePercentile) {
+        this.nameHedgePercentile = nameHedgePercentile;
+    }
+
+    @Nonnegative
+    public int getHistoryHedgePercentile() {
+        return this.historyHedgePercentile;
+    }
+
+    public void setHistoryHedgePercentile(@Nonnegative int historyHedgePercentile) {
+        this.historyHedgePercentile = historyHedgePercentile;
+    }
+
+    @Nonnegative
+    public int getHedgeMinimumDelay() {
+        return this.hedgeMinimumDelay;
+    }
+
+    public void setHedgeMinimumDelay(@Nonnegative int hedgeMinimumDelay) {
+        this.hedgeMinimumDelay = hedgeMinimumDelay;
+    }
+
+    @Nonnegative
+    public int getHedgeReserve() {
+        return this.hedgeReserve;
+    }
+
+    public void setHedgeReserve(@Nonnegative int hedgeReserve) {
+        this.hedgeReserve = hedgeReserve;
+    }
+}
@@ -1,12 +1,5 @@
 package net.minepay.mcapi.configuration;
 
-import com.fasterxml.jackson.databind.type.TypeFactory;
-
-import net.minepay.mcapi.mojang.ProfileName;
-import net.minepay.mcapi.mojang.cache.JacksonRedisSerializer;
-import net.minepay.mcapi.mojang.Profile;
-import net.minepay.mcapi.mojang.ProfileNameChange;
-
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,8 +9,6 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericToStringSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
-import java.util.List;
-
 import javax.annotation.Nonnull;
 
 import redis.clients.jedis.JedisPoolConfig;
@@ -76,50 +67,17 @@ public class RedisConfiguration {
     }
 
     /**
-     * Provides a Redis template for Profile objects.
-     *
-     * @return a template.
-     */
-    @Bean
-    @Nonnull
-    public RedisTemplate<String, Profile> profileRedisTemplate() {
-        RedisTemplate<String, Profile> template = new RedisTemplate<>();
-        template.setConnectionFactory(this.redisConnectionFactory());
-        template.setDefaultSerializer(new JacksonRedisSerializer<>(Profile.class));
-        template.setKeySerializer(new StringRedisSerializer());
-        template.setEnableTransactionSupport(true);
-        return template;
-    }
-
-    /**
-     * Provides a Redis template for profile name objects.
-     *
-     * @return a template.
-     */
-    @Bean
-    @Nonnull
-    public RedisTemplate<String, ProfileName> identifierRedisTemplate() {
-        RedisTemplate<String, ProfileName> template = new RedisTemplate<>();
-        template.setConnectionFactory(this.redisConnectionFactory());
-        template.setDefaultSerializer(new JacksonRedisSerializer<>(ProfileName.class));
-        template.setKeySerializer(new StringRedisSerializer());
-        template.setEnableTransactionSupport(true);
-        return template;
-    }
-
-    /**
-     * Provides a Redis template for name change histories.
+     * Provides a Redis template for player records.
      *
      * @return a template.
      */
     @Bean
     @Nonnull
-    public RedisTemplate<String, List<ProfileNameChange>> nameHistoryRedisTemplate() {
-        RedisTemplate<String, List<ProfileNameChange>> template = new RedisTemplate<>();
+    public RedisTemplate<String, byte[]> playerRedisTemplate() {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
         template.setConnectionFactory(this.redisConnectionFactory());
-        template.setDefaultSerializer(new JacksonRedisSerializer<>(TypeFactory.defaultInstance().constructCollectionType(List.class, ProfileNameChange.class)));
+        template.setEnableDefaultSerializer(false);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setEnableTransactionSupport(true);
         return template;
     }
 
@@ -135,7 +93,6 @@ public class RedisConfiguration {
         template.setConnectionFactory(this.redisConnectionFactory());
         template.setDefaultSerializer(new GenericToStringSerializer<>(Integer.class));
         template.setKeySerializer(new StringRedisSerializer());
-        template.setEnableTransactionSupport(true);
         return template;
     }
 }
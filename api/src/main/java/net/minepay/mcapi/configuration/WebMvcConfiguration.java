@@ -1,5 +1,7 @@
 package net.minepay.mcapi.configuration;
 
+import net.minepay.mcapi.mojang.json.MojangModule;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,14 +9,12 @@ import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
-import org.springframework.http.converter.xml.MappingJackson2XmlHttpMessageConverter;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
-import java.util.Collections;
 import java.util.List;
 
 import javax.annotation.Nonnull;
@@ -27,6 +27,8 @@ import javax.annotation.Nonnull;
 @EnableAsync
 @Configuration
 public class WebMvcConfiguration extends WebMvcConfigurerAdapter {
+    private static final MojangModule MOJANG_MODULE = new MojangModule();
+
     @Value("${executor.base-pool-size:2}")
     private int basePoolSize;
     @Value("${executor.max-pool-size:12}")
@@ -50,19 +52,17 @@ public class WebMvcConfiguration extends WebMvcConfigurerAdapter {
 
     /**
      * {@inheritDoc}
+     *
+     * Registers the streaming codecs of the Mojang model with all JSON converters (the XML
+     * representation remains with databind). Responses are written in their compact form unless
+     * explicitly requested otherwise (see {@link net.minepay.mcapi.controller.ResponseCache}).
      */
     @Override
-    public void configureMessageConverters(@Nonnull List<HttpMessageConverter<?>> converters) {
-        {
-            MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
-            converter.setPrettyPrint(true);
-            converter.setSupportedMediaTypes(Collections.singletonList(MediaType.APPLICATION_JSON_UTF8));
-        }
-
-        {
-            MappingJackson2XmlHttpMessageConverter converter = new MappingJackson2XmlHttpMessageConverter();
-            converter.setPrettyPrint(true);
-            converter.setSupportedMediaTypes(Collections.singletonList(MediaType.TEXT_XML));
+    public void extendMessageConverters(@Nonnull List<HttpMessageConverter<?>> converters) {
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter instanceof MappingJackson2HttpMessageConverter) {
+                ((MappingJackson2HttpMessageConverter) converter).getObjectMapper().registerModule(MOJANG_MODULE);
+            }
         }
     }
 
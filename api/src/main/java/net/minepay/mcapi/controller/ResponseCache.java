@@ -0,0 +1,471 @@
+package net.minepay.mcapi.controller;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import net.minepay.mcapi.configuration.CacheConfiguration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Caches the encoded representation of response objects and writes them to the client.
+ *
+ * <strong>Implementation Notes:</strong> Encoded responses are keyed by the logical key of the
+ * requested resource (such as the endpoint and the requested name or identifier) along with the
+ * negotiated format thus a cached response is written without consulting any of the cache tiers
+ * at all. Since encoded responses are not invalidated when the underlying object is refreshed,
+ * they expire after the local cache time in order to not extend the staleness bound of the local
+ * cache tier. Objects are rendered through the regular message converters in order to produce the
+ * exact same output as regular handler methods.
+ *
+ * Responses are written in their compact form unless the client explicitly opts into indented
+ * output by passing the {@code pretty} parameter (indented representations are cached separately).
+ * Lists of objects are assembled from the cached compact JSON representations of their elements
+ * thus only elements which are not cached yet need to be looked up.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@Component
+@ThreadSafe
+public class ResponseCache implements PublicMetrics {
+    private static final long MEGABYTE = 1024 * 1024;
+
+    /**
+     * Defines the estimated fixed overhead (in bytes) of a single cache entry.
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    /**
+     * Defines the name of the request parameter which enables indented output.
+     */
+    private static final String PRETTY_PARAMETER = "pretty";
+
+    /**
+     * Defines the media type parameters which identify indented representations in the cache.
+     */
+    private static final Map<String, String> PRETTY_MEDIA_TYPE_PARAMETERS = Collections.singletonMap(PRETTY_PARAMETER, "true");
+
+    /**
+     * Defines the wildcard type which is answered with JSON (in addition to any type).
+     */
+    private static final MediaType APPLICATION_MEDIA_TYPE = new MediaType("application");
+
+    private final ContentNegotiationManager contentNegotiationManager;
+    private final RequestMappingHandlerAdapter handlerAdapter;
+    private final Cache<String, EncodedResponse> responses;
+
+    @Autowired
+    public ResponseCache(@Nonnull CacheConfiguration configuration, @Nonnull @Lazy ContentNegotiationManager contentNegotiationManager, @Nonnull @Lazy RequestMappingHandlerAdapter handlerAdapter) {
+        this.contentNegotiationManager = contentNegotiationManager;
+        this.handlerAdapter = handlerAdapter;
+
+        if (configuration.getResponseCacheSize() != 0 && configuration.getLocalCacheTime() != 0) {
+            this.responses = Caffeine.newBuilder()
+                    .maximumWeight(configuration.getResponseCacheSize() * MEGABYTE)
+                    .<String, EncodedResponse>weigher((k, v) -> ENTRY_OVERHEAD + k.length() * 2 + v.body.length)
+                    .expireAfterWrite(configuration.getLocalCacheTime(), TimeUnit.SECONDS)
+                    .recordStats()
+                    .build();
+        } else {
+            this.responses = null;
+        }
+    }
+
+    /**
+     * Writes the encoded representation of an object to the client.
+     *
+     * @param key      the logical key of the object (including all parameters which influence
+     *                 its value).
+     * @param lookup   a function which retrieves the object when no encoded representation is
+     *                 cached.
+     * @param request  the request.
+     * @param response the response.
+     * @throws HttpMediaTypeNotAcceptableException when the requested format is not supported.
+     * @throws IOException                         when retrieving, encoding or writing the
+     *                                             response fails.
+     */
+    public void write(@Nonnull String key, @Nonnull Lookup lookup, @Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response) throws HttpMediaTypeNotAcceptableException, IOException {
+        MediaType mediaType = this.resolveMediaType(request);
+        boolean pretty = isPrettyPrintRequested(request);
+        EncodedResponse encoded;
+
+        if (this.responses == null) {
+            encoded = this.encode(lookup.lookup(), mediaType, pretty);
+        } else {
+            String cacheKey = createCacheKey(key, mediaType, pretty);
+            encoded = this.responses.getIfPresent(cacheKey);
+
+            if (encoded == null) {
+                encoded = this.encode(lookup.lookup(), mediaType, pretty);
+                this.responses.put(cacheKey, encoded);
+            }
+        }
+
+        write(encoded, response);
+    }
+
+    /**
+     * Writes the encoded representation of a list of objects to the client.
+     *
+     * When compact JSON is requested, the list is assembled from the cached representations of
+     * its elements (which are shared with {@link #write(String, Lookup, HttpServletRequest,
+     * HttpServletResponse)}) and only missing elements are looked up. All other formats are
+     * encoded from scratch.
+     *
+     * @param prefix   the prefix of the logical keys of all elements.
+     * @param ids      the identifiers of all requested elements (in the order in which they shall
+     *                 be reported).
+     * @param lookup   a function which retrieves a set of elements and returns them keyed by their
+     *                 identifiers (elements which do not exist are omitted).
+     * @param request  the request.
+     * @param response the response.
+     * @throws HttpMediaTypeNotAcceptableException when the requested format is not supported.
+     * @throws IOException                         when retrieving, encoding or writing the
+     *                                             response fails.
+     */
+    public void writeList(@Nonnull String prefix, @Nonnull List<String> ids, @Nonnull ListLookup lookup, @Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response) throws HttpMediaTypeNotAcceptableException, IOException {
+        MediaType mediaType = this.resolveMediaType(request);
+        boolean pretty = isPrettyPrintRequested(request);
+
+        if (this.responses == null || pretty || !MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)) {
+            Map<String, ?> values = lookup.lookup(ids);
+            List<Object> results = new ArrayList<>(values.size());
+
+            ids.forEach((id) -> {
+                Object value = values.get(id);
+
+                if (value != null) {
+                    results.add(value);
+                }
+            });
+
+            write(this.encode(results, mediaType, pretty), response);
+            return;
+        }
+
+        EncodedResponse[] elements = new EncodedResponse[ids.size()];
+        List<String> missingIds = new ArrayList<>();
+
+        for (int i = 0; i < ids.size(); ++i) {
+            elements[i] = this.responses.getIfPresent(createCacheKey(prefix + ids.get(i), mediaType, false));
+
+            if (elements[i] == null) {
+                missingIds.add(ids.get(i));
+            }
+        }
+
+        if (!missingIds.isEmpty()) {
+            Map<String, ?> values = lookup.lookup(missingIds);
+
+            for (int i = 0; i < ids.size(); ++i) {
+                Object value = (elements[i] == null ? values.get(ids.get(i)) : null);
+
+                if (value != null) {
+                    elements[i] = this.encode(value, mediaType, false);
+                    this.responses.put(createCacheKey(prefix + ids.get(i), mediaType, false), elements[i]);
+                }
+            }
+        }
+
+        String contentType = null;
+        ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+        body.write('[');
+
+        for (EncodedResponse element : elements) {
+            if (element == null) {
+                continue;
+            }
+
+            if (contentType != null) {
+                body.write(',');
+            } else {
+                contentType = element.contentType;
+            }
+
+            body.write(element.body);
+        }
+
+        body.write(']');
+
+        if (contentType == null) {
+            write(this.encode(Collections.emptyList(), mediaType, false), response);
+        } else {
+            write(new EncodedResponse(contentType, body.toByteArray()), response);
+        }
+    }
+
+    /**
+     * Writes an encoded response to the client.
+     *
+     * @param encoded  an encoded response.
+     * @param response the response.
+     * @throws IOException when writing the response fails.
+     */
+    private static void write(@Nonnull EncodedResponse encoded, @Nonnull HttpServletResponse response) throws IOException {
+        if (encoded.contentType != null) {
+            response.setContentType(encoded.contentType);
+        }
+
+        response.setContentLength(encoded.body.length);
+        response.getOutputStream().write(encoded.body);
+    }
+
+    /**
+     * Creates the key of an encoded response.
+     *
+     * @param key       the logical key of the object.
+     * @param mediaType the requested media type.
+     * @param pretty    true if the output is indented.
+     * @return a cache key.
+     */
+    @Nonnull
+    private static String createCacheKey(@Nonnull String key, @Nonnull MediaType mediaType, boolean pretty) {
+        MediaType format = (pretty ? new MediaType(mediaType, PRETTY_MEDIA_TYPE_PARAMETERS) : mediaType);
+        return key + ' ' + format;
+    }
+
+    /**
+     * Resolves the media type which has been requested by the client.
+     *
+     * Types are negotiated in the same way as Spring MVC does for regular handler methods: The
+     * accepted types are matched against the types supported by all Jackson based converters (the
+     * remaining converters are limited to strings, byte arrays and resources) and the most specific
+     * match with the highest quality is selected. Wildcard matches fall back to JSON.
+     *
+     * @param request a request.
+     * @return a media type (without quality parameter).
+     *
+     * @throws HttpMediaTypeNotAcceptableException when none of the accepted types is supported.
+     */
+    @Nonnull
+    private MediaType resolveMediaType(@Nonnull HttpServletRequest request) throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> requestedTypes = this.contentNegotiationManager.resolveMediaTypes(new ServletWebRequest(request));
+        List<MediaType> producibleTypes = new ArrayList<>();
+
+        for (HttpMessageConverter<?> converter : this.handlerAdapter.getMessageConverters()) {
+            if (converter instanceof AbstractJackson2HttpMessageConverter) {
+                producibleTypes.addAll(converter.getSupportedMediaTypes());
+            }
+        }
+
+        Set<MediaType> compatibleTypes = new LinkedHashSet<>();
+
+        for (MediaType requestedType : requestedTypes) {
+            for (MediaType producibleType : producibleTypes) {
+                if (requestedType.isCompatibleWith(producibleType)) {
+                    compatibleTypes.add(getMostSpecificMediaType(requestedType, producibleType));
+                }
+            }
+        }
+
+        List<MediaType> mediaTypes = new ArrayList<>(compatibleTypes);
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+
+        for (MediaType mediaType : mediaTypes) {
+            MediaType type = mediaType.removeQualityValue();
+
+            if (type.isConcrete()) {
+                return type;
+            }
+
+            if (type.equals(MediaType.ALL) || type.equals(APPLICATION_MEDIA_TYPE)) {
+                return MediaType.APPLICATION_JSON_UTF8;
+            }
+        }
+
+        throw new HttpMediaTypeNotAcceptableException(producibleTypes);
+    }
+
+    /**
+     * Selects the more specific of an accepted and a producible media type while retaining the
+     * quality of the accepted type.
+     *
+     * @param acceptType  an accepted type.
+     * @param produceType a compatible producible type.
+     * @return a media type.
+     */
+    @Nonnull
+    private static MediaType getMostSpecificMediaType(@Nonnull MediaType acceptType, @Nonnull MediaType produceType) {
+        MediaType produceTypeToUse = produceType.copyQualityValue(acceptType);
+        return (MediaType.SPECIFICITY_COMPARATOR.compare(acceptType, produceTypeToUse) <= 0 ? acceptType : produceTypeToUse);
+    }
+
+    /**
+     * Checks whether the client explicitly requested indented output.
+     *
+     * @param request a request.
+     * @return true if requested, false otherwise.
+     */
+    private static boolean isPrettyPrintRequested(@Nonnull HttpServletRequest request) {
+        String value = request.getParameter(PRETTY_PARAMETER);
+        return value != null && !"false".equalsIgnoreCase(value);
+    }
+
+    /**
+     * Encodes an object using the first message converter which supports the specified media
+     * type.
+     *
+     * @param value     an object.
+     * @param mediaType a media type.
+     * @param pretty    true if the output shall be indented.
+     * @return an encoded response.
+     *
+     * @throws HttpMediaTypeNotAcceptableException when none of the converters supports the type.
+     * @throws IOException                         when encoding fails.
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private EncodedResponse encode(@Nonnull Object value, @Nonnull MediaType mediaType, boolean pretty) throws HttpMediaTypeNotAcceptableException, IOException {
+        for (HttpMessageConverter<?> converter : this.handlerAdapter.getMessageConverters()) {
+            if (!converter.canWrite(value.getClass(), mediaType)) {
+                continue;
+            }
+
+            if (pretty && converter instanceof AbstractJackson2HttpMessageConverter) {
+                byte[] body = ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper()
+                        .writer(SerializationFeature.INDENT_OUTPUT)
+                        .writeValueAsBytes(value);
+                MediaType contentType = (mediaType.getCharset() == null ? new MediaType(mediaType, StandardCharsets.UTF_8) : mediaType);
+
+                return new EncodedResponse(contentType.toString(), body);
+            }
+
+            BufferedOutputMessage message = new BufferedOutputMessage();
+            ((HttpMessageConverter<Object>) converter).write(value, mediaType, message);
+
+            MediaType contentType = message.headers.getContentType();
+            return new EncodedResponse(contentType == null ? null : contentType.toString(), message.body.toByteArray());
+        }
+
+        throw new HttpMediaTypeNotAcceptableException(this.handlerAdapter.getMessageConverters().stream().flatMap((c) -> c.getSupportedMediaTypes().stream()).distinct().collect(Collectors.toList()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Collection<Metric<?>> metrics() {
+        Collection<Metric<?>> metrics = new ArrayList<>();
+
+        if (this.responses != null) {
+            CacheStats stats = this.responses.stats();
+
+            metrics.add(new Metric<>("mojang.cache.response.hits", stats.hitCount()));
+            metrics.add(new Metric<>("mojang.cache.response.misses", stats.missCount()));
+            metrics.add(new Metric<>("mojang.cache.response.evictions", stats.evictionCount()));
+            metrics.add(new Metric<>("mojang.cache.response.size", this.responses.estimatedSize()));
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Retrieves an object which has not been encoded yet.
+     */
+    @FunctionalInterface
+    public interface Lookup {
+
+        /**
+         * Retrieves the object.
+         *
+         * @return an object.
+         *
+         * @throws IOException when retrieving the object fails.
+         */
+        @Nonnull
+        Object lookup() throws IOException;
+    }
+
+    /**
+     * Retrieves a set of list elements which have not been encoded yet.
+     */
+    @FunctionalInterface
+    public interface ListLookup {
+
+        /**
+         * Retrieves a set of elements.
+         *
+         * @param ids a list of element identifiers.
+         * @return a map of identifiers and elements (elements which do not exist are omitted).
+         *
+         * @throws IOException when retrieving the elements fails.
+         */
+        @Nonnull
+        Map<String, ?> lookup(@Nonnull List<String> ids) throws IOException;
+    }
+
+    /**
+     * Represents an encoded response.
+     */
+    @Immutable
+    private static final class EncodedResponse {
+        private final String contentType;
+        private final byte[] body;
+
+        private EncodedResponse(@Nullable String contentType, @Nonnull byte[] body) {
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Captures the output of a message converter.
+     */
+    private static final class BufferedOutputMessage implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public OutputStream getBody() {
+            return this.body;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.headers;
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package net.minepay.mcapi.controller.v1;
 
+import net.minepay.mcapi.controller.ResponseCache;
 import net.minepay.mcapi.controller.error.NoSuchNameException;
 import net.minepay.mcapi.mojang.ProfileName;
 import net.minepay.mcapi.mojang.client.MojangClient;
 import net.minepay.mcapi.mojang.cache.MojangCache;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -16,12 +18,16 @@ import org.springframework.web.bind.annotation.RestController;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 /**
  * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
@@ -32,11 +38,30 @@ import javax.annotation.concurrent.ThreadSafe;
 public class NameController {
     private final MojangCache cache;
     private final MojangClient client;
+    private final ResponseCache responseCache;
 
     @Autowired
-    public NameController(@Nonnull MojangCache cache, @Nonnull MojangClient client) {
+    public NameController(@Nonnull MojangCache cache, @Nonnull MojangClient client, @Nonnull ResponseCache responseCache) {
         this.cache = cache;
         this.client = client;
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Writes the UUID which has been associated with a specified display name at a certain point
+     * in time.
+     *
+     * @param name      a display name.
+     * @param timestamp a timestamp.
+     * @param request   the request.
+     * @param response  the response.
+     * @throws HttpMediaTypeNotAcceptableException when the requested format is not supported.
+     * @throws IOException                         when requesting data from Mojang fails.
+     * @see #lookupIdentifier(String, Instant)
+     */
+    @RequestMapping(path = "/{name}", method = RequestMethod.GET)
+    public void writeIdentifier(@Nonnull @PathVariable("name") String name, @Nullable @RequestParam(name = "at", required = false) Instant timestamp, @Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response) throws HttpMediaTypeNotAcceptableException, IOException {
+        this.responseCache.write("name:" + name.toLowerCase() + (timestamp == null ? "" : "@" + timestamp.toEpochMilli()), () -> this.lookupIdentifier(name, timestamp), request, response);
     }
 
     /**
@@ -50,8 +75,7 @@ public class NameController {
      * @throws IOException when requesting data from Mojang fails.
      */
     @Nonnull
-    @RequestMapping(path = "/{name}", method = RequestMethod.GET)
-    public ProfileName lookupIdentifier(@Nonnull @PathVariable("name") String name, @Nullable @RequestParam(name = "at", required = false) Instant timestamp) throws IOException {
+    public ProfileName lookupIdentifier(@Nonnull String name, @Nullable Instant timestamp) throws IOException {
         ProfileName identifier;
 
         if (timestamp != null) {
@@ -61,17 +85,21 @@ public class NameController {
                 identifier = this.client.findIdentifier(name, timestamp);
 
                 if (identifier != null) {
-                    this.cache.saveIdentifier(identifier, timestamp);
+                    this.cache.saveIdentifier(name, identifier, timestamp);
                 }
             }
         } else {
+            // names which are known to be unknown are answered by the local tier without
+            // consulting Redis at all
             identifier = this.cache.findIdentifier(name);
 
-            if (identifier == null) {
+            if (identifier == null && !this.cache.isUnknownName(name)) {
                 identifier = this.client.findIdentifier(name);
 
                 if (identifier != null) {
                     this.cache.saveIdentifier(identifier);
+                } else {
+                    this.cache.saveUnknownName(name);
                 }
             }
         }
@@ -83,6 +111,29 @@ public class NameController {
         return identifier;
     }
 
+    /**
+     * Writes a list of UUIDs which have been associated with a specified display name.
+     *
+     * @param names    a list of display names.
+     * @param request  the request.
+     * @param response the response.
+     * @throws HttpMediaTypeNotAcceptableException when the requested format is not supported.
+     * @throws IOException                         when requesting data from Mojang fails.
+     * @see #lookupIdentifiers(List)
+     */
+    @RequestMapping(method = RequestMethod.POST)
+    public void writeIdentifiers(@Nonnull @RequestBody List<String> names, @Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response) throws HttpMediaTypeNotAcceptableException, IOException {
+        Map<String, String> distinctNames = distinct(names);
+
+        // elements share their encoded form with the single name endpoint
+        this.responseCache.writeList("name:", new ArrayList<>(distinctNames.keySet()), (keys) -> {
+            List<String> requestedNames = new ArrayList<>(keys.size());
+            keys.forEach((k) -> requestedNames.add(distinctNames.get(k)));
+
+            return this.findIdentifiers(requestedNames);
+        }, request, response);
+    }
+
     /**
      * Attempts to find a list of UUIDs which have been associated with a specified display name.
      *
@@ -92,33 +143,82 @@ public class NameController {
      * @throws IOException when requesting data from Mojang fails.
      */
     @Nonnull
-    @RequestMapping(method = RequestMethod.POST)
-    public List<ProfileName> lookupIdentifiers(@Nonnull @RequestBody List<String> names) throws IOException {
+    public List<ProfileName> lookupIdentifiers(@Nonnull List<String> names) throws IOException {
+        Map<String, String> distinctNames = distinct(names);
+        Map<String, ProfileName> identifiers = this.findIdentifiers(new ArrayList<>(distinctNames.values()));
+
+        // results are reported in request order
+        List<ProfileName> results = new ArrayList<>();
+
+        for (String key : distinctNames.keySet()) {
+            ProfileName identifier = identifiers.get(key);
+
+            if (identifier != null) {
+                results.add(identifier);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Removes duplicates from a list of requested names.
+     *
+     * @param names a list of display names.
+     * @return a map of lower case names and the first matching requested name (in request order).
+     */
+    @Nonnull
+    private static Map<String, String> distinct(@Nonnull List<String> names) {
         if (names.size() > 100) {
             throw new IllegalArgumentException("Cannot poll more than 100 names at once");
         }
 
+        Map<String, String> distinctNames = new LinkedHashMap<>();
+        names.forEach((n) -> distinctNames.putIfAbsent(n.toLowerCase(), n));
+        return distinctNames;
+    }
+
+    /**
+     * Retrieves the UUIDs of a list of distinct display names from the cache or, if absent, from
+     * Mojang.
+     *
+     * @param requestedNames a list of distinct display names.
+     * @return a map of lower case names and their respective profile names (unknown names are
+     * omitted).
+     *
+     * @throws IOException when requesting data from Mojang fails.
+     */
+    @Nonnull
+    private Map<String, ProfileName> findIdentifiers(@Nonnull List<String> requestedNames) throws IOException {
         // check cache first
-        List<ProfileName> identifiers = new ArrayList<>();
-        Iterator<String> it = names.iterator();
+        List<ProfileName> cachedIdentifiers = this.cache.findIdentifiers(requestedNames);
+        Map<String, ProfileName> identifiers = new HashMap<>();
+        List<String> missingNames = new ArrayList<>();
 
-        while (it.hasNext()) {
-            ProfileName identifier = this.cache.findIdentifier(it.next());
+        for (int i = 0; i < requestedNames.size(); ++i) {
+            ProfileName identifier = cachedIdentifiers.get(i);
 
             if (identifier != null) {
-                identifiers.add(identifier);
-                it.remove();
+                identifiers.put(requestedNames.get(i).toLowerCase(), identifier);
+            } else if (!this.cache.isUnknownName(requestedNames.get(i))) {
+                // names which are known to be unknown are never passed on to Mojang
+                missingNames.add(requestedNames.get(i));
             }
         }
 
         // poll from Mojang if any data is left to process
-        if (names.size() > 0) {
-            List<ProfileName> tmp = this.client.findIdentifier(names);
+        if (!missingNames.isEmpty()) {
+            List<ProfileName> tmp = this.client.findIdentifier(missingNames);
 
             if (tmp != null) {
-                // TODO: Pipeline?
-                tmp.forEach(this.cache::saveIdentifier);
-                identifiers.addAll(tmp);
+                if (!tmp.isEmpty()) {
+                    this.cache.saveIdentifiers(tmp);
+                    tmp.forEach((i) -> identifiers.put(i.getName().toLowerCase(), i));
+                }
+
+                missingNames.stream()
+                        .filter((n) -> !identifiers.containsKey(n.toLowerCase()))
+                        .forEach(this.cache::saveUnknownName);
             }
         }
 
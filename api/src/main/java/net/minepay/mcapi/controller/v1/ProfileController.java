@@ -1,6 +1,8 @@
 package net.minepay.mcapi.controller.v1;
 
+import net.minepay.mcapi.controller.ResponseCache;
 import net.minepay.mcapi.controller.error.NoSuchProfileException;
+import net.minepay.mcapi.mojang.ProfileIdentifier;
 import net.minepay.mcapi.mojang.ProfileName;
 import net.minepay.mcapi.mojang.ProfileNameChange;
 import net.minepay.mcapi.mojang.client.MojangClient;
@@ -8,6 +10,7 @@ import net.minepay.mcapi.mojang.cache.MojangCache;
 import net.minepay.mcapi.mojang.Profile;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -17,11 +20,12 @@ import org.springframework.web.bind.annotation.RestController;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
-import java.util.UUID;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 /**
  * Handles Mojang profile lookups.
@@ -35,12 +39,41 @@ public class ProfileController {
     private final MojangClient client;
     private final MojangCache cache;
     private final NameController nameController;
+    private final ResponseCache responseCache;
 
     @Autowired
-    public ProfileController(@Nonnull MojangClient client, @Nonnull MojangCache cache, @Nonnull NameController nameController) {
+    public ProfileController(@Nonnull MojangClient client, @Nonnull MojangCache cache, @Nonnull NameController nameController, @Nonnull ResponseCache responseCache) {
         this.client = client;
         this.cache = cache;
         this.nameController = nameController;
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Writes a profile based on a username or UUID.
+     *
+     * @param name      a name or identifier.
+     * @param timestamp a timestamp.
+     * @param request   the request.
+     * @param response  the response.
+     * @throws HttpMediaTypeNotAcceptableException when the requested format is not supported.
+     * @throws IOException                         when requesting data from the Mojang API fails.
+     * @see #lookupById(String, Instant)
+     */
+    @RequestMapping(path = "/{name}", method = RequestMethod.GET)
+    public void writeProfile(@Nonnull @PathVariable("name") String name, @Nullable @RequestParam(value = "at", required = false) Instant timestamp, @Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response) throws HttpMediaTypeNotAcceptableException, IOException {
+        this.responseCache.write("profile:" + normalize(name) + (timestamp == null ? "" : "@" + timestamp.toEpochMilli()), () -> this.lookupById(name, timestamp), request, response);
+    }
+
+    /**
+     * Normalizes a name or identifier for use within a response cache key.
+     *
+     * @param name a name or identifier.
+     * @return a normalized name or identifier.
+     */
+    @Nonnull
+    private static String normalize(@Nonnull String name) {
+        return (Profile.isValidIdentifier(name) ? ProfileIdentifier.parse(name).toString() : name.toLowerCase());
     }
 
     /**
@@ -53,28 +86,38 @@ public class ProfileController {
      * @throws IOException when requesting data from the Mojang API fails.
      */
     @Nonnull
-    @RequestMapping(path = "/{name}", method = RequestMethod.GET)
-    public Profile lookupById(@Nonnull @PathVariable("name") String name, @Nullable @RequestParam(value = "at", required = false) Instant timestamp) throws IOException {
+    public Profile lookupById(@Nonnull String name, @Nullable Instant timestamp) throws IOException {
         if (!Profile.isValidIdentifier(name)) {
             return this.lookupByName(name, timestamp);
         }
 
-        if (Profile.isValidUUID(name)) {
-            name = Profile.convertIdentifier(UUID.fromString(name));
-        }
+        return this.lookupProfile(ProfileIdentifier.parse(name));
+    }
 
-        Profile profile = this.cache.findProfile(name);
+    /**
+     * Attempts to find a profile based on its identifier.
+     *
+     * @param identifier an identifier.
+     * @return a profile.
+     *
+     * @throws IOException when requesting data from the Mojang API fails.
+     */
+    @Nonnull
+    public Profile lookupProfile(@Nonnull ProfileIdentifier identifier) throws IOException {
+        Profile profile = this.cache.findProfile(identifier);
 
-        if (profile == null) {
-            profile = this.client.findProfile(name);
+        if (profile == null && !this.cache.isUnknownProfile(identifier)) {
+            profile = this.client.findProfile(identifier.toString());
 
             if (profile != null) {
                 this.cache.saveProfile(profile);
+            } else {
+                this.cache.saveUnknownProfile(identifier);
             }
         }
 
         if (profile == null) {
-            throw new NoSuchProfileException(name);
+            throw new NoSuchProfileException(identifier.toString());
         }
 
         return profile;
@@ -91,8 +134,31 @@ public class ProfileController {
      */
     @Nonnull
     public Profile lookupByName(@Nonnull String name, @Nullable Instant timestamp) throws IOException {
+        if (timestamp == null) {
+            Profile profile = this.cache.findProfileByName(name);
+
+            if (profile != null) {
+                return profile;
+            }
+        }
+
         ProfileName identifier = this.nameController.lookupIdentifier(name, timestamp);
-        return this.lookupById(identifier.getId(), null);
+        return this.lookupProfile(identifier.getIdentifier());
+    }
+
+    /**
+     * Writes a profile history based on a username or UUID.
+     *
+     * @param name     a name or UUID.
+     * @param request  the request.
+     * @param response the response.
+     * @throws HttpMediaTypeNotAcceptableException when the requested format is not supported.
+     * @throws IOException                         when requesting data from the Mojang API fails.
+     * @see #lookupHistoryById(String)
+     */
+    @RequestMapping(path = "/{name}/history", method = RequestMethod.GET)
+    public void writeHistory(@Nonnull @PathVariable("name") String name, @Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response) throws HttpMediaTypeNotAcceptableException, IOException {
+        this.responseCache.write("history:" + normalize(name), () -> this.lookupHistoryById(name), request, response);
     }
 
     /**
@@ -104,28 +170,40 @@ public class ProfileController {
      * @throws IOException when requesting data from the Mojang API fails.
      */
     @Nonnull
-    @RequestMapping(path = "/{name}/history", method = RequestMethod.GET)
-    public List<ProfileNameChange> lookupHistoryById(@Nonnull @PathVariable("name") String name) throws IOException {
+    public List<ProfileNameChange> lookupHistoryById(@Nonnull String name) throws IOException {
         if (!Profile.isValidIdentifier(name)) {
             return this.lookupHistoryByName(name);
         }
 
-        if (Profile.isValidUUID(name)) {
-            name = Profile.convertIdentifier(UUID.fromString(name));
-        }
+        return this.lookupHistory(ProfileIdentifier.parse(name));
+    }
 
-        List<ProfileNameChange> history = this.cache.findNameHistory(name);
+    /**
+     * Attempts to find a profile history based on its identifier.
+     *
+     * @param identifier an identifier.
+     * @return a history.
+     *
+     * @throws IOException when requesting data from the Mojang API fails.
+     */
+    @Nonnull
+    public List<ProfileNameChange> lookupHistory(@Nonnull ProfileIdentifier identifier) throws IOException {
+        List<ProfileNameChange> history = this.cache.findNameHistory(identifier);
 
-        if (history == null) {
-            history = this.client.getNameHistory(name);
+        // Mojang reports the same status for histories of unknown profiles thus both share a
+        // single tombstone
+        if (history == null && !this.cache.isUnknownProfile(identifier)) {
+            history = this.client.getNameHistory(identifier.toString());
 
             if (history != null) {
-                this.cache.saveNameHistory(name, history);
+                this.cache.saveNameHistory(identifier, history);
+            } else {
+                this.cache.saveUnknownProfile(identifier);
             }
         }
 
         if (history == null) {
-            throw new NoSuchProfileException(name);
+            throw new NoSuchProfileException(identifier.toString());
         }
 
         return history;
@@ -141,7 +219,13 @@ public class ProfileController {
      */
     @Nonnull
     public List<ProfileNameChange> lookupHistoryByName(@Nonnull String name) throws IOException {
+        List<ProfileNameChange> history = this.cache.findNameHistoryByName(name);
+
+        if (history != null) {
+            return history;
+        }
+
         ProfileName identifier = this.nameController.lookupIdentifier(name, null);
-        return this.lookupHistoryById(identifier.getId());
+        return this.lookupHistory(identifier.getIdentifier());
     }
 }
@@ -1,17 +1,20 @@
 package net.minepay.mcapi.mojang;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 
+import net.minepay.mcapi.mojang.json.MojangModule;
+
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.annotation.Nonnull;
 import javax.annotation.concurrent.Immutable;
@@ -27,25 +30,31 @@ import javax.annotation.concurrent.ThreadSafe;
 public class Profile {
     public static final ObjectReader reader;
 
-    private static final Pattern MOJANG_UUID_PATTERN = Pattern.compile("^([A-F0-9]{8})([A-F0-9]{4})([01-5][0-9A-F]{3})([089AB][0-9A-F]{3})([A-F0-9]{12})$", Pattern.CASE_INSENSITIVE);
-    private static final Pattern UUID_PATTERN = Pattern.compile("^([A-F0-9]{8})-([A-F0-9]{4})-([01-5][0-9A-F]{3})-([089AB][0-9A-F]{3})-([A-F0-9]{12})$", Pattern.CASE_INSENSITIVE);
     private final String id;
     private final String name;
-    private final List<ProfileProperty> properties;
+    private final List<ProfileProperty<?>> properties;
 
     static {
         ObjectMapper mapper = new ObjectMapper();
         mapper.findAndRegisterModules();
+        mapper.registerModule(new MojangModule());
 
         reader = mapper.reader();
     }
 
+    public Profile(@Nonnull String id, @Nonnull String name, @Nonnull Collection<ProfileProperty<?>> properties) {
+        this.id = id;
+        this.name = name;
+        this.properties = Collections.unmodifiableList(new ArrayList<>(properties));
+    }
+
+    @JsonCreator
     public Profile(@Nonnull @JsonProperty("id") String id, @Nonnull @JsonProperty("name") String name, @Nonnull @JsonProperty("properties") List<JsonNode> properties) throws IOException {
         this.id = id;
         this.name = name;
 
         {
-            List<ProfileProperty> profileProperties = new ArrayList<>();
+            List<ProfileProperty<?>> profileProperties = new ArrayList<>();
             for (JsonNode node : properties) {
                 String propertyName = node.get("name").asText();
                 JsonNode value = node.get("value");
@@ -53,9 +62,10 @@ public class Profile {
 
                 if ("textures".equalsIgnoreCase(propertyName)) {
                     if (value.isObject()) {
-                        profileProperties.add(new ProfileProperty<ProfileTextures>(propertyName, reader.forType(ProfileTextures.class).readValue(value), signature));
+                        profileProperties.add(new ProfileProperty<>(propertyName, ProfileTextures.fromJson(value), signature));
                     } else {
-                        profileProperties.add(new ProfileProperty<>(propertyName, ProfileTextures.fromBaseString(value.asText()), signature));
+                        // textures are only decoded once a consumer actually accesses them
+                        profileProperties.add(new TexturesProperty(propertyName, value.asText(), signature));
                     }
                 } else {
                     profileProperties.add(new ProfileProperty<>(propertyName, value.asText(), signature));
@@ -73,7 +83,7 @@ public class Profile {
      */
     @Nonnull
     public static String convertIdentifier(@Nonnull UUID uuid) {
-        return uuid.toString().replaceAll("-", "");
+        return ProfileIdentifier.fromUUID(uuid).toString();
     }
 
     /**
@@ -84,12 +94,7 @@ public class Profile {
      */
     @Nonnull
     public static UUID convertIdentifier(@Nonnull String identifier) {
-        final Matcher matcher;
-        if ((matcher = MOJANG_UUID_PATTERN.matcher(identifier)).matches()) {
-            identifier = matcher.replaceFirst("$1-$2-$3-$4-$5");
-        }
-
-        return UUID.fromString(identifier);
+        return ProfileIdentifier.parse(identifier).toUUID();
     }
 
     /**
@@ -109,7 +114,7 @@ public class Profile {
      * @return true if valid, false otherwise.
      */
     public static boolean isValidMojangIdentifier(@Nonnull String identifier) {
-        return MOJANG_UUID_PATTERN.matcher(identifier).matches();
+        return ProfileIdentifier.isValidMojangIdentifier(identifier);
     }
 
     /**
@@ -119,7 +124,7 @@ public class Profile {
      * @return true if valid, false otherwise.
      */
     public static boolean isValidUUID(@Nonnull String identifier) {
-        return UUID_PATTERN.matcher(identifier).matches();
+        return ProfileIdentifier.isValidUUID(identifier);
     }
 
     @Nonnull
@@ -127,13 +132,24 @@ public class Profile {
         return this.id;
     }
 
+    /**
+     * Retrieves the identifier of this profile in its compact form.
+     *
+     * @return an identifier.
+     */
+    @Nonnull
+    @JsonIgnore
+    public ProfileIdentifier getIdentifier() {
+        return ProfileIdentifier.parse(this.id);
+    }
+
     @Nonnull
     public String getName() {
         return this.name;
     }
 
     @Nonnull
-    public List<ProfileProperty> getProperties() {
+    public List<ProfileProperty<?>> getProperties() {
         return this.properties;
     }
 }
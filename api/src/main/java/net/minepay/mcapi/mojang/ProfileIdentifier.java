@@ -0,0 +1,331 @@
+package net.minepay.mcapi.mojang;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Represents a profile identifier in its compact form (a pair of longs).
+ *
+ * <strong>Implementation Notes:</strong> Identifiers are parsed from and formatted to their
+ * hexadecimal representation (with or without dashes) by hand thus neither validation nor parsing
+ * allocate any intermediate objects. Parsing accepts any hexadecimal identifier while validation
+ * additionally checks the version and variant of the identifier.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@Immutable
+@ThreadSafe
+public final class ProfileIdentifier implements Comparable<ProfileIdentifier> {
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+
+    public ProfileIdentifier(long mostSignificantBits, long leastSignificantBits) {
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+    }
+
+    /**
+     * Converts a standard UUID into a profile identifier.
+     *
+     * @param uuid a UUID.
+     * @return an identifier.
+     */
+    @Nonnull
+    public static ProfileIdentifier fromUUID(@Nonnull UUID uuid) {
+        return new ProfileIdentifier(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Parses a Mojang identifier (32 hexadecimal digits) or a regular UUID (36 characters
+     * including dashes).
+     *
+     * @param value an identifier.
+     * @return an identifier.
+     *
+     * @throws IllegalArgumentException when the value is neither a Mojang identifier nor a UUID.
+     */
+    @Nonnull
+    public static ProfileIdentifier parse(@Nonnull CharSequence value) {
+        ProfileIdentifier identifier = tryParse(value);
+
+        if (identifier == null) {
+            throw new IllegalArgumentException("Malformed identifier: " + value);
+        }
+
+        return identifier;
+    }
+
+    /**
+     * Parses a Mojang identifier (32 hexadecimal digits) or a regular UUID (36 characters
+     * including dashes).
+     *
+     * @param value an identifier.
+     * @return an identifier or, if the value is neither a Mojang identifier nor a UUID, null.
+     */
+    @Nullable
+    public static ProfileIdentifier tryParse(@Nonnull CharSequence value) {
+        if (isHex(value)) {
+            return new ProfileIdentifier(parseHex(value, 0, 16), parseHex(value, 16, 32));
+        }
+
+        if (isDashedHex(value)) {
+            long mostSignificantBits = parseHex(value, 0, 8) << 32 | parseHex(value, 9, 13) << 16 | parseHex(value, 14, 18);
+            long leastSignificantBits = parseHex(value, 19, 23) << 48 | parseHex(value, 24, 36);
+
+            return new ProfileIdentifier(mostSignificantBits, leastSignificantBits);
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks whether the supplied value is a valid Mojang identifier.
+     *
+     * @param value an identifier.
+     * @return true if valid, false otherwise.
+     */
+    public static boolean isValidMojangIdentifier(@Nonnull CharSequence value) {
+        return isHex(value) && isSupported(value.charAt(12), value.charAt(16));
+    }
+
+    /**
+     * Checks whether the supplied value is a valid UUID.
+     *
+     * @param value a UUID.
+     * @return true if valid, false otherwise.
+     */
+    public static boolean isValidUUID(@Nonnull CharSequence value) {
+        return isDashedHex(value) && isSupported(value.charAt(14), value.charAt(19));
+    }
+
+    /**
+     * Checks whether the supplied value consists of exactly 32 hexadecimal digits.
+     *
+     * @param value a value.
+     * @return true if hexadecimal, false otherwise.
+     */
+    private static boolean isHex(@Nonnull CharSequence value) {
+        if (value.length() != 32) {
+            return false;
+        }
+
+        for (int i = 0; i < 32; ++i) {
+            if (hexValue(value.charAt(i)) == -1) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether the supplied value consists of 32 hexadecimal digits which have been
+     * separated by dashes in the standard UUID layout (8-4-4-4-12).
+     *
+     * @param value a value.
+     * @return true if hexadecimal, false otherwise.
+     */
+    private static boolean isDashedHex(@Nonnull CharSequence value) {
+        if (value.length() != 36) {
+            return false;
+        }
+
+        for (int i = 0; i < 36; ++i) {
+            char c = value.charAt(i);
+
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (hexValue(c) == -1) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether the version and variant digits of an identifier denote a type of identifier
+     * which is issued by Mojang.
+     *
+     * @param version the version digit.
+     * @param variant the variant digit.
+     * @return true if supported, false otherwise.
+     */
+    private static boolean isSupported(char version, char variant) {
+        int variantValue = hexValue(variant);
+        return hexValue(version) <= 5 && (variantValue == 0 || (variantValue >= 8 && variantValue <= 11));
+    }
+
+    /**
+     * Decodes a single hexadecimal digit.
+     *
+     * @param c a character.
+     * @return a value or -1 if the character is not a hexadecimal digit.
+     */
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Decodes a range of (previously validated) hexadecimal digits.
+     *
+     * @param value a value.
+     * @param start the start index (inclusive).
+     * @param end   the end index (exclusive).
+     * @return a decoded value.
+     */
+    private static long parseHex(@Nonnull CharSequence value, int start, int end) {
+        long result = 0;
+
+        for (int i = start; i < end; ++i) {
+            result = result << 4 | hexValue(value.charAt(i));
+        }
+
+        return result;
+    }
+
+    /**
+     * Writes sixteen hexadecimal digits into a buffer.
+     *
+     * @param buffer a buffer.
+     * @param offset an offset.
+     * @param value  a value.
+     */
+    private static void writeHex(@Nonnull byte[] buffer, int offset, long value) {
+        for (int i = 15; i >= 0; --i) {
+            buffer[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * Encodes this identifier in its Mojang form (as ASCII characters) following an arbitrary
+     * prefix (such as the prefix of a Redis key).
+     *
+     * @param prefix a prefix.
+     * @return an encoded identifier.
+     */
+    @Nonnull
+    public byte[] toAscii(@Nonnull byte[] prefix) {
+        byte[] buffer = new byte[prefix.length + 32];
+        System.arraycopy(prefix, 0, buffer, 0, prefix.length);
+
+        writeHex(buffer, prefix.length, this.mostSignificantBits);
+        writeHex(buffer, prefix.length + 16, this.leastSignificantBits);
+        return buffer;
+    }
+
+    /**
+     * Encodes this identifier in its Mojang form (as ASCII characters).
+     *
+     * @return an encoded identifier.
+     */
+    @Nonnull
+    public byte[] toAscii() {
+        return this.toAscii(new byte[0]);
+    }
+
+    /**
+     * Converts this identifier into a standard UUID.
+     *
+     * @return a UUID.
+     */
+    @Nonnull
+    public UUID toUUID() {
+        return new UUID(this.mostSignificantBits, this.leastSignificantBits);
+    }
+
+    /**
+     * Formats this identifier as a regular UUID (including dashes).
+     *
+     * @return a UUID string.
+     */
+    @Nonnull
+    public String toUUIDString() {
+        byte[] digits = this.toAscii();
+        byte[] buffer = new byte[36];
+
+        System.arraycopy(digits, 0, buffer, 0, 8);
+        System.arraycopy(digits, 8, buffer, 9, 4);
+        System.arraycopy(digits, 12, buffer, 14, 4);
+        System.arraycopy(digits, 16, buffer, 19, 4);
+        System.arraycopy(digits, 20, buffer, 24, 12);
+        buffer[8] = buffer[13] = buffer[18] = buffer[23] = '-';
+
+        return new String(buffer, StandardCharsets.US_ASCII);
+    }
+
+    public long getMostSignificantBits() {
+        return this.mostSignificantBits;
+    }
+
+    public long getLeastSignificantBits() {
+        return this.leastSignificantBits;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int compareTo(@Nonnull ProfileIdentifier o) {
+        int result = Long.compare(this.mostSignificantBits, o.mostSignificantBits);
+        return (result != 0 ? result : Long.compare(this.leastSignificantBits, o.leastSignificantBits));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProfileIdentifier)) {
+            return false;
+        }
+
+        ProfileIdentifier that = (ProfileIdentifier) o;
+        return this.mostSignificantBits == that.mostSignificantBits && this.leastSignificantBits == that.leastSignificantBits;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        long hash = this.mostSignificantBits ^ this.leastSignificantBits;
+        return (int) (hash >> 32) ^ (int) hash;
+    }
+
+    /**
+     * Formats this identifier in its Mojang form (32 lower case hexadecimal digits).
+     *
+     * @return an identifier.
+     */
+    @Nonnull
+    @Override
+    public String toString() {
+        return new String(this.toAscii(), StandardCharsets.US_ASCII);
+    }
+}
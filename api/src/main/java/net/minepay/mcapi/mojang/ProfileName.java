@@ -1,6 +1,7 @@
 package net.minepay.mcapi.mojang;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import javax.annotation.Nonnull;
@@ -29,6 +30,17 @@ public class ProfileName {
         return this.id;
     }
 
+    /**
+     * Retrieves the identifier of the associated profile in its compact form.
+     *
+     * @return an identifier.
+     */
+    @Nonnull
+    @JsonIgnore
+    public ProfileIdentifier getIdentifier() {
+        return ProfileIdentifier.parse(this.id);
+    }
+
     @Nonnull
     public String getName() {
         return this.name;
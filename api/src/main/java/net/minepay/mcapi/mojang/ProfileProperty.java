@@ -28,6 +28,19 @@ public class ProfileProperty<T> {
         this.signature = signature;
     }
 
+    /**
+     * Creates a property which provides its value on demand (implementations are expected to
+     * override {@link #getValue()}).
+     *
+     * @param name      a property name.
+     * @param signature a signature or null.
+     */
+    protected ProfileProperty(@Nonnull String name, @Nullable String signature) {
+        this.name = name;
+        this.value = null;
+        this.signature = signature;
+    }
+
     @Nonnull
     public String getName() {
         return this.name;
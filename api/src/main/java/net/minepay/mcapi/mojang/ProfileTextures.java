@@ -4,11 +4,12 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import java.io.IOException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Base64;
 import java.util.Collections;
@@ -28,11 +29,21 @@ import javax.annotation.concurrent.ThreadSafe;
 @ThreadSafe
 @JsonIgnoreProperties("signatureRequired")
 public class ProfileTextures {
+    private static final ObjectReader reader;
+
     private final Instant timestamp;
     private final String profileId;
     private final String profileName;
     private final Map<String, Texture> textures;
 
+    static {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.findAndRegisterModules();
+        mapper.configure(DeserializationFeature.FAIL_ON_IGNORED_PROPERTIES, false);
+
+        reader = mapper.readerFor(ProfileTextures.class);
+    }
+
     @JsonCreator
     public ProfileTextures(@Nonnull @JsonProperty("timestamp") Instant timestamp, @Nonnull @JsonProperty("profileId") String profileId, @Nonnull @JsonProperty("profileName") String profileName, @Nonnull @JsonProperty("textures") Map<String, Texture> textures) {
         this.timestamp = timestamp;
@@ -51,12 +62,28 @@ public class ProfileTextures {
      */
     @Nonnull
     public static ProfileTextures fromBaseString(@Nonnull String encodedTextures) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.findAndRegisterModules();
-        mapper.configure(DeserializationFeature.FAIL_ON_IGNORED_PROPERTIES, false);
+        byte[] textureBytes;
 
-        byte[] textureBytes = Base64.getDecoder().decode(encodedTextures);
-        return mapper.readerFor(ProfileTextures.class).readValue(new String(textureBytes, StandardCharsets.UTF_8));
+        try {
+            textureBytes = Base64.getDecoder().decode(encodedTextures);
+        } catch (IllegalArgumentException ex) {
+            throw new IOException("Malformed texture encoding: " + ex.getMessage(), ex);
+        }
+
+        return reader.readValue(textureBytes);
+    }
+
+    /**
+     * Decodes a texture object out of its JSON tree representation.
+     *
+     * @param node a JSON node.
+     * @return a profile texture representation.
+     *
+     * @throws IOException when decoding the data fails.
+     */
+    @Nonnull
+    public static ProfileTextures fromJson(@Nonnull JsonNode node) throws IOException {
+        return reader.readValue(node);
     }
 
     @Nonnull
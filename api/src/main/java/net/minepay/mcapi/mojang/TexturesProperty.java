@@ -0,0 +1,74 @@
+package net.minepay.mcapi.mojang;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Represents a textures property which retains its base64 representation and decodes it only when
+ * its value is first requested.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@Immutable
+@ThreadSafe
+public class TexturesProperty extends ProfileProperty<ProfileTextures> {
+    private final String encodedValue;
+    private volatile ProfileTextures value;
+
+    public TexturesProperty(@Nonnull String name, @Nonnull String encodedValue, @Nullable String signature) {
+        super(name, signature);
+        this.encodedValue = encodedValue;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException when the encoded textures are malformed.
+     */
+    @Nonnull
+    @Override
+    public ProfileTextures getValue() {
+        ProfileTextures value = this.value;
+
+        if (value == null) {
+            try {
+                // decoding is idempotent thus concurrent callers may safely race here
+                value = ProfileTextures.fromBaseString(this.encodedValue);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Malformed textures in property " + this.getName(), ex);
+            }
+
+            this.value = value;
+        }
+
+        return value;
+    }
+
+    /**
+     * Retrieves the base64 representation of the textures (as it has been passed by Mojang).
+     *
+     * @return an encoded texture object.
+     */
+    @Nonnull
+    @JsonIgnore
+    public String getEncodedValue() {
+        return this.encodedValue;
+    }
+
+    /**
+     * Checks whether the textures have been decoded already.
+     *
+     * @return true if decoded, false otherwise.
+     */
+    @JsonIgnore
+    public boolean isDecoded() {
+        return this.value != null;
+    }
+}
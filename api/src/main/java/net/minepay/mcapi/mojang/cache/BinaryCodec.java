@@ -0,0 +1,118 @@
+package net.minepay.mcapi.mojang.cache;
+
+import net.minepay.mcapi.mojang.ProfileIdentifier;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Provides a base for compact binary representations of cached objects.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public abstract class BinaryCodec<T> {
+
+    /**
+     * Writes an object.
+     *
+     * @param output an output.
+     * @param value  an object.
+     * @throws IOException when writing fails.
+     */
+    public abstract void write(@Nonnull DataOutput output, @Nonnull T value) throws IOException;
+
+    /**
+     * Reads an object.
+     *
+     * @param input an input.
+     * @return an object.
+     *
+     * @throws IOException when reading fails or the data is malformed.
+     */
+    @Nonnull
+    public abstract T read(@Nonnull DataInput input) throws IOException;
+
+    /**
+     * Writes a Mojang identifier (32 hexadecimal digits) as a pair of longs. Identifiers which do
+     * not follow this format are written as regular strings instead.
+     *
+     * @param output     an output.
+     * @param identifier an identifier.
+     * @throws IOException when writing fails.
+     */
+    protected static void writeIdentifier(@Nonnull DataOutput output, @Nonnull String identifier) throws IOException {
+        ProfileIdentifier parsed = (identifier.length() == 32 ? ProfileIdentifier.tryParse(identifier) : null);
+
+        if (parsed == null) {
+            output.writeBoolean(false);
+            output.writeUTF(identifier);
+            return;
+        }
+
+        writeIdentifier(output, parsed);
+    }
+
+    /**
+     * Writes a profile identifier as a pair of longs.
+     *
+     * @param output     an output.
+     * @param identifier an identifier.
+     * @throws IOException when writing fails.
+     */
+    protected static void writeIdentifier(@Nonnull DataOutput output, @Nonnull ProfileIdentifier identifier) throws IOException {
+        output.writeBoolean(true);
+        output.writeLong(identifier.getMostSignificantBits());
+        output.writeLong(identifier.getLeastSignificantBits());
+    }
+
+    /**
+     * Reads a Mojang identifier.
+     *
+     * @param input an input.
+     * @return an identifier (in lower case).
+     *
+     * @throws IOException when reading fails.
+     */
+    @Nonnull
+    protected static String readIdentifier(@Nonnull DataInput input) throws IOException {
+        if (!input.readBoolean()) {
+            return input.readUTF();
+        }
+
+        return new ProfileIdentifier(input.readLong(), input.readLong()).toString();
+    }
+
+    /**
+     * Writes a string which may be null.
+     *
+     * @param output an output.
+     * @param value  a string.
+     * @throws IOException when writing fails.
+     */
+    protected static void writeNullableUTF(@Nonnull DataOutput output, @Nullable String value) throws IOException {
+        output.writeBoolean(value != null);
+
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    /**
+     * Reads a string which may be null.
+     *
+     * @param input an input.
+     * @return a string or null.
+     *
+     * @throws IOException when reading fails.
+     */
+    @Nullable
+    protected static String readNullableUTF(@Nonnull DataInput input) throws IOException {
+        return (input.readBoolean() ? input.readUTF() : null);
+    }
+}
@@ -0,0 +1,119 @@
+package net.minepay.mcapi.mojang.cache;
+
+import net.minepay.mcapi.mojang.ProfileIdentifier;
+import net.minepay.mcapi.mojang.client.AsyncMojangClient;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Refreshes stale cache entries in the background while their stale version continues to be
+ * served.
+ *
+ * <strong>Implementation Notes:</strong> At most one refresh is in flight for each key at any
+ * given time. Refreshed entries are passed back to the primary cache in order to update all of its
+ * tiers. When Mojang no longer knows about an entry, the stale version is kept until it expires.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@Component
+@ThreadSafe
+public class CacheRevalidator implements PublicMetrics {
+    private final MojangCache cache;
+    private final AsyncMojangClient client;
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder refreshed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @Autowired
+    public CacheRevalidator(@Nonnull @Lazy MojangCache cache, @Nonnull AsyncMojangClient client) {
+        this.cache = cache;
+        this.client = client;
+    }
+
+    /**
+     * Schedules a refresh of the specified profile.
+     *
+     * @param identifier a profile identifier.
+     */
+    public void refreshProfile(@Nonnull ProfileIdentifier identifier) {
+        this.refresh("profile:" + identifier, () -> this.client.findProfileAsync(identifier.toString()), this.cache::saveProfile);
+    }
+
+    /**
+     * Schedules a refresh of the name history of the specified profile.
+     *
+     * @param identifier a profile identifier.
+     */
+    public void refreshNameHistory(@Nonnull ProfileIdentifier identifier) {
+        this.refresh("name_history:" + identifier, () -> this.client.getNameHistoryAsync(identifier.toString()), (h) -> this.cache.saveNameHistory(identifier, h));
+    }
+
+    /**
+     * Schedules a refresh of an arbitrary key unless a refresh of the same key is already in
+     * flight.
+     *
+     * @param key     a key.
+     * @param fetcher a function which fetches a fresh version from Mojang.
+     * @param saver   a function which stores the fresh version.
+     * @param <T>     a value type.
+     */
+    private <T> void refresh(@Nonnull String key, @Nonnull Supplier<CompletableFuture<T>> fetcher, @Nonnull Consumer<T> saver) {
+        if (!this.pendingKeys.add(key)) {
+            return;
+        }
+
+        CompletableFuture<T> future;
+        try {
+            future = fetcher.get();
+        } catch (RuntimeException ex) {
+            this.pendingKeys.remove(key);
+            this.failed.increment();
+            return;
+        }
+
+        future.whenComplete((v, ex) -> {
+            try {
+                if (ex != null) {
+                    this.failed.increment();
+                } else if (v != null) {
+                    saver.accept(v);
+                    this.refreshed.increment();
+                }
+            } finally {
+                this.pendingKeys.remove(key);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Collection<Metric<?>> metrics() {
+        Collection<Metric<?>> metrics = new ArrayList<>();
+
+        metrics.add(new Metric<>("mojang.cache.revalidation.refreshed", this.refreshed.sum()));
+        metrics.add(new Metric<>("mojang.cache.revalidation.failed", this.failed.sum()));
+        metrics.add(new Metric<>("mojang.cache.revalidation.in-flight", this.pendingKeys.size()));
+
+        return metrics;
+    }
+}
@@ -7,6 +7,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
 
+import net.minepay.mcapi.mojang.json.MojangModule;
+
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.SerializationException;
 
@@ -28,6 +30,7 @@ public class JacksonRedisSerializer<T> implements RedisSerializer<T> {
     public JacksonRedisSerializer(@Nonnull Class<T> type) {
         ObjectMapper mapper = new ObjectMapper();
         mapper.findAndRegisterModules();
+        mapper.registerModule(new MojangModule());
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
         this.reader = mapper.readerFor(type);
@@ -37,6 +40,7 @@ public class JacksonRedisSerializer<T> implements RedisSerializer<T> {
     public JacksonRedisSerializer(@Nonnull JavaType type) {
         ObjectMapper mapper = new ObjectMapper();
         mapper.findAndRegisterModules();
+        mapper.registerModule(new MojangModule());
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
         this.reader = mapper.readerFor(type);
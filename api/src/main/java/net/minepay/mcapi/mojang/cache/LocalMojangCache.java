@@ -0,0 +1,607 @@
+package net.minepay.mcapi.mojang.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import net.minepay.mcapi.configuration.CacheConfiguration;
+import net.minepay.mcapi.mojang.Profile;
+import net.minepay.mcapi.mojang.ProfileIdentifier;
+import net.minepay.mcapi.mojang.ProfileName;
+import net.minepay.mcapi.mojang.ProfileNameChange;
+import net.minepay.mcapi.mojang.ProfileProperty;
+import net.minepay.mcapi.mojang.TexturesProperty;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Provides an in-process cache tier in front of the shared Redis cache.
+ *
+ * <strong>Implementation Notes:</strong> Each type of entry is kept within its own bounded cache
+ * which admits and evicts entries based on their access frequency (W-TinyLFU) and is limited by the
+ * estimated amount of memory its entries occupy. Entries expire after the configured local cache
+ * time or the respective Redis expiration time (whichever is shorter) as counted from the moment
+ * they entered this tier. Since the remaining Redis TTL of an entry is not known at that point, an
+ * entry which has been read from Redis shortly before its expiration may still be served for up to
+ * the local cache time after Redis dropped it; the local cache time thus bounds the additional
+ * staleness introduced by this tier.
+ *
+ * Profiles and names which are unknown to Mojang are remembered locally as well and are consulted
+ * before any lookup is passed on to Redis. Optionally, a Bloom filter of all unknown keys recorded
+ * by this node is consulted before Redis is asked for a tombstone in which case tombstones recorded
+ * by other nodes are ignored until this node records them itself.
+ *
+ * Optionally, the current display name of every profile which passes through this tier is
+ * recorded within a compact index. Names which are resolved locally are checked against this index
+ * and entries whose profile is known to hold a different name by now are dropped and resolved
+ * through Redis again (the name may have been acquired by another profile in the meantime).
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@Primary
+@Repository
+@ThreadSafe
+public class LocalMojangCache implements MojangCache, PublicMetrics {
+    private static final long MEGABYTE = 1024 * 1024;
+
+    /**
+     * Defines the estimated fixed overhead (in bytes) of a single cache entry including its key.
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    /**
+     * Defines the estimated size (in bytes) of a profile identifier.
+     */
+    private static final int IDENTIFIER_SIZE = 32;
+
+    /**
+     * Defines the estimated size (in bytes) of a decoded texture property.
+     */
+    private static final int TEXTURES_SIZE = 512;
+
+    private final MojangCache cache;
+    private final Cache<ProfileIdentifier, Profile> profiles;
+    private final Cache<String, ProfileName> identifiers;
+    private final Cache<ProfileIdentifier, List<ProfileNameChange>> nameHistories;
+    private final Cache<String, Boolean> unknownKeys;
+    private final NegativeFilter negativeFilter;
+    private final boolean negativeCaching;
+    private final ProfileIndex profileIndex;
+
+    @Autowired
+    public LocalMojangCache(@Nonnull CacheConfiguration configuration, @Nonnull @Qualifier("mojangCacheImpl") MojangCache cache) {
+        this.cache = cache;
+
+        this.profiles = createCache(configuration.getProfileLocalCacheSize(), configuration.getLocalCacheTime(), configuration.getProfileCacheTime(), (k, v) -> IDENTIFIER_SIZE + weigh(v));
+        this.identifiers = createCache(configuration.getNameLocalCacheSize(), configuration.getLocalCacheTime(), configuration.getNameCacheTime(), (k, v) -> weigh(k) + weigh(v));
+        this.nameHistories = createCache(configuration.getHistoryLocalCacheSize(), configuration.getLocalCacheTime(), configuration.getHistoryCacheTime(), (k, v) -> IDENTIFIER_SIZE + weigh(v));
+
+        this.negativeCaching = configuration.getNegativeCacheTime() != 0;
+        this.unknownKeys = createCache(configuration.getNegativeLocalCacheSize(), configuration.getLocalCacheTime(), configuration.getNegativeCacheTime(), (k, v) -> ENTRY_OVERHEAD + weigh(k));
+
+        if (this.negativeCaching && configuration.getNegativeFilterSize() != 0) {
+            this.negativeFilter = new NegativeFilter(configuration.getNegativeFilterSize(), Duration.ofSeconds(configuration.getNegativeCacheTime()));
+        } else {
+            this.negativeFilter = null;
+        }
+
+        if (configuration.getProfileIndexSize() != 0) {
+            this.profileIndex = new ProfileIndex(configuration.getProfileIndexSize() * MEGABYTE / ProfileIndex.ESTIMATED_ENTRY_SIZE);
+        } else {
+            this.profileIndex = null;
+        }
+    }
+
+    /**
+     * Creates a new local cache.
+     *
+     * @param size       the maximum size (in megabytes).
+     * @param localTime  the maximum time (in seconds) an entry is kept within this tier.
+     * @param remoteTime the time (in seconds) an entry is kept within Redis or zero if entries
+     *                   never expire (both are counted from the moment an entry is added to this
+     *                   tier rather than from the moment it has been written to Redis).
+     * @param weigher    a weigher which estimates the size of an entry.
+     * @param <K>        a key type.
+     * @param <V>        a value type.
+     * @return a cache.
+     */
+    @Nonnull
+    private static <K, V> Cache<K, V> createCache(@Nonnegative int size, @Nonnegative int localTime, @Nonnegative int remoteTime, @Nonnull Weigher<K, V> weigher) {
+        return Caffeine.newBuilder()
+                .maximumWeight(size * MEGABYTE)
+                .weigher(weigher)
+                .expireAfterWrite(remoteTime == 0 ? localTime : Math.min(localTime, remoteTime), TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Estimates the size of a string.
+     *
+     * @param value a string.
+     * @return a size (in bytes).
+     */
+    private static int weigh(@Nullable String value) {
+        return (value == null ? 0 : 40 + value.length() * 2);
+    }
+
+    /**
+     * Estimates the size of a profile.
+     *
+     * @param profile a profile.
+     * @return a size (in bytes).
+     */
+    private static int weigh(@Nonnull Profile profile) {
+        int size = ENTRY_OVERHEAD + weigh(profile.getId()) + weigh(profile.getName());
+
+        for (ProfileProperty<?> property : profile.getProperties()) {
+            size += ENTRY_OVERHEAD + weigh(property.getName()) + weigh(property.getSignature());
+
+            if (property instanceof TexturesProperty) {
+                // decoding textures merely to weigh them would defeat their lazy decoding
+                TexturesProperty textures = (TexturesProperty) property;
+                size += weigh(textures.getEncodedValue()) + (textures.isDecoded() ? TEXTURES_SIZE : 0);
+                continue;
+            }
+
+            Object value = property.getValue();
+            size += (value instanceof String ? weigh((String) value) : TEXTURES_SIZE);
+        }
+
+        return size;
+    }
+
+    /**
+     * Estimates the size of a profile identifier.
+     *
+     * @param name an identifier.
+     * @return a size (in bytes).
+     */
+    private static int weigh(@Nonnull ProfileName name) {
+        return ENTRY_OVERHEAD + weigh(name.getId()) + weigh(name.getName());
+    }
+
+    /**
+     * Estimates the size of a name history.
+     *
+     * @param nameChanges a list of name changes.
+     * @return a size (in bytes).
+     */
+    private static int weigh(@Nonnull List<ProfileNameChange> nameChanges) {
+        int size = ENTRY_OVERHEAD;
+
+        for (ProfileNameChange change : nameChanges) {
+            size += ENTRY_OVERHEAD + weigh(change.getName());
+        }
+
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public Profile findProfile(@Nonnull ProfileIdentifier identifier) {
+        Profile profile = this.profiles.getIfPresent(identifier);
+
+        if (profile == null && !this.isKnownUnknown("profile:" + identifier)) {
+            profile = this.cache.findProfile(identifier);
+
+            if (profile != null) {
+                this.profiles.put(identifier, profile);
+                this.indexIfAbsent(identifier, profile.getName());
+            }
+        }
+
+        return profile;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public Profile findProfileByName(@Nonnull String name) {
+        ProfileName identifier = this.findLocalIdentifier(name.toLowerCase());
+
+        if (identifier != null) {
+            return this.findProfile(identifier.getIdentifier());
+        }
+
+        if (this.isKnownUnknown("name:" + name.toLowerCase())) {
+            return null;
+        }
+
+        Profile profile = this.cache.findProfileByName(name);
+
+        if (profile != null) {
+            this.profiles.put(profile.getIdentifier(), profile);
+            this.indexIfAbsent(profile.getIdentifier(), profile.getName());
+
+            // the profile may predate a name change in which case its name cannot be relied upon
+            if (profile.getName().equalsIgnoreCase(name)) {
+                this.identifiers.put(name.toLowerCase(), new ProfileName(profile.getId(), profile.getName()));
+            }
+        }
+
+        return profile;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveProfile(@Nonnull Profile profile) {
+        ProfileIdentifier identifier = profile.getIdentifier();
+
+        this.index(identifier, profile.getName());
+        this.unknownKeys.invalidate("profile:" + identifier);
+        this.unknownKeys.invalidate("name:" + profile.getName().toLowerCase());
+        this.profiles.put(identifier, profile);
+        this.identifiers.put(profile.getName().toLowerCase(), new ProfileName(profile.getId(), profile.getName()));
+        this.cache.saveProfile(profile);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isUnknownProfile(@Nonnull ProfileIdentifier identifier) {
+        return this.isUnknown("profile:" + identifier, () -> this.cache.isUnknownProfile(identifier));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveUnknownProfile(@Nonnull ProfileIdentifier identifier) {
+        if (this.negativeCaching) {
+            this.saveUnknown("profile:" + identifier);
+
+            if (this.profileIndex != null) {
+                this.profileIndex.remove(identifier);
+            }
+
+            this.cache.saveUnknownProfile(identifier);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isUnknownName(@Nonnull String name) {
+        return this.isUnknown("name:" + name.toLowerCase(), () -> this.cache.isUnknownName(name));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveUnknownName(@Nonnull String name) {
+        if (this.negativeCaching) {
+            this.saveUnknown("name:" + name.toLowerCase());
+            this.cache.saveUnknownName(name);
+        }
+    }
+
+    /**
+     * Checks whether a key has been recorded as unknown either locally or within the backing
+     * cache.
+     *
+     * @param key      a local key.
+     * @param fallback a function which checks the backing cache.
+     * @return true if unknown, false otherwise.
+     */
+    private boolean isUnknown(@Nonnull String key, @Nonnull BooleanSupplier fallback) {
+        if (!this.negativeCaching) {
+            return false;
+        }
+
+        if (this.unknownKeys.getIfPresent(key) != null) {
+            return true;
+        }
+
+        if (this.negativeFilter != null && !this.negativeFilter.mightContain(key)) {
+            return false;
+        }
+
+        if (fallback.getAsBoolean()) {
+            this.unknownKeys.put(key, Boolean.TRUE);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks whether a key has been recorded as unknown within this tier.
+     *
+     * Lookups consult this method before falling back to the backing cache thus keys which are
+     * known to be unknown never cause a Redis round trip.
+     *
+     * @param key a local key.
+     * @return true if unknown, false otherwise.
+     */
+    private boolean isKnownUnknown(@Nonnull String key) {
+        return this.negativeCaching && this.unknownKeys.getIfPresent(key) != null;
+    }
+
+    /**
+     * Records an unknown key locally.
+     *
+     * @param key a local key.
+     */
+    private void saveUnknown(@Nonnull String key) {
+        this.unknownKeys.put(key, Boolean.TRUE);
+
+        if (this.negativeFilter != null) {
+            this.negativeFilter.add(key);
+        }
+    }
+
+    /**
+     * Records the current display name of a profile which has been freshly retrieved from Mojang.
+     *
+     * @param identifier a profile identifier.
+     * @param name       the current display name.
+     */
+    private void index(@Nonnull ProfileIdentifier identifier, @Nonnull String name) {
+        if (this.profileIndex != null) {
+            this.profileIndex.put(identifier, name);
+        }
+    }
+
+    /**
+     * Records the display name of a profile which has been retrieved from the backing cache (and
+     * may thus be outdated) unless a display name is already known.
+     *
+     * @param identifier a profile identifier.
+     * @param name       a display name.
+     */
+    private void indexIfAbsent(@Nonnull ProfileIdentifier identifier, @Nonnull String name) {
+        if (this.profileIndex != null) {
+            this.profileIndex.putIfAbsent(identifier, name);
+        }
+    }
+
+    /**
+     * Retrieves a locally cached identifier unless its profile is known to have changed its
+     * display name since.
+     *
+     * The name may have been acquired by another profile after it has been released thus stale
+     * entries are dropped and resolved through the backing cache again.
+     *
+     * @param key a lower case display name.
+     * @return an identifier or, if absent or stale, null.
+     */
+    @Nullable
+    private ProfileName findLocalIdentifier(@Nonnull String key) {
+        ProfileName identifier = this.identifiers.getIfPresent(key);
+
+        if (identifier == null || this.profileIndex == null) {
+            return identifier;
+        }
+
+        ProfileIndex.Entry entry = this.profileIndex.find(identifier.getIdentifier());
+
+        if (entry != null && !entry.getName().equalsIgnoreCase(key)) {
+            this.identifiers.invalidate(key);
+            return null;
+        }
+
+        return identifier;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public ProfileName findIdentifier(@Nonnull String name) {
+        String key = name.toLowerCase();
+        ProfileName identifier = this.findLocalIdentifier(key);
+
+        if (identifier == null && !this.isKnownUnknown("name:" + key)) {
+            identifier = this.cache.findIdentifier(name);
+
+            if (identifier != null) {
+                this.identifiers.put(key, identifier);
+                this.indexIfAbsent(identifier.getIdentifier(), identifier.getName());
+            }
+        }
+
+        return identifier;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public ProfileName findIdentifier(@Nonnull String name, @Nonnull Instant timestamp) {
+        return this.cache.findIdentifier(name, timestamp);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public List<ProfileName> findIdentifiers(@Nonnull List<String> names) {
+        List<ProfileName> identifiers = new ArrayList<>(names.size());
+        List<String> missingNames = new ArrayList<>();
+        List<Integer> missingIndices = new ArrayList<>();
+
+        for (int i = 0; i < names.size(); ++i) {
+            String key = names.get(i).toLowerCase();
+            ProfileName identifier = this.findLocalIdentifier(key);
+            identifiers.add(identifier);
+
+            if (identifier == null && !this.isKnownUnknown("name:" + key)) {
+                missingNames.add(names.get(i));
+                missingIndices.add(i);
+            }
+        }
+
+        if (!missingNames.isEmpty()) {
+            List<ProfileName> cachedIdentifiers = this.cache.findIdentifiers(missingNames);
+
+            for (int i = 0; i < missingNames.size(); ++i) {
+                ProfileName identifier = cachedIdentifiers.get(i);
+
+                if (identifier != null) {
+                    this.identifiers.put(missingNames.get(i).toLowerCase(), identifier);
+                    this.indexIfAbsent(identifier.getIdentifier(), identifier.getName());
+                    identifiers.set(missingIndices.get(i), identifier);
+                }
+            }
+        }
+
+        return identifiers;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveIdentifier(@Nonnull ProfileName name) {
+        this.index(name.getIdentifier(), name.getName());
+        this.unknownKeys.invalidate("name:" + name.getName().toLowerCase());
+        this.identifiers.put(name.getName().toLowerCase(), name);
+        this.cache.saveIdentifier(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveIdentifiers(@Nonnull List<ProfileName> names) {
+        names.forEach((n) -> {
+            this.index(n.getIdentifier(), n.getName());
+            this.unknownKeys.invalidate("name:" + n.getName().toLowerCase());
+            this.identifiers.put(n.getName().toLowerCase(), n);
+        });
+        this.cache.saveIdentifiers(names);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveIdentifier(@Nonnull String name, @Nonnull ProfileName identifier, @Nonnull Instant timestamp) {
+        this.index(identifier.getIdentifier(), identifier.getName());
+        this.unknownKeys.invalidate("name:" + identifier.getName().toLowerCase());
+        this.identifiers.put(identifier.getName().toLowerCase(), identifier);
+        this.cache.saveIdentifier(name, identifier, timestamp);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public List<ProfileNameChange> findNameHistory(@Nonnull ProfileIdentifier identifier) {
+        List<ProfileNameChange> nameChanges = this.nameHistories.getIfPresent(identifier);
+
+        if (nameChanges == null && !this.isKnownUnknown("profile:" + identifier)) {
+            nameChanges = this.cache.findNameHistory(identifier);
+
+            if (nameChanges != null) {
+                this.nameHistories.put(identifier, nameChanges);
+            }
+        }
+
+        return nameChanges;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public List<ProfileNameChange> findNameHistoryByName(@Nonnull String name) {
+        ProfileName identifier = this.findLocalIdentifier(name.toLowerCase());
+
+        if (identifier != null) {
+            return this.findNameHistory(identifier.getIdentifier());
+        }
+
+        if (this.isKnownUnknown("name:" + name.toLowerCase())) {
+            return null;
+        }
+
+        return this.cache.findNameHistoryByName(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveNameHistory(@Nonnull ProfileIdentifier identifier, @Nonnull List<ProfileNameChange> nameChanges) {
+        if (!nameChanges.isEmpty()) {
+            this.index(identifier, nameChanges.get(nameChanges.size() - 1).getName());
+        }
+
+        this.nameHistories.put(identifier, nameChanges);
+        this.cache.saveNameHistory(identifier, nameChanges);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Collection<Metric<?>> metrics() {
+        Collection<Metric<?>> metrics = new ArrayList<>();
+
+        addMetrics(metrics, "mojang.cache.local.profile", this.profiles);
+        addMetrics(metrics, "mojang.cache.local.name", this.identifiers);
+        addMetrics(metrics, "mojang.cache.local.name-history", this.nameHistories);
+        addMetrics(metrics, "mojang.cache.local.unknown", this.unknownKeys);
+
+        if (this.profileIndex != null) {
+            metrics.add(new Metric<>("mojang.cache.local.profile-index.size", this.profileIndex.getSize()));
+            metrics.add(new Metric<>("mojang.cache.local.profile-index.memory", this.profileIndex.getMemoryUsage()));
+            metrics.add(new Metric<>("mojang.cache.local.profile-index.rejected", this.profileIndex.getRejectedCount()));
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Appends the statistics of a local cache to a collection of metrics.
+     *
+     * @param metrics a collection of metrics.
+     * @param prefix  a metric name prefix.
+     * @param cache   a cache.
+     */
+    private static void addMetrics(@Nonnull Collection<Metric<?>> metrics, @Nonnull String prefix, @Nonnull Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+
+        metrics.add(new Metric<>(prefix + ".hits", stats.hitCount()));
+        metrics.add(new Metric<>(prefix + ".misses", stats.missCount()));
+        metrics.add(new Metric<>(prefix + ".evictions", stats.evictionCount()));
+        metrics.add(new Metric<>(prefix + ".size", cache.estimatedSize()));
+    }
+}
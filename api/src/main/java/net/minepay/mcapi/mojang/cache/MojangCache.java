@@ -1,6 +1,7 @@
 package net.minepay.mcapi.mojang.cache;
 
 import net.minepay.mcapi.mojang.Profile;
+import net.minepay.mcapi.mojang.ProfileIdentifier;
 import net.minepay.mcapi.mojang.ProfileName;
 import net.minepay.mcapi.mojang.ProfileNameChange;
 
@@ -24,15 +25,41 @@ public interface MojangCache {
      * @return a profile or, if no cached version could be located, null.
      */
     @Nullable
-    Profile findProfile(@Nonnull String identifier);
+    Profile findProfile(@Nonnull ProfileIdentifier identifier);
 
     /**
-     * Saves a fetched profile to the backing cache.
+     * Retrieves the profile which is currently associated with a display name from the
+     * application cache.
+     *
+     * @param name a display name.
+     * @return a profile or, if no cached version could be located, null.
+     */
+    @Nullable
+    Profile findProfileByName(@Nonnull String name);
+
+    /**
+     * Saves a fetched profile to the backing cache (and associates its current display name with
+     * its identifier).
      *
      * @param profile a profile.
      */
     void saveProfile(@Nonnull Profile profile);
 
+    /**
+     * Checks whether a profile has previously been reported as unknown by Mojang.
+     *
+     * @param identifier an identifier.
+     * @return true if unknown, false if known or not cached.
+     */
+    boolean isUnknownProfile(@Nonnull ProfileIdentifier identifier);
+
+    /**
+     * Records a profile which is unknown to Mojang.
+     *
+     * @param identifier an identifier.
+     */
+    void saveUnknownProfile(@Nonnull ProfileIdentifier identifier);
+
     /**
      * Retrieves an identifier from the application cache.
      *
@@ -52,6 +79,16 @@ public interface MojangCache {
     @Nullable
     ProfileName findIdentifier(@Nonnull String name, @Nonnull Instant timestamp);
 
+    /**
+     * Retrieves a list of identifiers from the application cache.
+     *
+     * @param names a list of display names.
+     * @return a list of identifiers in request order (containing null for each name which has no
+     * cached version).
+     */
+    @Nonnull
+    List<ProfileName> findIdentifiers(@Nonnull List<String> names);
+
     /**
      * Saves a fetched profile identifier to the backing cache.
      *
@@ -60,12 +97,36 @@ public interface MojangCache {
     void saveIdentifier(@Nonnull ProfileName name);
 
     /**
-     * Saves a fetched profile identifier to the backing cache.
+     * Saves a list of fetched profile identifiers to the backing cache.
      *
-     * @param name      an identifier.
-     * @param timestamp a timestamp.
+     * @param names a list of identifiers.
+     */
+    void saveIdentifiers(@Nonnull List<ProfileName> names);
+
+    /**
+     * Saves a profile identifier which has been fetched for a display name at a certain point in
+     * time to the backing cache.
+     *
+     * @param name       the requested display name.
+     * @param identifier an identifier (carrying the current display name of the profile).
+     * @param timestamp  a timestamp.
+     */
+    void saveIdentifier(@Nonnull String name, @Nonnull ProfileName identifier, @Nonnull Instant timestamp);
+
+    /**
+     * Checks whether a display name has previously been reported as unassigned by Mojang.
+     *
+     * @param name a display name.
+     * @return true if unassigned, false if assigned or not cached.
+     */
+    boolean isUnknownName(@Nonnull String name);
+
+    /**
+     * Records a display name which is not assigned to any profile.
+     *
+     * @param name a display name.
      */
-    void saveIdentifier(@Nonnull ProfileName name, @Nonnull Instant timestamp);
+    void saveUnknownName(@Nonnull String name);
 
     /**
      * Retrieves a history of name changes for the specified profile.
@@ -74,7 +135,17 @@ public interface MojangCache {
      * @return a list of profile changes or, if no cached version could be located, null.
      */
     @Nullable
-    List<ProfileNameChange> findNameHistory(@Nonnull String identifier);
+    List<ProfileNameChange> findNameHistory(@Nonnull ProfileIdentifier identifier);
+
+    /**
+     * Retrieves the name history of the profile which is currently associated with a display
+     * name from the application cache.
+     *
+     * @param name a display name.
+     * @return a list of profile changes or, if no cached version could be located, null.
+     */
+    @Nullable
+    List<ProfileNameChange> findNameHistoryByName(@Nonnull String name);
 
     /**
      * Saves a fetched name history to the backing cache.
@@ -82,5 +153,5 @@ public interface MojangCache {
      * @param identifier  a profile identifier.
      * @param nameChanges a set of name changes.
      */
-    void saveNameHistory(@Nonnull String identifier, @Nonnull List<ProfileNameChange> nameChanges);
+    void saveNameHistory(@Nonnull ProfileIdentifier identifier, @Nonnull List<ProfileNameChange> nameChanges);
 }
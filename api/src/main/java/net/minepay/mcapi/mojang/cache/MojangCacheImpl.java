@@ -1,52 +1,349 @@
 package net.minepay.mcapi.mojang.cache;
 
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
 import net.minepay.mcapi.configuration.CacheConfiguration;
-import net.minepay.mcapi.mojang.ProfileName;
 import net.minepay.mcapi.mojang.Profile;
+import net.minepay.mcapi.mojang.ProfileIdentifier;
+import net.minepay.mcapi.mojang.ProfileName;
 import net.minepay.mcapi.mojang.ProfileNameChange;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.Immutable;
 
 /**
  * Provides a caching implementation.
  *
+ * <strong>Implementation Notes:</strong> All information about a player is kept within a single
+ * hash (keyed by its identifier) which carries the profile, the current display name and the name
+ * history as separate fields along with the time at which each of them has been written. Since
+ * fields cannot expire on their own, their age is checked on read while the hash itself expires
+ * once its longest-lived field would. Display names are mapped to identifiers through a separate
+ * index thus lookups by name are resolved by a Lua script within a single round trip.
+ *
+ * Lookups of past display names are answered from the intervals during which each name has been
+ * held (as derived from cached name histories) rather than by caching each requested timestamp.
+ *
+ * Writes are passed to a bounded write-behind buffer which merges writes for the same entry and
+ * flushes them in batches. Since scripts cannot be evaluated within a pipeline, all hash updates of
+ * a batch are passed to a single invocation of the save script while the remaining commands of the
+ * batch (such as tombstones) are pipelined.
+ *
  * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
- * @todo Benchmark Redis' pipeline feature (custom serialization code is required)
  */
 @Repository
-public class MojangCacheImpl implements MojangCache {
+public class MojangCacheImpl implements MojangCache, PublicMetrics {
+    private static final byte[] TOMBSTONE = new byte[0];
+
+    private static final String PLAYER_PREFIX = "player:";
+    private static final String NAME_PREFIX = "player_name:";
+    private static final String INTERVAL_PREFIX = "name_intervals:";
+    private static final byte[] PLAYER_KEY_PREFIX = encode(PLAYER_PREFIX);
+
+    private static final byte[] PROFILE_FIELD = encode("profile");
+    private static final byte[] PROFILE_TIME_FIELD = encode("profile_time");
+    private static final byte[] NAME_FIELD = encode("name");
+    private static final byte[] NAME_TIME_FIELD = encode("name_time");
+    private static final byte[] HISTORY_FIELD = encode("history");
+    private static final byte[] HISTORY_TIME_FIELD = encode("history_time");
+
+    /**
+     * Resolves a set of name index keys and returns the identifier as well as the requested hash
+     * fields of each of them.
+     *
+     * The result type is only used to select the reply type thus the raw list class is cast to
+     * its parameterized form (all elements are either raw values or null).
+     */
+    @SuppressWarnings("unchecked")
+    private static final DefaultRedisScript<List<byte[]>> RESOLVE_SCRIPT = new DefaultRedisScript<>(
+            "local results = {}\n" +
+            "local fields = {unpack(ARGV, 2)}\n" +
+            "for i = 1, #KEYS do\n" +
+            "  local id = redis.call('GET', KEYS[i])\n" +
+            "  if id then\n" +
+            "    results[#results + 1] = id\n" +
+            "    local values = redis.call('HMGET', ARGV[1] .. id, unpack(fields))\n" +
+            "    for j = 1, #fields do\n" +
+            "      results[#results + 1] = values[j]\n" +
+            "    end\n" +
+            "  else\n" +
+            "    for j = 0, #fields do\n" +
+            "      results[#results + 1] = false\n" +
+            "    end\n" +
+            "  end\n" +
+            "end\n" +
+            "return results\n", (Class<List<byte[]>>) (Class<?>) List.class);
+
+    /**
+     * Writes the hash fields of a set of players, extends the expiration of each hash if necessary
+     * and optionally points a name index key at a hash.
+     *
+     * Keys: the player hash of each save optionally followed by a name index key.
+     * Arguments: the name cache time followed by the key count, cache time, identifier, field
+     * count and fields of each save.
+     */
+    private static final DefaultRedisScript<Long> SAVE_SCRIPT = new DefaultRedisScript<>(
+            "local nameTtl = tonumber(ARGV[1])\n" +
+            "local k = 1\n" +
+            "local a = 2\n" +
+            "while a <= #ARGV do\n" +
+            "  local keyCount = tonumber(ARGV[a])\n" +
+            "  local ttl = tonumber(ARGV[a + 1]) * 1000\n" +
+            "  local id = ARGV[a + 2]\n" +
+            "  local fieldCount = tonumber(ARGV[a + 3])\n" +
+            "  local existed = redis.call('EXISTS', KEYS[k])\n" +
+            "  redis.call('HMSET', KEYS[k], unpack(ARGV, a + 4, a + 3 + fieldCount))\n" +
+            "  if ttl == 0 then\n" +
+            "    redis.call('PERSIST', KEYS[k])\n" +
+            "  else\n" +
+            "    local current = redis.call('PTTL', KEYS[k])\n" +
+            "    if existed == 0 or (current >= 0 and current < ttl) then\n" +
+            "      redis.call('PEXPIRE', KEYS[k], ttl)\n" +
+            "    end\n" +
+            "  end\n" +
+            "  if keyCount == 2 then\n" +
+            "    if nameTtl == 0 then\n" +
+            "      redis.call('SET', KEYS[k + 1], id)\n" +
+            "    else\n" +
+            "      redis.call('SET', KEYS[k + 1], id, 'EX', nameTtl)\n" +
+            "    end\n" +
+            "  end\n" +
+            "  k = k + keyCount\n" +
+            "  a = a + 4 + fieldCount\n" +
+            "end\n" +
+            "return 0\n", Long.class);
+
     private final CacheConfiguration cacheConfiguration;
-    private final RedisTemplate<String, Profile> profileRedisTemplate;
-    private final RedisTemplate<String, ProfileName> identifierRedisTemplate;
-    private final RedisTemplate<String, List<ProfileNameChange>> nameHistoryRedisTemplate;
+    private final CacheRevalidator revalidator;
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final WriteBehindBuffer<Write> writeBuffer;
 
-    private ValueOperations<String, Profile> profileValueOperations;
-    private ValueOperations<String, ProfileName> identifierValueOperations;
-    private ValueOperations<String, List<ProfileNameChange>> nameHistoryValueOperations;
+    private final RedisSerializer<Profile> profileSerializer = new VersionedRedisSerializer<>(new ProfileCodec(), new JacksonRedisSerializer<>(Profile.class));
+    private final RedisSerializer<List<ProfileNameChange>> nameHistorySerializer = new VersionedRedisSerializer<>(new NameHistoryCodec(), new JacksonRedisSerializer<>(TypeFactory.defaultInstance().constructCollectionType(List.class, ProfileNameChange.class)));
 
     @Autowired
-    public MojangCacheImpl(@Nonnull CacheConfiguration cacheConfiguration, @Nonnull RedisTemplate<String, Profile> profileRedisTemplate, @Nonnull RedisTemplate<String, ProfileName> identifierRedisTemplate, @Nonnull RedisTemplate<String, List<ProfileNameChange>> nameHistoryRedisTemplate) {
+    public MojangCacheImpl(@Nonnull CacheConfiguration cacheConfiguration, @Nonnull CacheRevalidator revalidator, @Nonnull RedisTemplate<String, byte[]> playerRedisTemplate) {
         this.cacheConfiguration = cacheConfiguration;
-        this.profileRedisTemplate = profileRedisTemplate;
-        this.identifierRedisTemplate = identifierRedisTemplate;
-        this.nameHistoryRedisTemplate = nameHistoryRedisTemplate;
+        this.revalidator = revalidator;
+        this.redisTemplate = playerRedisTemplate;
+        this.writeBuffer = new WriteBehindBuffer<>(this::flush, cacheConfiguration.getWriteBufferSize(), cacheConfiguration.getWriteBatchSize(), Duration.ofMillis(cacheConfiguration.getWriteFlushInterval()));
+    }
+
+    /**
+     * Flushes all pending writes.
+     */
+    @PreDestroy
+    public void close() {
+        this.writeBuffer.close();
+    }
+
+    /**
+     * Applies a batch of buffered writes.
+     *
+     * All hash updates are passed to a single invocation of the save script (which is evaluated
+     * by its digest and only transmitted when Redis does not know it yet) while all remaining
+     * commands are issued within a single pipeline.
+     *
+     * @param writes a batch of writes.
+     */
+    private void flush(@Nonnull List<Write> writes) {
+        List<String> keys = new ArrayList<>();
+        List<byte[]> args = new ArrayList<>();
+        List<Consumer<RedisConnection>> commands = new ArrayList<>();
+
+        args.add(encode(this.cacheConfiguration.getNameCacheTime()));
+        writes.forEach((w) -> {
+            Collections.addAll(keys, w.keys);
+            Collections.addAll(args, w.args);
+
+            if (w.commands != null) {
+                commands.add(w.commands);
+            }
+        });
+
+        if (!keys.isEmpty()) {
+            this.redisTemplate.execute(SAVE_SCRIPT, keys, args.toArray());
+        }
+
+        if (!commands.isEmpty()) {
+            this.redisTemplate.executePipelined((RedisCallback<Object>) (c) -> {
+                commands.forEach((command) -> command.accept(c));
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Encodes a value for use within a raw Redis command.
+     *
+     * @param value a value.
+     * @return an encoded value.
+     */
+    @Nonnull
+    private static byte[] encode(@Nonnull Object value) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes a string which has been retrieved via a raw Redis command.
+     *
+     * @param value an encoded value.
+     * @return a string or null.
+     */
+    @Nullable
+    private static String decode(@Nullable Object value) {
+        return (value == null ? null : new String((byte[]) value, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Selects the longer of two cache times.
+     *
+     * @param first  a cache time (in seconds) or zero if entries never expire.
+     * @param second a cache time (in seconds) or zero if entries never expire.
+     * @return a cache time (in seconds) or zero if entries never expire.
+     */
+    @Nonnegative
+    private static int longest(@Nonnegative int first, @Nonnegative int second) {
+        return (first == 0 || second == 0 ? 0 : Math.max(first, second));
+    }
+
+    /**
+     * Evaluates whether a field has exceeded its cache time.
+     *
+     * @param time      the time (in epoch seconds) at which the field has been written.
+     * @param cacheTime a cache time (in seconds) or zero if fields never expire.
+     * @return true if expired, false otherwise.
+     */
+    private static boolean isExpired(@Nullable Object time, @Nonnegative int cacheTime) {
+        if (time == null) {
+            return true;
+        }
+
+        return cacheTime != 0 && age(time) >= cacheTime;
+    }
+
+    /**
+     * Evaluates whether a field has exceeded its soft cache time.
+     *
+     * @param time          the time (in epoch seconds) at which the field has been written.
+     * @param cacheTime     the hard cache time (in seconds).
+     * @param softCacheTime the soft cache time (in seconds) or zero to disable revalidation.
+     * @return true if stale, false otherwise.
+     */
+    private static boolean isStale(@Nonnull Object time, @Nonnegative int cacheTime, @Nonnegative int softCacheTime) {
+        if (softCacheTime == 0 || (cacheTime != 0 && softCacheTime >= cacheTime)) {
+            return false;
+        }
 
-        // TODO: Merging these might be sane
-        this.profileValueOperations = profileRedisTemplate.opsForValue();
-        this.identifierValueOperations = identifierRedisTemplate.opsForValue();
-        this.nameHistoryValueOperations = nameHistoryRedisTemplate.opsForValue();
+        return age(time) >= softCacheTime;
+    }
+
+    /**
+     * Calculates the age of a field.
+     *
+     * @param time the time (in epoch seconds) at which the field has been written.
+     * @return an age (in seconds).
+     */
+    private static long age(@Nonnull Object time) {
+        try {
+            return Instant.now().getEpochSecond() - Long.parseLong(decode(time));
+        } catch (NumberFormatException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Decodes a field and triggers its revalidation if it has exceeded its soft cache time.
+     *
+     * @param serializer    a serializer.
+     * @param value         an encoded value.
+     * @param time          the time (in epoch seconds) at which the field has been written.
+     * @param cacheTime     the hard cache time (in seconds).
+     * @param softCacheTime the soft cache time (in seconds).
+     * @param revalidator   a function which is invoked when the value is stale.
+     * @param <V>           a value type.
+     * @return a value or, if the field is absent or expired, null.
+     */
+    @Nullable
+    private static <V> V decode(@Nonnull RedisSerializer<V> serializer, @Nullable Object value, @Nullable Object time, @Nonnegative int cacheTime, @Nonnegative int softCacheTime, @Nonnull Runnable revalidator) {
+        if (value == null || isExpired(time, cacheTime)) {
+            return null;
+        }
+
+        if (isStale(time, cacheTime, softCacheTime)) {
+            revalidator.run();
+        }
+
+        return serializer.deserialize((byte[]) value);
+    }
+
+    /**
+     * Retrieves a set of fields from the hash of a player.
+     *
+     * @param identifier a profile identifier.
+     * @param fields     a set of fields.
+     * @return a list of raw values (containing null for absent fields).
+     */
+    @Nonnull
+    private List<byte[]> fetch(@Nonnull ProfileIdentifier identifier, @Nonnull byte[]... fields) {
+        byte[] key = identifier.toAscii(PLAYER_KEY_PREFIX);
+        List<byte[]> values = this.redisTemplate.execute((RedisCallback<List<byte[]>>) (c) -> c.hMGet(key, fields));
+
+        return (values == null ? Collections.nCopies(fields.length, null) : values);
+    }
+
+    /**
+     * Resolves a set of name index keys and retrieves the requested fields of the respective
+     * player hashes within a single round trip.
+     *
+     * @param keys   a list of index keys.
+     * @param fields a set of fields.
+     * @return a list of raw values (the identifier followed by all fields for each key).
+     */
+    @Nonnull
+    private List<byte[]> resolve(@Nonnull List<String> keys, @Nonnull byte[]... fields) {
+        Object[] args = new Object[fields.length + 1];
+        args[0] = PLAYER_KEY_PREFIX;
+        System.arraycopy(fields, 0, args, 1, fields.length);
+
+        List<byte[]> values = this.redisTemplate.execute(RESOLVE_SCRIPT, keys, args);
+        return (values == null ? Collections.nCopies(keys.size() * (fields.length + 1), null) : values);
+    }
+
+    /**
+     * Retrieves the current time in its encoded form.
+     *
+     * @return an encoded timestamp (in epoch seconds).
+     */
+    @Nonnull
+    private static byte[] now() {
+        return encode(Instant.now().getEpochSecond());
     }
 
     /**
@@ -54,21 +351,146 @@ public class MojangCacheImpl implements MojangCache {
      */
     @Nullable
     @Override
-    @Transactional("profileRedisTemplate")
-    public Profile findProfile(@Nonnull String identifier) {
-        return this.profileValueOperations.get("profile:" + identifier.toLowerCase());
+    public Profile findProfile(@Nonnull ProfileIdentifier identifier) {
+        List<byte[]> values = this.fetch(identifier, PROFILE_FIELD, PROFILE_TIME_FIELD);
+
+        return decode(this.profileSerializer, values.get(0), values.get(1), this.cacheConfiguration.getProfileCacheTime(), this.cacheConfiguration.getProfileSoftCacheTime(), () -> this.revalidator.refreshProfile(identifier));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public Profile findProfileByName(@Nonnull String name) {
+        List<?> values = this.resolve(Collections.singletonList(NAME_PREFIX + name.toLowerCase()), NAME_FIELD, NAME_TIME_FIELD, PROFILE_FIELD, PROFILE_TIME_FIELD);
+        String identifier = this.decodeIdentifier(name, values, 0);
+
+        if (identifier == null) {
+            return null;
+        }
+
+        return decode(this.profileSerializer, values.get(3), values.get(4), this.cacheConfiguration.getProfileCacheTime(), this.cacheConfiguration.getProfileSoftCacheTime(), () -> this.revalidator.refreshProfile(ProfileIdentifier.parse(identifier)));
     }
 
     /**
      * {@inheritDoc}
      */
-    @Async
     @Override
-    @Transactional("profileRedisTemplate")
     public void saveProfile(@Nonnull Profile profile) {
-        if (this.profileValueOperations.setIfAbsent("profile:" + profile.getId().toLowerCase(), profile) && this.cacheConfiguration.getProfileCacheTime() != 0) {
-            this.profileRedisTemplate.expire("profile:" + profile.getId().toLowerCase(), this.cacheConfiguration.getProfileCacheTime(), TimeUnit.SECONDS);
+        byte[] now = now();
+        int cacheTime = longest(this.cacheConfiguration.getProfileCacheTime(), this.cacheConfiguration.getNameCacheTime());
+        byte[] value = this.profileSerializer.serialize(profile);
+        byte[] name = encode(profile.getName());
+        ProfileIdentifier identifier = profile.getIdentifier();
+
+        // profiles always carry the current display name thus the name index is updated as well
+        // in order to answer subsequent lookups by name without asking Mojang
+        this.writeBuffer.offer("profile:" + identifier, Write.save(identifier, cacheTime, NAME_PREFIX + profile.getName().toLowerCase(), PROFILE_FIELD, value, PROFILE_TIME_FIELD, now, NAME_FIELD, name, NAME_TIME_FIELD, now));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isUnknownProfile(@Nonnull ProfileIdentifier identifier) {
+        return this.exists("unknown_profile:" + identifier);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveUnknownProfile(@Nonnull ProfileIdentifier identifier) {
+        this.saveTombstone("unknown_profile:" + identifier);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isUnknownName(@Nonnull String name) {
+        return this.exists("unknown_name:" + name.toLowerCase());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveUnknownName(@Nonnull String name) {
+        this.saveTombstone("unknown_name:" + name.toLowerCase());
+    }
+
+    /**
+     * Checks whether a tombstone exists.
+     *
+     * @param key a key.
+     * @return true if present, false otherwise.
+     */
+    private boolean exists(@Nonnull String key) {
+        Boolean exists = this.redisTemplate.hasKey(key);
+        return exists != null && exists;
+    }
+
+    /**
+     * Stores a tombstone for the configured negative cache time.
+     *
+     * @param key a key.
+     */
+    private void saveTombstone(@Nonnull String key) {
+        if (this.cacheConfiguration.getNegativeCacheTime() == 0) {
+            return;
         }
+
+        byte[] rawKey = encode(key);
+        Expiration expiration = Expiration.seconds(this.cacheConfiguration.getNegativeCacheTime());
+
+        this.writeBuffer.offer(key, Write.commands((c) -> c.set(rawKey, TOMBSTONE, expiration, RedisStringCommands.SetOption.UPSERT)));
+    }
+
+    /**
+     * Decodes the identifier and current display name of a player which have been resolved
+     * through the name index.
+     *
+     * @param name   the requested display name or null if the current display name of the player
+     *               is not required to match (for instance when the index refers to a past
+     *               point in time).
+     * @param values a list of raw values.
+     * @param offset the offset of the identifier within the list.
+     * @return an identifier or, if the index or name is absent, expired or outdated, null.
+     */
+    @Nullable
+    private String decodeIdentifier(@Nullable String name, @Nonnull List<?> values, @Nonnegative int offset) {
+        String identifier = decode(values.get(offset));
+        String currentName = decode(values.get(offset + 1));
+
+        if (identifier == null || currentName == null || isExpired(values.get(offset + 2), this.cacheConfiguration.getNameCacheTime())) {
+            return null;
+        }
+
+        // the index may still refer to the previous owner of a name which has since changed
+        // their name thus we'll treat these entries as absent
+        if (name != null && !name.equalsIgnoreCase(currentName)) {
+            return null;
+        }
+
+        return identifier;
+    }
+
+    /**
+     * Decodes a profile identifier which has been resolved through the name index.
+     *
+     * @see #decodeIdentifier(String, List, int)
+     */
+    @Nullable
+    private ProfileName decodeProfileName(@Nullable String name, @Nonnull List<?> values, @Nonnegative int offset) {
+        String identifier = this.decodeIdentifier(name, values, offset);
+
+        if (identifier == null) {
+            return null;
+        }
+
+        return new ProfileName(identifier, decode(values.get(offset + 1)));
     }
 
     /**
@@ -76,9 +498,8 @@ public class MojangCacheImpl implements MojangCache {
      */
     @Nullable
     @Override
-    @Transactional("identifierRedisTemplate")
     public ProfileName findIdentifier(@Nonnull String name) {
-        return this.identifierValueOperations.get("name:" + name.toLowerCase());
+        return this.decodeProfileName(name, this.resolve(Collections.singletonList(NAME_PREFIX + name.toLowerCase()), NAME_FIELD, NAME_TIME_FIELD), 0);
     }
 
     /**
@@ -86,33 +507,97 @@ public class MojangCacheImpl implements MojangCache {
      */
     @Nullable
     @Override
-    @Transactional("identifierRedisTemplate")
     public ProfileName findIdentifier(@Nonnull String name, @Nonnull Instant timestamp) {
-        return this.identifierValueOperations.get("name:" + timestamp.getEpochSecond() + ":" + name.toLowerCase());
+        byte[] key = encode(INTERVAL_PREFIX + name.toLowerCase());
+        Map<byte[], byte[]> values = this.redisTemplate.execute((RedisCallback<Map<byte[], byte[]>>) (c) -> c.hGetAll(key));
+
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+
+        Map<String, byte[]> entries = new HashMap<>();
+        values.forEach((k, v) -> entries.put(decode(k), v));
+
+        return NameIntervals.find(entries, timestamp);
     }
 
     /**
      * {@inheritDoc}
      */
-    @Async
+    @Nonnull
     @Override
-    @Transactional("identifierRedisTemplate")
-    public void saveIdentifier(@Nonnull ProfileName name, @Nonnull Instant timestamp) {
-        if (this.identifierValueOperations.setIfAbsent("name:" + timestamp.getEpochSecond() + ":" + name.getName().toLowerCase(), name)) {
-            this.identifierRedisTemplate.expire("name:" + timestamp.getEpochSecond() + ":" + name.getName().toLowerCase(), this.cacheConfiguration.getNameCacheTime(), TimeUnit.SECONDS);
+    public List<ProfileName> findIdentifiers(@Nonnull List<String> names) {
+        if (names.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> keys = new ArrayList<>(names.size());
+        names.forEach((n) -> keys.add(NAME_PREFIX + n.toLowerCase()));
+
+        List<?> values = this.resolve(keys, NAME_FIELD, NAME_TIME_FIELD);
+        List<ProfileName> identifiers = new ArrayList<>(names.size());
+
+        for (int i = 0; i < names.size(); ++i) {
+            identifiers.add(this.decodeProfileName(names.get(i), values, i * 3));
         }
+
+        return identifiers;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveIdentifier(@Nonnull String name, @Nonnull ProfileName identifier, @Nonnull Instant timestamp) {
+        this.saveIdentifier(identifier);
+
+        // the resolved interval is added to the intervals of the requested name unless the
+        // history of the profile has already been cached (its intervals are more complete)
+        byte[] key = encode(INTERVAL_PREFIX + name.toLowerCase());
+        byte[] id = identifier.getIdentifier().toAscii();
+        byte[] value = NameIntervals.encode(name, identifier, timestamp);
+        int cacheTime = this.cacheConfiguration.getHistoryCacheTime();
+
+        this.writeBuffer.offer("name_interval:" + name.toLowerCase() + ":" + identifier.getId(), Write.commands((c) -> {
+            c.hSetNX(key, id, value);
+
+            if (cacheTime == 0) {
+                c.persist(key);
+            } else {
+                c.expire(key, cacheTime);
+            }
+        }));
     }
 
     /**
      * {@inheritDoc}
      */
-    @Async
     @Override
-    @Transactional("identifierRedisTemplate")
     public void saveIdentifier(@Nonnull ProfileName name) {
-        if (this.identifierValueOperations.setIfAbsent("name:" + name.getName().toLowerCase(), name)) {
-            this.identifierRedisTemplate.expire("name:" + name.getName().toLowerCase(), this.cacheConfiguration.getNameCacheTime(), TimeUnit.SECONDS);
-        }
+        this.writeIdentifier(name, now());
+    }
+
+    /**
+     * Saves a profile identifier.
+     *
+     * @param name an identifier.
+     * @param now  the current time in its encoded form.
+     */
+    private void writeIdentifier(@Nonnull ProfileName name, @Nonnull byte[] now) {
+        byte[] value = encode(name.getName());
+        ProfileIdentifier identifier = name.getIdentifier();
+        int cacheTime = this.cacheConfiguration.getNameCacheTime();
+
+        this.writeBuffer.offer("name:" + name.getName().toLowerCase(), Write.save(identifier, cacheTime, NAME_PREFIX + name.getName().toLowerCase(), NAME_FIELD, value, NAME_TIME_FIELD, now));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveIdentifiers(@Nonnull List<ProfileName> names) {
+        byte[] now = now();
+        names.forEach((n) -> this.writeIdentifier(n, now));
     }
 
     /**
@@ -120,20 +605,132 @@ public class MojangCacheImpl implements MojangCache {
      */
     @Nullable
     @Override
-    @Transactional("nameHistoryRedisTemplate")
-    public List<ProfileNameChange> findNameHistory(@Nonnull String identifier) {
-        return this.nameHistoryValueOperations.get("name_history:" + identifier.toLowerCase());
+    public List<ProfileNameChange> findNameHistory(@Nonnull ProfileIdentifier identifier) {
+        List<byte[]> values = this.fetch(identifier, HISTORY_FIELD, HISTORY_TIME_FIELD);
+
+        return decode(this.nameHistorySerializer, values.get(0), values.get(1), this.cacheConfiguration.getHistoryCacheTime(), this.cacheConfiguration.getHistorySoftCacheTime(), () -> this.revalidator.refreshNameHistory(identifier));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public List<ProfileNameChange> findNameHistoryByName(@Nonnull String name) {
+        List<?> values = this.resolve(Collections.singletonList(NAME_PREFIX + name.toLowerCase()), NAME_FIELD, NAME_TIME_FIELD, HISTORY_FIELD, HISTORY_TIME_FIELD);
+        String identifier = this.decodeIdentifier(name, values, 0);
+
+        if (identifier == null) {
+            return null;
+        }
+
+        return decode(this.nameHistorySerializer, values.get(3), values.get(4), this.cacheConfiguration.getHistoryCacheTime(), this.cacheConfiguration.getHistorySoftCacheTime(), () -> this.revalidator.refreshNameHistory(ProfileIdentifier.parse(identifier)));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void saveNameHistory(@Nonnull ProfileIdentifier identifier, @Nonnull List<ProfileNameChange> nameChanges) {
+        byte[] id = identifier.toAscii();
+        byte[] history = this.nameHistorySerializer.serialize(nameChanges);
+        Map<String, byte[]> intervals = NameIntervals.encode(nameChanges);
+        int cacheTime = this.cacheConfiguration.getHistoryCacheTime();
+
+        byte[] now = now();
+
+        this.writeBuffer.offer("name_history:" + identifier, Write.save(identifier, cacheTime, null, HISTORY_FIELD, history, HISTORY_TIME_FIELD, now).with((c) -> intervals.forEach((name, value) -> {
+            byte[] key = encode(INTERVAL_PREFIX + name);
+
+            c.hSet(key, id, value);
+            if (cacheTime == 0) {
+                c.persist(key);
+            } else {
+                c.expire(key, cacheTime);
+            }
+        })));
     }
 
     /**
      * {@inheritDoc}
      */
-    @Async
+    @Nonnull
     @Override
-    @Transactional("nameHistoryRedisTemplate")
-    public void saveNameHistory(@Nonnull String identifier, @Nonnull List<ProfileNameChange> nameChanges) {
-        if (this.nameHistoryValueOperations.setIfAbsent("name_history:" + identifier.toLowerCase(), nameChanges)) {
-            this.nameHistoryRedisTemplate.expire("name_history:" + identifier.toLowerCase(), this.cacheConfiguration.getHistoryCacheTime(), TimeUnit.SECONDS);
+    public Collection<Metric<?>> metrics() {
+        Collection<Metric<?>> metrics = new ArrayList<>();
+
+        metrics.add(new Metric<>("mojang.cache.write-behind.pending", this.writeBuffer.getSize()));
+        metrics.add(new Metric<>("mojang.cache.write-behind.merged", this.writeBuffer.getMergedCount()));
+        metrics.add(new Metric<>("mojang.cache.write-behind.dropped", this.writeBuffer.getDroppedCount()));
+        metrics.add(new Metric<>("mojang.cache.write-behind.flushed", this.writeBuffer.getFlushedCount()));
+        metrics.add(new Metric<>("mojang.cache.write-behind.failures", this.writeBuffer.getFailureCount()));
+
+        return metrics;
+    }
+
+    /**
+     * Represents a single buffered write which consists of an optional update of a player hash
+     * (which is applied through the save script) and an optional set of plain commands.
+     */
+    @Immutable
+    private static final class Write {
+        private static final String[] NO_KEYS = new String[0];
+        private static final byte[][] NO_ARGS = new byte[0][];
+
+        private final String[] keys;
+        private final byte[][] args;
+        private final Consumer<RedisConnection> commands;
+
+        private Write(@Nonnull String[] keys, @Nonnull byte[][] args, @Nullable Consumer<RedisConnection> commands) {
+            this.keys = keys;
+            this.args = args;
+            this.commands = commands;
+        }
+
+        /**
+         * Creates a write which updates a set of fields within the hash of a player.
+         *
+         * @param identifier a profile identifier.
+         * @param cacheTime  the cache time (in seconds) of the passed fields or zero if they shall
+         *                   never expire.
+         * @param indexKey   a name index key which shall point to the player or null.
+         * @param fields     a set of fields and values.
+         * @return a write.
+         */
+        @Nonnull
+        static Write save(@Nonnull ProfileIdentifier identifier, @Nonnegative int cacheTime, @Nullable String indexKey, @Nonnull byte[]... fields) {
+            String[] keys = (indexKey == null ? new String[]{PLAYER_PREFIX + identifier} : new String[]{PLAYER_PREFIX + identifier, indexKey});
+            byte[][] args = new byte[4 + fields.length][];
+
+            args[0] = encode(keys.length);
+            args[1] = encode(cacheTime);
+            args[2] = identifier.toAscii();
+            args[3] = encode(fields.length);
+            System.arraycopy(fields, 0, args, 4, fields.length);
+
+            return new Write(keys, args, null);
+        }
+
+        /**
+         * Creates a write which issues a set of plain commands.
+         *
+         * @param commands a function which issues the commands on a pipelined connection.
+         * @return a write.
+         */
+        @Nonnull
+        static Write commands(@Nonnull Consumer<RedisConnection> commands) {
+            return new Write(NO_KEYS, NO_ARGS, commands);
+        }
+
+        /**
+         * Creates a copy of this write which issues a set of plain commands as well.
+         *
+         * @param commands a function which issues the commands on a pipelined connection.
+         * @return a write.
+         */
+        @Nonnull
+        Write with(@Nonnull Consumer<RedisConnection> commands) {
+            return new Write(this.keys, this.args, commands);
         }
     }
 }
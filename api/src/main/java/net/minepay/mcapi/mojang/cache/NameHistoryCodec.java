@@ -0,0 +1,59 @@
+package net.minepay.mcapi.mojang.cache;
+
+import net.minepay.mcapi.mojang.ProfileNameChange;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Encodes name change histories.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class NameHistoryCodec extends BinaryCodec<List<ProfileNameChange>> {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(@Nonnull DataOutput output, @Nonnull List<ProfileNameChange> value) throws IOException {
+        output.writeShort(value.size());
+
+        for (ProfileNameChange change : value) {
+            output.writeUTF(change.getName());
+            output.writeBoolean(change.getChangedToAt() != null);
+
+            if (change.getChangedToAt() != null) {
+                output.writeLong(change.getChangedToAt().getEpochSecond());
+                output.writeInt(change.getChangedToAt().getNano());
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public List<ProfileNameChange> read(@Nonnull DataInput input) throws IOException {
+        int size = input.readUnsignedShort();
+        List<ProfileNameChange> changes = new ArrayList<>(size);
+
+        for (int i = 0; i < size; ++i) {
+            String name = input.readUTF();
+            Instant changedToAt = (input.readBoolean() ? Instant.ofEpochSecond(input.readLong(), input.readInt()) : null);
+
+            changes.add(new ProfileNameChange(name, changedToAt));
+        }
+
+        return changes;
+    }
+}
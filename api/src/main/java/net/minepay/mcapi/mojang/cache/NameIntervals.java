@@ -0,0 +1,199 @@
+package net.minepay.mcapi.mojang.cache;
+
+import net.minepay.mcapi.mojang.ProfileName;
+import net.minepay.mcapi.mojang.ProfileNameChange;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Derives the intervals during which a display name has been held by a certain profile from name
+ * histories.
+ *
+ * <strong>Implementation Notes:</strong> Each profile contributes a list of half-open intervals
+ * ([from, to)) for every name within its history. The interval of its current name is left open
+ * thus lookups for any later point in time are answered without consulting Mojang again; it is
+ * bounded by the expiration of the cached intervals instead. The intervals of all profiles which
+ * have held a certain name are merged and sorted on lookup in order to locate the covering interval
+ * with a binary search. Should the name have been released and claimed by another profile since,
+ * the claim begins after the open interval of the previous holder and thus takes precedence as soon
+ * as the history of the new holder has been cached.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public final class NameIntervals {
+
+    private NameIntervals() {
+    }
+
+    /**
+     * Encodes the intervals of each name within a name history.
+     *
+     * @param history a name history (in chronological order).
+     * @return a map of lower case names and their encoded intervals.
+     */
+    @Nonnull
+    public static Map<String, byte[]> encode(@Nonnull List<ProfileNameChange> history) {
+        Map<String, List<long[]>> intervals = new HashMap<>();
+
+        for (int i = 0; i < history.size(); ++i) {
+            ProfileNameChange change = history.get(i);
+            long from = (change.getChangedToAt() == null ? Long.MIN_VALUE : change.getChangedToAt().toEpochMilli());
+            long to = Long.MAX_VALUE;
+
+            if (i + 1 < history.size() && history.get(i + 1).getChangedToAt() != null) {
+                to = history.get(i + 1).getChangedToAt().toEpochMilli();
+            }
+
+            if (from < to) {
+                intervals.computeIfAbsent(change.getName().toLowerCase(), (k) -> new ArrayList<>()).add(new long[]{from, to});
+            }
+        }
+
+        String currentName = (history.isEmpty() ? "" : history.get(history.size() - 1).getName());
+        Map<String, byte[]> encoded = new HashMap<>();
+
+        intervals.forEach((name, list) -> encoded.put(name, encode(currentName, list)));
+        return encoded;
+    }
+
+    /**
+     * Encodes the interval which has been revealed by a single lookup of a name at a certain point
+     * in time.
+     *
+     * A lookup does not tell us when the name has been acquired thus the interval begins at the
+     * requested time. When the profile still holds the name, the interval is left open (just like
+     * the current name within a history); otherwise only the requested point in time is covered.
+     *
+     * @param name   the requested display name.
+     * @param holder the profile which held the name at the specified time (carrying its current
+     *               name).
+     * @param at     a timestamp.
+     * @return an encoded interval.
+     */
+    @Nonnull
+    public static byte[] encode(@Nonnull String name, @Nonnull ProfileName holder, @Nonnull Instant at) {
+        long from = at.toEpochMilli();
+        long to = (name.equalsIgnoreCase(holder.getName()) ? Long.MAX_VALUE : from + 1);
+
+        return encode(holder.getName(), Collections.singletonList(new long[]{from, to}));
+    }
+
+    /**
+     * Encodes a list of intervals.
+     *
+     * @param currentName the current name of the profile which held the name.
+     * @param intervals   a list of intervals.
+     * @return an encoded representation.
+     */
+    @Nonnull
+    private static byte[] encode(@Nonnull String currentName, @Nonnull List<long[]> intervals) {
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(8 + intervals.size() * 16);
+            DataOutputStream output = new DataOutputStream(outputStream);
+
+            output.writeUTF(currentName);
+            output.writeShort(intervals.size());
+
+            for (long[] interval : intervals) {
+                output.writeLong(interval[0]);
+                output.writeLong(interval[1]);
+            }
+
+            return outputStream.toByteArray();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Locates the profile which held a name at the specified time.
+     *
+     * @param entries a map of profile identifiers and the encoded intervals during which they held
+     *                the name.
+     * @param at      a timestamp.
+     * @return a profile name (carrying the current name of the profile) or, if none of the known
+     * intervals covers the timestamp, null.
+     */
+    @Nullable
+    public static ProfileName find(@Nonnull Map<String, byte[]> entries, @Nonnull Instant at) {
+        List<Interval> intervals = new ArrayList<>();
+
+        entries.forEach((identifier, value) -> {
+            try {
+                DataInputStream input = new DataInputStream(new ByteArrayInputStream(value));
+                String currentName = input.readUTF();
+                int count = input.readUnsignedShort();
+
+                for (int i = 0; i < count; ++i) {
+                    intervals.add(new Interval(input.readLong(), input.readLong(), identifier, currentName));
+                }
+            } catch (IOException ignore) {
+                // malformed entries are skipped and will be replaced once the history is refreshed
+            }
+        });
+
+        if (intervals.isEmpty()) {
+            return null;
+        }
+
+        Interval[] sorted = intervals.toArray(new Interval[intervals.size()]);
+        Arrays.sort(sorted, (a, b) -> Long.compare(a.from, b.from));
+
+        long timestamp = at.toEpochMilli();
+        int low = 0;
+        int high = sorted.length - 1;
+        int candidate = -1;
+
+        // locate the last interval which begins at or before the timestamp
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+
+            if (sorted[middle].from <= timestamp) {
+                candidate = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        if (candidate == -1 || timestamp >= sorted[candidate].to) {
+            return null;
+        }
+
+        return new ProfileName(sorted[candidate].identifier, sorted[candidate].currentName);
+    }
+
+    /**
+     * Represents a single interval during which a name has been held by a profile.
+     */
+    private static final class Interval {
+        private final long from;
+        private final long to;
+        private final String identifier;
+        private final String currentName;
+
+        private Interval(long from, long to, @Nonnull String identifier, @Nonnull String currentName) {
+            this.from = from;
+            this.to = to;
+            this.identifier = identifier;
+            this.currentName = currentName;
+        }
+    }
+}
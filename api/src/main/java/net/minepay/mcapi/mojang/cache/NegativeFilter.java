@@ -0,0 +1,154 @@
+package net.minepay.mcapi.mojang.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Provides a lock-free Bloom filter which keeps track of keys which are known to be missing.
+ *
+ * <strong>Implementation Notes:</strong> A Bloom filter cannot forget keys thus this filter is
+ * split into two generations which are rotated once per configured period. Keys are always added
+ * to the current generation while lookups consult both generations which means that each key is
+ * remembered for at least one and at most two periods. Since a filter may report false positives,
+ * it is only suitable for ruling keys out.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class NegativeFilter {
+    private static final int HASH_FUNCTIONS = 4;
+
+    private final int bits;
+    private final long period;
+    private final LongSupplier clock;
+    private final AtomicLong rotation;
+
+    private volatile AtomicLongArray current;
+    private volatile AtomicLongArray previous;
+
+    /**
+     * @param bits   the amount of bits per generation.
+     * @param period the period after which a generation is replaced.
+     */
+    public NegativeFilter(@Nonnegative int bits, @Nonnull Duration period) {
+        this(bits, period, System::nanoTime);
+    }
+
+    NegativeFilter(@Nonnegative int bits, @Nonnull Duration period, @Nonnull LongSupplier clock) {
+        if (bits <= 0) {
+            throw new IllegalArgumentException("Invalid filter size: Must be greater than zero");
+        }
+
+        this.bits = (bits + 63) & ~63;
+        this.period = period.toNanos();
+        this.clock = clock;
+        this.rotation = new AtomicLong(clock.getAsLong());
+
+        this.current = new AtomicLongArray(this.bits / 64);
+        this.previous = new AtomicLongArray(this.bits / 64);
+    }
+
+    /**
+     * Records a missing key.
+     *
+     * @param key a key.
+     */
+    public void add(@Nonnull String key) {
+        this.rotate();
+
+        AtomicLongArray generation = this.current;
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 0; i < HASH_FUNCTIONS; ++i) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % this.bits;
+            long mask = 1L << bit;
+            int index = bit >>> 6;
+
+            long value;
+            do {
+                value = generation.get(index);
+            } while ((value & mask) == 0 && !generation.compareAndSet(index, value, value | mask));
+        }
+    }
+
+    /**
+     * Checks whether the specified key may have been recorded as missing.
+     *
+     * @param key a key.
+     * @return true if the key may be missing, false if it has definitely not been recorded.
+     */
+    public boolean mightContain(@Nonnull String key) {
+        this.rotate();
+
+        long hash = hash(key);
+        return contains(this.current, hash) || contains(this.previous, hash);
+    }
+
+    /**
+     * Checks whether all bits of a hash are set within a generation.
+     *
+     * @param generation a generation.
+     * @param hash       a hash.
+     * @return true if present, false otherwise.
+     */
+    private boolean contains(@Nonnull AtomicLongArray generation, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 0; i < HASH_FUNCTIONS; ++i) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % this.bits;
+
+            if ((generation.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Replaces the oldest generation when the current period has passed.
+     */
+    private void rotate() {
+        long now = this.clock.getAsLong();
+        long last = this.rotation.get();
+
+        if (now - last < this.period || !this.rotation.compareAndSet(last, now)) {
+            return;
+        }
+
+        // keys which are added to the retiring generation during the swap may be lost which
+        // merely causes an additional lookup further down the line
+        this.previous = this.current;
+        this.current = new AtomicLongArray(this.bits / 64);
+    }
+
+    /**
+     * Computes a 64-bit hash (FNV-1a followed by a final avalanche step) of a key.
+     *
+     * @param key a key.
+     * @return a hash.
+     */
+    private static long hash(@Nonnull String key) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,256 @@
+package net.minepay.mcapi.mojang.cache;
+
+import net.minepay.mcapi.mojang.Profile;
+import net.minepay.mcapi.mojang.ProfileProperty;
+import net.minepay.mcapi.mojang.ProfileTextures;
+import net.minepay.mcapi.mojang.TexturesProperty;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.net.URL;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Encodes profiles.
+ *
+ * <strong>Implementation Notes:</strong> Signatures are stored in their decoded form while texture
+ * properties are stored as raw JSON (thus permitting profiles to be read without decoding their
+ * textures). Textures which have already been decoded (or cannot be stored in their raw form) are
+ * stored field by field instead.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class ProfileCodec extends BinaryCodec<Profile> {
+    private static final byte STRING_PROPERTY = 0;
+    private static final byte TEXTURES_PROPERTY = 1;
+    private static final byte ENCODED_TEXTURES_PROPERTY = 2;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(@Nonnull DataOutput output, @Nonnull Profile value) throws IOException {
+        writeIdentifier(output, value.getId());
+        output.writeUTF(value.getName());
+        output.writeByte(value.getProperties().size());
+
+        for (ProfileProperty<?> property : value.getProperties()) {
+            output.writeUTF(property.getName());
+            writeSignature(output, property.getSignature());
+
+            if (property instanceof TexturesProperty && writeEncodedTextures(output, ((TexturesProperty) property).getEncodedValue())) {
+                continue;
+            }
+
+            if (property.getValue() instanceof ProfileTextures) {
+                output.writeByte(TEXTURES_PROPERTY);
+                writeTextures(output, (ProfileTextures) property.getValue());
+            } else {
+                output.writeByte(STRING_PROPERTY);
+                output.writeUTF(String.valueOf(property.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Writes a property signature.
+     *
+     * @param output    an output.
+     * @param signature a base64 encoded signature or null.
+     * @throws IOException when writing fails.
+     */
+    private static void writeSignature(@Nonnull DataOutput output, @Nullable String signature) throws IOException {
+        if (signature == null) {
+            output.writeShort(-1);
+            return;
+        }
+
+        byte[] decoded;
+        try {
+            decoded = Base64.getDecoder().decode(signature);
+        } catch (IllegalArgumentException ex) {
+            // signatures are passed through verbatim thus malformed values are kept as strings
+            output.writeShort(-2);
+            output.writeUTF(signature);
+            return;
+        }
+
+        // only signatures which survive a round trip may be stored in their decoded form
+        if (!Base64.getEncoder().encodeToString(decoded).equals(signature)) {
+            output.writeShort(-2);
+            output.writeUTF(signature);
+            return;
+        }
+
+        output.writeShort(decoded.length);
+        output.write(decoded);
+    }
+
+    /**
+     * Writes a set of textures in its raw JSON form.
+     *
+     * @param output          an output.
+     * @param encodedTextures a base64 encoded texture object.
+     * @return true if written, false if the encoding does not survive a round trip.
+     *
+     * @throws IOException when writing fails.
+     */
+    private static boolean writeEncodedTextures(@Nonnull DataOutput output, @Nonnull String encodedTextures) throws IOException {
+        byte[] decoded;
+        try {
+            decoded = Base64.getDecoder().decode(encodedTextures);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+
+        if (decoded.length > 0xFFFF || !Base64.getEncoder().encodeToString(decoded).equals(encodedTextures)) {
+            return false;
+        }
+
+        output.writeByte(ENCODED_TEXTURES_PROPERTY);
+        output.writeShort(decoded.length);
+        output.write(decoded);
+        return true;
+    }
+
+    /**
+     * Writes a set of textures.
+     *
+     * @param output   an output.
+     * @param textures a set of textures.
+     * @throws IOException when writing fails.
+     */
+    private static void writeTextures(@Nonnull DataOutput output, @Nonnull ProfileTextures textures) throws IOException {
+        output.writeLong(textures.getTimestamp().getEpochSecond());
+        output.writeInt(textures.getTimestamp().getNano());
+        writeIdentifier(output, textures.getProfileId());
+        output.writeUTF(textures.getProfileName());
+        output.writeByte(textures.getTextures().size());
+
+        for (Map.Entry<String, ProfileTextures.Texture> entry : textures.getTextures().entrySet()) {
+            ProfileTextures.Texture texture = entry.getValue();
+            Map<String, String> metadata = texture.getMetadata();
+
+            output.writeUTF(entry.getKey());
+            output.writeUTF(texture.getUrl().toExternalForm());
+            output.writeByte(metadata == null ? -1 : metadata.size());
+
+            if (metadata != null) {
+                for (Map.Entry<String, String> metadataEntry : metadata.entrySet()) {
+                    output.writeUTF(metadataEntry.getKey());
+                    writeNullableUTF(output, metadataEntry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Profile read(@Nonnull DataInput input) throws IOException {
+        String id = readIdentifier(input);
+        String name = input.readUTF();
+        int propertyCount = input.readUnsignedByte();
+        List<ProfileProperty<?>> properties = new ArrayList<>(propertyCount);
+
+        for (int i = 0; i < propertyCount; ++i) {
+            String propertyName = input.readUTF();
+            String signature = readSignature(input);
+            byte type = input.readByte();
+
+            switch (type) {
+                case STRING_PROPERTY:
+                    properties.add(new ProfileProperty<>(propertyName, input.readUTF(), signature));
+                    break;
+                case TEXTURES_PROPERTY:
+                    properties.add(new ProfileProperty<>(propertyName, readTextures(input), signature));
+                    break;
+                case ENCODED_TEXTURES_PROPERTY:
+                    byte[] textures = new byte[input.readUnsignedShort()];
+                    input.readFully(textures);
+
+                    properties.add(new TexturesProperty(propertyName, Base64.getEncoder().encodeToString(textures), signature));
+                    break;
+                default:
+                    throw new IOException("Unknown property type: " + type);
+            }
+        }
+
+        return new Profile(id, name, properties);
+    }
+
+    /**
+     * Reads a property signature.
+     *
+     * @param input an input.
+     * @return a base64 encoded signature or null.
+     *
+     * @throws IOException when reading fails.
+     */
+    @Nullable
+    private static String readSignature(@Nonnull DataInput input) throws IOException {
+        short length = input.readShort();
+
+        if (length == -1) {
+            return null;
+        }
+
+        if (length == -2) {
+            return input.readUTF();
+        }
+
+        byte[] decoded = new byte[length];
+        input.readFully(decoded);
+        return Base64.getEncoder().encodeToString(decoded);
+    }
+
+    /**
+     * Reads a set of textures.
+     *
+     * @param input an input.
+     * @return a set of textures.
+     *
+     * @throws IOException when reading fails.
+     */
+    @Nonnull
+    private static ProfileTextures readTextures(@Nonnull DataInput input) throws IOException {
+        Instant timestamp = Instant.ofEpochSecond(input.readLong(), input.readInt());
+        String profileId = readIdentifier(input);
+        String profileName = input.readUTF();
+        int textureCount = input.readUnsignedByte();
+        Map<String, ProfileTextures.Texture> textures = new LinkedHashMap<>();
+
+        for (int i = 0; i < textureCount; ++i) {
+            String key = input.readUTF();
+            URL url = new URL(input.readUTF());
+            byte metadataCount = input.readByte();
+            Map<String, String> metadata = null;
+
+            if (metadataCount != -1) {
+                metadata = new HashMap<>();
+
+                for (int j = 0; j < metadataCount; ++j) {
+                    metadata.put(input.readUTF(), readNullableUTF(input));
+                }
+            }
+
+            textures.put(key, new ProfileTextures.Texture(url, metadata));
+        }
+
+        return new ProfileTextures(timestamp, profileId, profileName, textures);
+    }
+}
@@ -0,0 +1,541 @@
+package net.minepay.mcapi.mojang.cache;
+
+import net.minepay.mcapi.mojang.ProfileIdentifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Provides a compact in-memory index which maps profile identifiers to their current display name
+ * and the time at which the name has been recorded.
+ *
+ * <strong>Implementation Notes:</strong> The index is split into a fixed amount of segments which
+ * are guarded by their own lock each. Every segment is an open addressing hash table (with linear
+ * probing) which stores the two longs of each identifier along with a reference to its name and
+ * its update time within a single long array while all names are packed into a byte arena which
+ * is shared by all entries of the segment. Renamed or removed entries leave their previous name
+ * behind within the arena which is compacted once the unreferenced portion exceeds the live
+ * portion. Lookups are attempted without acquiring a lock and only fall back to a read lock when
+ * a concurrent write is detected.
+ *
+ * Once the configured maximum amount of entries has been reached, new identifiers are rejected
+ * while known identifiers continue to be updated.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class ProfileIndex {
+
+    /**
+     * Defines the estimated amount of memory (in bytes) which is occupied by a single entry
+     * (including the unused portion of the table and arena).
+     */
+    public static final int ESTIMATED_ENTRY_SIZE = 80;
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_BITS;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int INITIAL_ARENA_SIZE = 2048;
+    private static final int MAXIMUM_NAME_LENGTH = 0xFF;
+
+    /**
+     * Defines the amount of longs per slot (most significant bits, least significant bits, name
+     * reference and update time).
+     */
+    private static final int SLOT_SIZE = 4;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final int maximumSegmentSize;
+    private final LongSupplier clock;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param maximumSize the maximum amount of entries.
+     */
+    public ProfileIndex(@Nonnegative long maximumSize) {
+        this(maximumSize, System::currentTimeMillis);
+    }
+
+    ProfileIndex(@Nonnegative long maximumSize, @Nonnull LongSupplier clock) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Invalid index size: Must be greater than zero");
+        }
+
+        this.maximumSegmentSize = (int) Math.min(1 << 27, Math.max(1, maximumSize / SEGMENT_COUNT));
+        this.clock = clock;
+
+        for (int i = 0; i < SEGMENT_COUNT; ++i) {
+            this.segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Computes the hash of an identifier.
+     *
+     * @param mostSignificantBits  the most significant bits of an identifier.
+     * @param leastSignificantBits the least significant bits of an identifier.
+     * @return a hash.
+     */
+    private static long hash(long mostSignificantBits, long leastSignificantBits) {
+        long hash = mostSignificantBits * 0x9E3779B97F4A7C15L ^ leastSignificantBits;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Selects the segment which is responsible for a hash.
+     *
+     * @param hash a hash.
+     * @return a segment.
+     */
+    @Nonnull
+    private Segment segment(long hash) {
+        return this.segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+    }
+
+    /**
+     * Retrieves the entry of an identifier.
+     *
+     * @param identifier an identifier.
+     * @return an entry or, if the identifier is unknown, null.
+     */
+    @Nullable
+    public Entry find(@Nonnull ProfileIdentifier identifier) {
+        long msb = identifier.getMostSignificantBits();
+        long lsb = identifier.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Segment segment = this.segment(hash);
+
+        long stamp = segment.lock.tryOptimisticRead();
+        Entry entry = segment.read(msb, lsb, hash);
+
+        if (!segment.lock.validate(stamp)) {
+            stamp = segment.lock.readLock();
+
+            try {
+                entry = segment.read(msb, lsb, hash);
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+
+        return entry;
+    }
+
+    /**
+     * Records the current display name of a profile.
+     *
+     * @param identifier an identifier.
+     * @param name       a display name.
+     * @return the previously recorded display name or, if the identifier was unknown or the name
+     * did not change, null.
+     */
+    @Nullable
+    public String put(@Nonnull ProfileIdentifier identifier, @Nonnull String name) {
+        return this.write(identifier, name, true);
+    }
+
+    /**
+     * Records the display name of a profile unless a display name has already been recorded for
+     * it (for instance when the passed name may be outdated).
+     *
+     * @param identifier an identifier.
+     * @param name       a display name.
+     */
+    public void putIfAbsent(@Nonnull ProfileIdentifier identifier, @Nonnull String name) {
+        this.write(identifier, name, false);
+    }
+
+    /**
+     * Records the display name of a profile.
+     *
+     * @param identifier an identifier.
+     * @param name       a display name.
+     * @param replace    true if previously recorded names shall be replaced, false otherwise.
+     * @return the previously recorded display name or, if the identifier was unknown or the name
+     * did not change, null.
+     */
+    @Nullable
+    private String write(@Nonnull ProfileIdentifier identifier, @Nonnull String name, boolean replace) {
+        byte[] encodedName = name.getBytes(StandardCharsets.UTF_8);
+
+        if (encodedName.length == 0 || encodedName.length > MAXIMUM_NAME_LENGTH) {
+            this.rejected.increment();
+            return null;
+        }
+
+        long msb = identifier.getMostSignificantBits();
+        long lsb = identifier.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Segment segment = this.segment(hash);
+
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.write(msb, lsb, hash, encodedName, this.clock.getAsLong(), replace);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes an identifier from the index.
+     *
+     * @param identifier an identifier.
+     * @return true if removed, false if unknown.
+     */
+    public boolean remove(@Nonnull ProfileIdentifier identifier) {
+        long msb = identifier.getMostSignificantBits();
+        long lsb = identifier.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        Segment segment = this.segment(hash);
+
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.remove(msb, lsb, hash);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Retrieves the amount of entries within this index.
+     *
+     * @return an amount of entries.
+     */
+    @Nonnegative
+    public long getSize() {
+        long size = 0;
+
+        for (Segment segment : this.segments) {
+            long stamp = segment.lock.readLock();
+
+            try {
+                size += segment.size;
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Retrieves the amount of memory (in bytes) which is occupied by the tables and arenas of this
+     * index.
+     *
+     * @return an amount of bytes.
+     */
+    @Nonnegative
+    public long getMemoryUsage() {
+        long usage = 0;
+
+        for (Segment segment : this.segments) {
+            long stamp = segment.lock.readLock();
+
+            try {
+                usage += (long) segment.slots.length * Long.BYTES + segment.arena.length;
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+
+        return usage;
+    }
+
+    @Nonnegative
+    public long getRejectedCount() {
+        return this.rejected.sum();
+    }
+
+    /**
+     * Represents the recorded state of a single profile.
+     */
+    @Immutable
+    @ThreadSafe
+    public static final class Entry {
+        private final String name;
+        private final long updatedAt;
+
+        private Entry(@Nonnull String name, long updatedAt) {
+            this.name = name;
+            this.updatedAt = updatedAt;
+        }
+
+        @Nonnull
+        public String getName() {
+            return this.name;
+        }
+
+        @Nonnull
+        public Instant getUpdatedAt() {
+            return Instant.ofEpochMilli(this.updatedAt);
+        }
+    }
+
+    /**
+     * Provides a single open addressing hash table.
+     *
+     * Name references carry the offset of a name within the arena in their upper bits and its
+     * length within their lowest eight bits thus a reference of zero marks an empty slot.
+     */
+    private final class Segment {
+        private final StampedLock lock = new StampedLock();
+
+        private long[] slots = new long[INITIAL_CAPACITY * SLOT_SIZE];
+        private byte[] arena = new byte[INITIAL_ARENA_SIZE];
+        private int arenaSize;
+        private int garbage;
+        private int size;
+
+        /**
+         * Reads an entry without acquiring a lock (callers are expected to validate the result).
+         */
+        @Nullable
+        private Entry read(long msb, long lsb, long hash) {
+            long[] slots = this.slots;
+            byte[] arena = this.arena;
+            int slot = find(slots, msb, lsb, hash);
+
+            if (slot == -1) {
+                return null;
+            }
+
+            long reference = slots[slot + 2];
+            long updatedAt = slots[slot + 3];
+            int offset = (int) (reference >>> 8);
+            int length = (int) (reference & 0xFF);
+
+            // a concurrent compaction may have replaced the arena after the slot has been read
+            if (length == 0 || offset + length > arena.length) {
+                return null;
+            }
+
+            return new Entry(new String(arena, offset, length, StandardCharsets.UTF_8), updatedAt);
+        }
+
+        /**
+         * Locates the slot of an identifier.
+         *
+         * @return the index of the first long of the slot or, if absent, -1.
+         */
+        private int find(@Nonnull long[] slots, long msb, long lsb, long hash) {
+            int capacity = slots.length / SLOT_SIZE;
+            int mask = capacity - 1;
+            int index = (int) hash & mask;
+
+            // the probe sequence is bounded as unlocked readers may observe a table mid-write
+            for (int i = 0; i < capacity; ++i) {
+                int slot = ((index + i) & mask) * SLOT_SIZE;
+
+                if (slots[slot + 2] == 0) {
+                    return -1;
+                }
+
+                if (slots[slot] == msb && slots[slot + 1] == lsb) {
+                    return slot;
+                }
+            }
+
+            return -1;
+        }
+
+        @Nullable
+        private String write(long msb, long lsb, long hash, @Nonnull byte[] name, long updatedAt, boolean replace) {
+            int slot = this.find(this.slots, msb, lsb, hash);
+
+            if (slot != -1 && !replace) {
+                return null;
+            }
+
+            if (slot != -1) {
+                long reference = this.slots[slot + 2];
+                int offset = (int) (reference >>> 8);
+                int length = (int) (reference & 0xFF);
+                this.slots[slot + 3] = updatedAt;
+
+                if (this.equals(offset, length, name)) {
+                    return null;
+                }
+
+                String previous = new String(this.arena, offset, length, StandardCharsets.UTF_8);
+                this.garbage += length;
+                this.slots[slot + 2] = this.append(name);
+                return previous;
+            }
+
+            if (this.size >= ProfileIndex.this.maximumSegmentSize) {
+                ProfileIndex.this.rejected.increment();
+                return null;
+            }
+
+            if ((this.size + 1) * 4L > (this.slots.length / SLOT_SIZE) * 3L) {
+                this.resize(this.slots.length / SLOT_SIZE * 2);
+            }
+
+            long reference = this.append(name);
+            slot = this.findEmpty(this.slots, hash);
+
+            this.slots[slot] = msb;
+            this.slots[slot + 1] = lsb;
+            this.slots[slot + 3] = updatedAt;
+            this.slots[slot + 2] = reference;
+            ++this.size;
+            return null;
+        }
+
+        private boolean remove(long msb, long lsb, long hash) {
+            int slot = this.find(this.slots, msb, lsb, hash);
+
+            if (slot == -1) {
+                return false;
+            }
+
+            this.garbage += (int) (this.slots[slot + 2] & 0xFF);
+            --this.size;
+
+            // shift subsequent entries of the same probe sequence back into the freed slot as
+            // linear probing would otherwise terminate early
+            int mask = this.slots.length / SLOT_SIZE - 1;
+            int free = slot / SLOT_SIZE;
+            int current = free;
+
+            while (true) {
+                current = (current + 1) & mask;
+                int currentSlot = current * SLOT_SIZE;
+
+                if (this.slots[currentSlot + 2] == 0) {
+                    break;
+                }
+
+                int home = (int) hash(this.slots[currentSlot], this.slots[currentSlot + 1]) & mask;
+
+                if (((current - home) & mask) >= ((current - free) & mask)) {
+                    System.arraycopy(this.slots, currentSlot, this.slots, free * SLOT_SIZE, SLOT_SIZE);
+                    free = current;
+                }
+            }
+
+            int freeSlot = free * SLOT_SIZE;
+            this.slots[freeSlot] = 0;
+            this.slots[freeSlot + 1] = 0;
+            this.slots[freeSlot + 2] = 0;
+            this.slots[freeSlot + 3] = 0;
+            return true;
+        }
+
+        /**
+         * Locates the first empty slot within the probe sequence of a hash.
+         */
+        private int findEmpty(@Nonnull long[] slots, long hash) {
+            int mask = slots.length / SLOT_SIZE - 1;
+            int index = (int) hash & mask;
+
+            while (slots[index * SLOT_SIZE + 2] != 0) {
+                index = (index + 1) & mask;
+            }
+
+            return index * SLOT_SIZE;
+        }
+
+        /**
+         * Evaluates whether a name within the arena equals an encoded name.
+         */
+        private boolean equals(int offset, int length, @Nonnull byte[] name) {
+            if (length != name.length) {
+                return false;
+            }
+
+            for (int i = 0; i < length; ++i) {
+                if (this.arena[offset + i] != name[i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Appends a name to the arena.
+         *
+         * @return a name reference.
+         */
+        private long append(@Nonnull byte[] name) {
+            if (this.arenaSize + name.length > this.arena.length) {
+                int live = this.arenaSize - this.garbage;
+
+                if (this.garbage > live) {
+                    this.compact(Math.max(INITIAL_ARENA_SIZE, (live + name.length) * 2));
+                }
+
+                if (this.arenaSize + name.length > this.arena.length) {
+                    this.compact((int) Math.min(Integer.MAX_VALUE - 8, Math.max(this.arena.length * 2L, this.arenaSize + name.length)));
+                }
+            }
+
+            long reference = (long) this.arenaSize << 8 | name.length;
+            System.arraycopy(name, 0, this.arena, this.arenaSize, name.length);
+            this.arenaSize += name.length;
+            return reference;
+        }
+
+        /**
+         * Copies all referenced names into a new arena.
+         *
+         * Since unlocked readers may still access the previous arena, it is never modified in
+         * place.
+         */
+        private void compact(int capacity) {
+            byte[] arena = new byte[capacity];
+            int arenaSize = 0;
+
+            for (int slot = 0; slot < this.slots.length; slot += SLOT_SIZE) {
+                long reference = this.slots[slot + 2];
+
+                if (reference == 0) {
+                    continue;
+                }
+
+                int offset = (int) (reference >>> 8);
+                int length = (int) (reference & 0xFF);
+
+                System.arraycopy(this.arena, offset, arena, arenaSize, length);
+                this.slots[slot + 2] = (long) arenaSize << 8 | length;
+                arenaSize += length;
+            }
+
+            this.arena = arena;
+            this.arenaSize = arenaSize;
+            this.garbage = 0;
+        }
+
+        /**
+         * Rehashes all entries into a new table.
+         */
+        private void resize(int capacity) {
+            long[] slots = new long[capacity * SLOT_SIZE];
+
+            for (int slot = 0; slot < this.slots.length; slot += SLOT_SIZE) {
+                if (this.slots[slot + 2] == 0) {
+                    continue;
+                }
+
+                int target = this.findEmpty(slots, hash(this.slots[slot], this.slots[slot + 1]));
+                System.arraycopy(this.slots, slot, slots, target, SLOT_SIZE);
+            }
+
+            this.slots = slots;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package net.minepay.mcapi.mojang.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Provides a serializer which stores objects in a compact binary representation prefixed by a
+ * format version.
+ *
+ * <strong>Implementation Notes:</strong> Values which have been written by previous versions of
+ * this application (plain JSON) are recognized by their leading brace or bracket and passed to a
+ * legacy serializer thus existing cache entries remain readable until they expire.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class VersionedRedisSerializer<T> implements RedisSerializer<T> {
+
+    /**
+     * Defines the format version which is written by this serializer.
+     */
+    public static final byte VERSION = 1;
+
+    private final BinaryCodec<T> codec;
+    private final RedisSerializer<T> legacySerializer;
+
+    public VersionedRedisSerializer(@Nonnull BinaryCodec<T> codec, @Nonnull RedisSerializer<T> legacySerializer) {
+        this.codec = codec;
+        this.legacySerializer = legacySerializer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] serialize(T t) throws SerializationException {
+        if (t == null) {
+            return null;
+        }
+
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(128);
+            DataOutputStream output = new DataOutputStream(outputStream);
+
+            output.writeByte(VERSION);
+            this.codec.write(output, t);
+            return outputStream.toByteArray();
+        } catch (IOException ex) {
+            throw new SerializationException("Could not encode object: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        if (bytes[0] == '{' || bytes[0] == '[') {
+            return this.legacySerializer.deserialize(bytes);
+        }
+
+        if (bytes[0] != VERSION) {
+            throw new SerializationException("Unsupported format version: " + bytes[0]);
+        }
+
+        try {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes, 1, bytes.length - 1));
+            return this.codec.read(input);
+        } catch (IOException ex) {
+            throw new SerializationException("Could not decode object: " + ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package net.minepay.mcapi.mojang.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Buffers cache writes and flushes them in batches on a dedicated thread.
+ *
+ * <strong>Implementation Notes:</strong> Pending writes are keyed by the entry they update thus a
+ * write replaces any pending write for the same entry instead of being queued behind it. The
+ * buffer is bounded: once it is full, writes for new entries are dropped (a cache write is merely
+ * an optimization) and an immediate flush is requested. Batches are flushed periodically or as soon
+ * as a full batch is pending, whichever happens first. Failed batches are logged and discarded.
+ *
+ * @param <W> a write type.
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class WriteBehindBuffer<W> implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+    private final Consumer<List<W>> flusher;
+    private final int capacity;
+    private final int batchSize;
+    private final ScheduledExecutorService executor;
+
+    private final Map<String, W> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean signalled = new AtomicBoolean();
+
+    private final LongAdder merged = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * @param flusher   a function which applies a batch of writes.
+     * @param capacity  the maximum amount of pending writes.
+     * @param batchSize the maximum amount of writes per batch.
+     * @param interval  the interval at which pending writes are flushed.
+     */
+    public WriteBehindBuffer(@Nonnull Consumer<List<W>> flusher, @Nonnegative int capacity, @Nonnegative int batchSize, @Nonnull Duration interval) {
+        this(flusher, capacity, batchSize, interval, createExecutor());
+    }
+
+    WriteBehindBuffer(@Nonnull Consumer<List<W>> flusher, @Nonnegative int capacity, @Nonnegative int batchSize, @Nonnull Duration interval, @Nonnull ScheduledExecutorService executor) {
+        this.flusher = flusher;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.executor = executor;
+
+        long flushInterval = Math.max(1, interval.toMillis());
+        this.executor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates the executor which flushes pending writes.
+     *
+     * @return an executor.
+     */
+    @Nonnull
+    private static ScheduledExecutorService createExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("mojang-cache-");
+        threadFactory.setDaemon(true);
+
+        return Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    /**
+     * Enqueues a write.
+     *
+     * @param key   the key of the entry which is updated by this write.
+     * @param write a write.
+     * @return true if the write has been enqueued or has replaced a pending write, false if it has
+     * been dropped.
+     */
+    public boolean offer(@Nonnull String key, @Nonnull W write) {
+        int[] outcome = new int[1];
+
+        this.pending.compute(key, (k, v) -> {
+            if (v != null) {
+                outcome[0] = 1;
+                return write;
+            }
+
+            if (this.size.incrementAndGet() > this.capacity) {
+                this.size.decrementAndGet();
+                outcome[0] = -1;
+                return null;
+            }
+
+            return write;
+        });
+
+        if (outcome[0] == 1) {
+            this.merged.increment();
+        } else if (outcome[0] == -1) {
+            this.dropped.increment();
+            this.signal();
+            return false;
+        }
+
+        if (this.size.get() >= this.batchSize) {
+            this.signal();
+        }
+
+        return true;
+    }
+
+    /**
+     * Requests an immediate flush unless one has already been requested.
+     */
+    private void signal() {
+        if (this.signalled.compareAndSet(false, true)) {
+            try {
+                this.executor.execute(this::flush);
+            } catch (RejectedExecutionException ex) {
+                this.signalled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Flushes all pending writes.
+     */
+    public void flush() {
+        this.signalled.set(false);
+
+        List<W> batch;
+        while (!(batch = this.drain()).isEmpty()) {
+            try {
+                this.flusher.accept(batch);
+                this.flushed.add(batch.size());
+            } catch (RuntimeException ex) {
+                this.failures.increment();
+                logger.warn("Failed to flush a batch of {} cache writes", batch.size(), ex);
+            }
+        }
+    }
+
+    /**
+     * Removes a single batch of writes from the buffer.
+     *
+     * @return a batch (which is empty if no writes are pending).
+     */
+    @Nonnull
+    private List<W> drain() {
+        List<W> batch = new ArrayList<>(Math.min(this.batchSize, Math.max(0, this.size.get())));
+        Iterator<Map.Entry<String, W>> iterator = this.pending.entrySet().iterator();
+
+        while (batch.size() < this.batchSize && iterator.hasNext()) {
+            Map.Entry<String, W> entry = iterator.next();
+
+            // the write may have been replaced since we've encountered it in which case the
+            // replacement will be picked up by the next batch
+            if (this.pending.remove(entry.getKey(), entry.getValue())) {
+                this.size.decrementAndGet();
+                batch.add(entry.getValue());
+            }
+        }
+
+        return batch;
+    }
+
+    /**
+     * Stops the flushing thread and flushes all remaining writes.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+        this.flush();
+    }
+
+    @Nonnegative
+    public int getSize() {
+        return this.size.get();
+    }
+
+    @Nonnegative
+    public long getMergedCount() {
+        return this.merged.sum();
+    }
+
+    @Nonnegative
+    public long getDroppedCount() {
+        return this.dropped.sum();
+    }
+
+    @Nonnegative
+    public long getFlushedCount() {
+        return this.flushed.sum();
+    }
+
+    @Nonnegative
+    public long getFailureCount() {
+        return this.failures.sum();
+    }
+}
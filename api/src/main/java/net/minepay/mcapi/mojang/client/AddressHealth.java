@@ -0,0 +1,176 @@
+package net.minepay.mcapi.mojang.client;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Tracks the health of a local address based on the outcome of its recent requests.
+ *
+ * <strong>Implementation Notes:</strong> Failures (throttling, timeouts and unexpected errors) are
+ * tracked as an exponentially weighted moving average. Each consecutive throttling response
+ * doubles the period for which the address is withdrawn from rotation (up to a configured
+ * maximum) while a single successful request resets the back-off.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class AddressHealth {
+    private static final double SMOOTHING_FACTOR = 0.1;
+    private static final double MINIMUM_SCORE = 0.05;
+
+    private final long baseCooldown;
+    private final long maximumCooldown;
+    private final LongSupplier clock;
+
+    private final AtomicLong failureRate = new AtomicLong(Double.doubleToLongBits(0));
+    private final AtomicLong cooldownEnd;
+    private final AtomicInteger consecutiveThrottles = new AtomicInteger();
+
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder throttles = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public AddressHealth(@Nonnull Duration baseCooldown, @Nonnull Duration maximumCooldown) {
+        this(baseCooldown, maximumCooldown, System::nanoTime);
+    }
+
+    AddressHealth(@Nonnull Duration baseCooldown, @Nonnull Duration maximumCooldown, @Nonnull LongSupplier clock) {
+        this.baseCooldown = baseCooldown.toNanos();
+        this.maximumCooldown = maximumCooldown.toNanos();
+        this.clock = clock;
+        this.cooldownEnd = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Records a successful request.
+     */
+    public void recordSuccess() {
+        this.successes.increment();
+        this.consecutiveThrottles.set(0);
+        this.updateFailureRate(0);
+    }
+
+    /**
+     * Records a request which has been rejected due to an exceeded rate limit and withdraws the
+     * address from rotation for an exponentially growing period of time.
+     */
+    public void recordThrottle() {
+        this.throttles.increment();
+        this.updateFailureRate(1);
+
+        int exponent = Math.min(this.consecutiveThrottles.getAndIncrement(), 30);
+        long cooldown = Math.min(this.maximumCooldown, this.baseCooldown << exponent);
+
+        if (cooldown < 0) {
+            cooldown = this.maximumCooldown;
+        }
+
+        long end = this.clock.getAsLong() + cooldown;
+        this.cooldownEnd.accumulateAndGet(end, (a, b) -> (b - a > 0 ? b : a));
+    }
+
+    /**
+     * Records a request which did not complete within its configured timeout.
+     */
+    public void recordTimeout() {
+        this.timeouts.increment();
+        this.updateFailureRate(1);
+    }
+
+    /**
+     * Records a request which failed for any other reason.
+     */
+    public void recordError() {
+        this.errors.increment();
+        this.updateFailureRate(1);
+    }
+
+    /**
+     * Updates the moving failure rate with a new sample.
+     *
+     * @param sample a sample (0 for success, 1 for failure).
+     */
+    private void updateFailureRate(double sample) {
+        while (true) {
+            long current = this.failureRate.get();
+            double rate = Double.longBitsToDouble(current);
+            double updated = rate + SMOOTHING_FACTOR * (sample - rate);
+
+            if (this.failureRate.compareAndSet(current, Double.doubleToLongBits(updated))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the address is currently withdrawn from rotation.
+     *
+     * @return true if cooling down, false otherwise.
+     */
+    public boolean isCoolingDown() {
+        return this.cooldownEnd.get() - this.clock.getAsLong() > 0;
+    }
+
+    /**
+     * Retrieves the remaining cooldown period.
+     *
+     * @return a duration.
+     */
+    @Nonnull
+    public Duration getRemainingCooldown() {
+        return Duration.ofNanos(Math.max(0, this.cooldownEnd.get() - this.clock.getAsLong()));
+    }
+
+    /**
+     * Retrieves the smoothed failure rate of this address.
+     *
+     * @return a rate between 0 and 1.
+     */
+    @Nonnegative
+    public double getFailureRate() {
+        return Double.longBitsToDouble(this.failureRate.get());
+    }
+
+    /**
+     * Retrieves a health score which is used to weigh the remaining budget of this address.
+     *
+     * @return a score between 0 (unusable) and 1 (perfectly healthy).
+     */
+    @Nonnegative
+    public double getScore() {
+        if (this.isCoolingDown()) {
+            return 0;
+        }
+
+        // even unhealthy addresses need to receive the occasional request in order to recover
+        return Math.max(MINIMUM_SCORE, 1 - this.getFailureRate());
+    }
+
+    @Nonnegative
+    public long getSuccessCount() {
+        return this.successes.sum();
+    }
+
+    @Nonnegative
+    public long getThrottleCount() {
+        return this.throttles.sum();
+    }
+
+    @Nonnegative
+    public long getTimeoutCount() {
+        return this.timeouts.sum();
+    }
+
+    @Nonnegative
+    public long getErrorCount() {
+        return this.errors.sum();
+    }
+}
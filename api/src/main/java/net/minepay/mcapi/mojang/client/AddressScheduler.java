@@ -0,0 +1,141 @@
+package net.minepay.mcapi.mojang.client;
+
+import net.minepay.mcapi.mojang.client.error.RateLimitExceededException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Distributes upstream requests among a set of local addresses.
+ *
+ * <strong>Implementation Notes:</strong> Each request is scheduled to the address which currently
+ * has the largest amount of remaining tokens weighed by its health score while addresses which are
+ * cooling down after being throttled are skipped entirely. Scans start at a random offset in order
+ * to spread ties among all available addresses without introducing a shared counter.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class AddressScheduler {
+    private final PooledAddress[] addresses;
+
+    public AddressScheduler(@Nonnull List<PooledAddress> addresses) {
+        if (addresses.isEmpty()) {
+            throw new IllegalArgumentException("Invalid address list: At least one address is required");
+        }
+
+        this.addresses = addresses.toArray(new PooledAddress[addresses.size()]);
+    }
+
+    /**
+     * Acquires a single token from the address with the largest remaining budget.
+     *
+     * @return an address.
+     *
+     * @throws RateLimitExceededException when none of the addresses has any budget left.
+     */
+    @Nonnull
+    public PooledAddress acquire() throws RateLimitExceededException {
+        return this.acquire(Collections.emptySet());
+    }
+
+    /**
+     * Acquires a single token from the address with the largest remaining budget while skipping
+     * the specified set of addresses.
+     *
+     * @param excluded a set of excluded addresses.
+     * @return an address.
+     *
+     * @throws RateLimitExceededException when none of the eligible addresses has any budget left.
+     */
+    @Nonnull
+    public PooledAddress acquire(@Nonnull Set<PooledAddress> excluded) throws RateLimitExceededException {
+        // a failed acquisition indicates that a competing thread has drained the selected bucket
+        // between the scan and our attempt thus we'll simply re-evaluate all candidates
+        for (int attempt = 0; attempt <= this.addresses.length; ++attempt) {
+            PooledAddress candidate = this.select(excluded);
+
+            if (candidate == null) {
+                break;
+            }
+
+            if (candidate.tryAcquire()) {
+                return candidate;
+            }
+        }
+
+        throw new RateLimitExceededException();
+    }
+
+    /**
+     * Acquires a single token from the address with the largest remaining budget as long as that
+     * address retains more than the specified fraction of its capacity afterwards.
+     *
+     * @param excluded a set of excluded addresses.
+     * @param reserve  a fraction of the bucket capacity which shall not be spent.
+     * @return an address or, if none of the eligible addresses has any spare budget, null.
+     */
+    @Nullable
+    public PooledAddress acquireSpare(@Nonnull Set<PooledAddress> excluded, double reserve) {
+        PooledAddress candidate = this.select(excluded);
+
+        if (candidate == null) {
+            return null;
+        }
+
+        // spare requests are issued from the executor thus they may only consume leased tokens as
+        // a renewal would block it until Redis responds
+        if (candidate.getRemaining() <= candidate.getRateLimit() * reserve || !candidate.tryAcquire(false)) {
+            return null;
+        }
+
+        return candidate;
+    }
+
+    /**
+     * Selects the address with the largest remaining budget weighed by its health.
+     *
+     * @param excluded a set of excluded addresses.
+     * @return an address or, if all eligible buckets are empty, null.
+     */
+    @Nullable
+    private PooledAddress select(@Nonnull Set<PooledAddress> excluded) {
+        int offset = ThreadLocalRandom.current().nextInt(this.addresses.length);
+        PooledAddress candidate = null;
+        double candidateWeight = 0;
+
+        for (int i = 0; i < this.addresses.length; ++i) {
+            PooledAddress address = this.addresses[(offset + i) % this.addresses.length];
+
+            if (excluded.contains(address)) {
+                continue;
+            }
+
+            double weight = address.getRemaining() * address.getHealth().getScore();
+
+            if (weight > candidateWeight) {
+                candidate = address;
+                candidateWeight = weight;
+            }
+        }
+
+        return candidate;
+    }
+
+    /**
+     * Retrieves a list of all scheduled addresses.
+     *
+     * @return a list of addresses.
+     */
+    @Nonnull
+    public List<PooledAddress> getAddresses() {
+        return Collections.unmodifiableList(Arrays.asList(this.addresses));
+    }
+}
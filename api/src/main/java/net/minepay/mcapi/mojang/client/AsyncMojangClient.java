@@ -0,0 +1,93 @@
+package net.minepay.mcapi.mojang.client;
+
+import net.minepay.mcapi.mojang.Profile;
+import net.minepay.mcapi.mojang.ProfileName;
+import net.minepay.mcapi.mojang.ProfileNameChange;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Provides a non-blocking variant of {@link MojangClient}.
+ *
+ * <strong>Implementation Notes:</strong> Implementations are expected to be thread safe and must
+ * never block the calling thread while waiting for an upstream response. Futures complete with a
+ * null value where their blocking counterparts would return null and complete exceptionally where
+ * they would throw.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public interface AsyncMojangClient {
+
+    /**
+     * Attempts to find a profile for the specified Mojang profile identifier.
+     *
+     * @param identifier an identifier.
+     * @return a future which provides a profile or, if no such profile was found, null.
+     */
+    @Nonnull
+    CompletableFuture<Profile> findProfileAsync(@Nonnull String identifier);
+
+    /**
+     * Attempts to find a profile for the specified profile UUID.
+     *
+     * @param identifier a uuid.
+     * @return a future which provides a profile or, if no such profile was found, null.
+     */
+    @Nonnull
+    CompletableFuture<Profile> findProfileAsync(@Nonnull UUID identifier);
+
+    /**
+     * Attempts to find the profile identifier which corresponds to the specified display name at
+     * this time.
+     *
+     * @param name a name.
+     * @return a future which provides an identifier or, if no such name is registered, null.
+     */
+    @Nonnull
+    CompletableFuture<ProfileName> findIdentifierAsync(@Nonnull String name);
+
+    /**
+     * Attempts to find the profile identifier which corresponds to the specified display name at a
+     * specified point in time.
+     *
+     * @param name      a name.
+     * @param timestamp a timestamp.
+     * @return a future which provides an identifier or, if no such name is registered, null.
+     */
+    @Nonnull
+    CompletableFuture<ProfileName> findIdentifierAsync(@Nonnull String name, @Nonnull Instant timestamp);
+
+    /**
+     * Attempts to find the corresponding profile identifiers for the supplied list of names.
+     *
+     * @param names a name.
+     * @return a future which provides a list of profile names.
+     */
+    @Nonnull
+    CompletableFuture<List<ProfileName>> findIdentifierAsync(@Nonnull List<String> names);
+
+    /**
+     * Attempts to find the name history for a profile.
+     *
+     * @param identifier an identifier.
+     * @return a future which provides a list of name changes.
+     */
+    @Nonnull
+    CompletableFuture<List<ProfileNameChange>> getNameHistoryAsync(@Nonnull String identifier);
+
+    /**
+     * Attempts to find the name history for a profile.
+     *
+     * @param identifier an identifier.
+     * @return a future which provides a list of name changes.
+     */
+    @Nonnull
+    CompletableFuture<List<ProfileNameChange>> getNameHistoryAsync(@Nonnull UUID identifier);
+}
@@ -0,0 +1,291 @@
+package net.minepay.mcapi.mojang.client;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Enforces the rate limit of each address across all nodes which share it.
+ *
+ * <strong>Implementation Notes:</strong> Each address is tracked within a Redis hash which maps
+ * sections of a sliding window to the amount of requests which have been issued within them. A Lua
+ * script atomically drops expired sections, checks the remaining budget and grants a batch of
+ * tokens (a lease) to the requesting node while the node consumes its lease locally. Leases are
+ * only renewed while they are in use: Renewals of all busy leases which run low are periodically
+ * passed to a single invocation of the script (which also refunds the unused tokens of expired
+ * leases to their section) while idle leases are renewed on demand. The request counts of all
+ * addresses are flushed within a single pipeline thus the amount of Redis commands does not grow
+ * with the request rate.
+ * When Redis cannot be reached, leases are granted locally in order to keep serving requests (at
+ * which point each node falls back to enforcing the limit on its own).
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class ClusterRateLimiter {
+
+    /**
+     * Defines the amount of sections each window is divided into.
+     */
+    private static final int WINDOW_SECTIONS = 60;
+
+    /**
+     * Renews the leases of all passed keys.
+     *
+     * Keys: one rate limit hash per renewed lease.
+     * Arguments: window and section followed by the limit, requested amount of tokens, refunded
+     * section and refunded amount of tokens of each key.
+     * Returns: a flat list of granted and remaining tokens per key followed by the current section.
+     *
+     * The result type is only used to select the reply type thus the raw list class is cast to
+     * its parameterized form.
+     */
+    @SuppressWarnings("unchecked")
+    private static final DefaultRedisScript<List<Long>> SCRIPT = new DefaultRedisScript<>(
+            "if redis.replicate_commands then redis.replicate_commands() end\n" +
+            "local time = redis.call('TIME')\n" +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)\n" +
+            "local window = tonumber(ARGV[1])\n" +
+            "local section = tonumber(ARGV[2])\n" +
+            "local current = math.floor(now / section)\n" +
+            "local oldest = current - math.floor(window / section) + 1\n" +
+            "local results = {}\n" +
+            "for k = 1, #KEYS do\n" +
+            "  local limit = tonumber(ARGV[4 * k - 1])\n" +
+            "  local requested = tonumber(ARGV[4 * k])\n" +
+            "  local refundSection = tonumber(ARGV[4 * k + 1])\n" +
+            "  local refund = tonumber(ARGV[4 * k + 2])\n" +
+            "  if refund > 0 and refundSection >= oldest then\n" +
+            "    local charged = tonumber(redis.call('HGET', KEYS[k], ARGV[4 * k + 1]) or '0')\n" +
+            "    if refund >= charged then\n" +
+            "      redis.call('HDEL', KEYS[k], ARGV[4 * k + 1])\n" +
+            "    else\n" +
+            "      redis.call('HINCRBY', KEYS[k], ARGV[4 * k + 1], -refund)\n" +
+            "    end\n" +
+            "  end\n" +
+            "  local used = 0\n" +
+            "  local sections = redis.call('HGETALL', KEYS[k])\n" +
+            "  for i = 1, #sections, 2 do\n" +
+            "    if tonumber(sections[i]) < oldest then\n" +
+            "      redis.call('HDEL', KEYS[k], sections[i])\n" +
+            "    else\n" +
+            "      used = used + tonumber(sections[i + 1])\n" +
+            "    end\n" +
+            "  end\n" +
+            "  local granted = math.max(0, math.min(requested, limit - used))\n" +
+            "  if granted > 0 then\n" +
+            "    redis.call('HINCRBY', KEYS[k], current, granted)\n" +
+            "  end\n" +
+            "  redis.call('PEXPIRE', KEYS[k], window)\n" +
+            "  results[2 * k - 1] = granted\n" +
+            "  results[2 * k] = math.max(0, limit - used - granted)\n" +
+            "end\n" +
+            "results[2 * #KEYS + 1] = current\n" +
+            "return results\n", (Class<List<Long>>) (Class<?>) List.class);
+
+    private final RedisTemplate<String, Integer> redisTemplate;
+    private final int window;
+    private final int section;
+    private final int leaseSize;
+
+    private final LongAdder renewals = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * @param redisTemplate a template.
+     * @param window        the rate limit window.
+     * @param leaseSize     the amount of tokens to request per renewal.
+     */
+    public ClusterRateLimiter(@Nonnull RedisTemplate<String, Integer> redisTemplate, @Nonnull Duration window, @Nonnegative int leaseSize) {
+        this.redisTemplate = redisTemplate;
+        this.window = (int) window.toMillis();
+        this.section = Math.max(1000, this.window / WINDOW_SECTIONS);
+        this.leaseSize = Math.max(1, leaseSize);
+    }
+
+    /**
+     * Creates a new (initially empty) lease for the specified address.
+     *
+     * @param name  an address name.
+     * @param limit the maximum amount of requests within a single window.
+     * @return a lease.
+     */
+    @Nonnull
+    public RateLease createLease(@Nonnull String name, @Nonnegative int limit) {
+        return new RateLease(this, name, limit);
+    }
+
+    /**
+     * Renews all leases which have recently been used and are running low through a single script
+     * call, refunds the unused tokens of expired leases and reports the requests which have been
+     * issued through all passed leases since the last flush within a single pipeline.
+     *
+     * Idle leases are left to expire as they are renewed on demand once they are used again.
+     *
+     * @param leases a collection of leases.
+     */
+    public void flush(@Nonnull Collection<RateLease> leases) {
+        List<RateLease> renewed = new ArrayList<>();
+        List<Integer> requested = new ArrayList<>();
+        List<RateLease> reported = new ArrayList<>();
+        List<Long> requests = new ArrayList<>();
+
+        try {
+            leases.forEach((l) -> {
+                long count = l.drainRequests();
+
+                if (count != 0) {
+                    reported.add(l);
+                    requests.add(count);
+                }
+
+                boolean demand = count != 0 && l.getRemaining() <= this.leaseSize / 2;
+
+                if ((demand || l.getRefundSection() != -1) && l.tryLock()) {
+                    renewed.add(l);
+                    requested.add(demand ? this.leaseSize : 0);
+                }
+            });
+
+            if (!renewed.isEmpty()) {
+                this.renew(renewed, requested);
+            }
+        } finally {
+            renewed.forEach(RateLease::unlock);
+        }
+
+        if (!reported.isEmpty()) {
+            this.report(reported, requests);
+        }
+    }
+
+    /**
+     * Synchronously renews a single lease (for instance when it ran out of tokens while being
+     * used).
+     *
+     * The caller is expected to hold the lock of the passed lease.
+     *
+     * @param lease a lease.
+     */
+    void renew(@Nonnull RateLease lease) {
+        this.renew(Collections.singletonList(lease), Collections.singletonList(this.leaseSize));
+    }
+
+    /**
+     * Requests a fresh batch of tokens for each of the passed leases and refunds their expired
+     * tokens.
+     *
+     * Scripts cannot be evaluated within a pipeline thus all renewals are passed to a single
+     * invocation of the script instead.
+     *
+     * @param renewed   a list of locked leases.
+     * @param requested the amount of tokens to request per lease.
+     */
+    private void renew(@Nonnull List<RateLease> renewed, @Nonnull List<Integer> requested) {
+        long expiration = System.nanoTime() + Duration.ofMillis(this.section).toNanos();
+
+        List<String> keys = new ArrayList<>(renewed.size());
+        Object[] args = new Object[2 + renewed.size() * 4];
+        args[0] = this.window;
+        args[1] = this.section;
+
+        for (int i = 0; i < renewed.size(); ++i) {
+            RateLease lease = renewed.get(i);
+            int offset = 2 + i * 4;
+
+            keys.add("rate_limit:" + lease.getName());
+            args[offset] = lease.getLimit();
+            args[offset + 1] = requested.get(i);
+            args[offset + 2] = (int) lease.getRefundSection();
+            args[offset + 3] = lease.takeRefund();
+        }
+
+        List<Long> results;
+
+        try {
+            results = this.redisTemplate.execute(SCRIPT, keys, args);
+        } catch (RuntimeException ex) {
+            this.failures.increment();
+
+            for (int i = 0; i < renewed.size(); ++i) {
+                RateLease lease = renewed.get(i);
+
+                if (requested.get(i) != 0) {
+                    lease.grant(this.leaseSize, lease.getClusterRemaining(), -1, expiration);
+                }
+            }
+
+            return;
+        }
+
+        long section = results.get(results.size() - 1);
+
+        for (int i = 0; i < renewed.size(); ++i) {
+            if (requested.get(i) != 0) {
+                renewed.get(i).grant(results.get(i * 2).intValue(), results.get(i * 2 + 1).intValue(), section, expiration);
+                this.renewals.increment();
+            }
+        }
+    }
+
+    /**
+     * Adds the requests which have been issued through the passed leases to their respective
+     * address counters.
+     *
+     * @param reported a list of leases.
+     * @param requests the amount of requests per lease.
+     */
+    private void report(@Nonnull List<RateLease> reported, @Nonnull List<Long> requests) {
+        try {
+            this.redisTemplate.executePipelined((RedisCallback<Object>) (c) -> {
+                for (int i = 0; i < reported.size(); ++i) {
+                    byte[] key = encode("address:" + reported.get(i).getName());
+
+                    c.incrBy(key, requests.get(i));
+                    c.pExpire(key, this.window);
+                }
+
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            this.failures.increment();
+
+            for (int i = 0; i < reported.size(); ++i) {
+                reported.get(i).restoreRequests(requests.get(i));
+            }
+        }
+    }
+
+    /**
+     * Encodes a value for use within a raw Redis command.
+     *
+     * @param value a value.
+     * @return an encoded value.
+     */
+    @Nonnull
+    private static byte[] encode(@Nonnull Object value) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Nonnegative
+    public long getRenewalCount() {
+        return this.renewals.sum();
+    }
+
+    @Nonnegative
+    public long getFailureCount() {
+        return this.failures.sum();
+    }
+}
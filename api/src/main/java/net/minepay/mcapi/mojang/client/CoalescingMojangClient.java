@@ -0,0 +1,181 @@
+package net.minepay.mcapi.mojang.client;
+
+import net.minepay.mcapi.mojang.Profile;
+import net.minepay.mcapi.mojang.ProfileName;
+import net.minepay.mcapi.mojang.ProfileNameChange;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Provides a client which collapses concurrent lookups of the same profile, name or name history
+ * into a single upstream request.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@Primary
+@Component
+@ThreadSafe
+public class CoalescingMojangClient implements MojangClient, AsyncMojangClient, PublicMetrics {
+    private final PooledMojangClient client;
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+
+    @Autowired
+    public CoalescingMojangClient(@Nonnull PooledMojangClient client) {
+        this.client = client;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Profile> findProfileAsync(@Nonnull String identifier) {
+        return this.coalescer.execute("profile:" + identifier.toLowerCase(), () -> this.client.findProfileAsync(identifier));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<Profile> findProfileAsync(@Nonnull UUID identifier) {
+        return this.findProfileAsync(Profile.convertIdentifier(identifier));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<ProfileName> findIdentifierAsync(@Nonnull String name) {
+        return this.coalescer.execute("name:" + name.toLowerCase(), () -> this.client.findIdentifierAsync(name));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<ProfileName> findIdentifierAsync(@Nonnull String name, @Nonnull Instant timestamp) {
+        return this.coalescer.execute("name:" + timestamp.getEpochSecond() + ":" + name.toLowerCase(), () -> this.client.findIdentifierAsync(name, timestamp));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<ProfileName>> findIdentifierAsync(@Nonnull List<String> names) {
+        return this.client.findIdentifierAsync(names);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<ProfileNameChange>> getNameHistoryAsync(@Nonnull String identifier) {
+        return this.coalescer.execute("name_history:" + identifier.toLowerCase(), () -> this.client.getNameHistoryAsync(identifier));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<ProfileNameChange>> getNameHistoryAsync(@Nonnull UUID identifier) {
+        return this.getNameHistoryAsync(Profile.convertIdentifier(identifier));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public Profile findProfile(@Nonnull String identifier) throws IOException {
+        return Futures.await(this.findProfileAsync(identifier));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public Profile findProfile(@Nonnull UUID identifier) throws IOException {
+        return Futures.await(this.findProfileAsync(identifier));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public ProfileName findIdentifier(@Nonnull String name) throws IOException {
+        return Futures.await(this.findIdentifierAsync(name));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public ProfileName findIdentifier(@Nonnull String name, @Nonnull Instant timestamp) throws IOException {
+        return Futures.await(this.findIdentifierAsync(name, timestamp));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public List<ProfileName> findIdentifier(@Nonnull List<String> names) throws IOException {
+        return this.client.findIdentifier(names);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public List<ProfileNameChange> getNameHistory(@Nonnull String identifier) throws IOException {
+        return Futures.await(this.getNameHistoryAsync(identifier));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public List<ProfileNameChange> getNameHistory(@Nonnull UUID identifier) throws IOException {
+        return Futures.await(this.getNameHistoryAsync(identifier));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Collection<Metric<?>> metrics() {
+        Collection<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>("mojang.coalescer.executed", this.coalescer.getExecutedCount()));
+        metrics.add(new Metric<>("mojang.coalescer.collapsed", this.coalescer.getCollapsedCount()));
+        metrics.add(new Metric<>("mojang.coalescer.in-flight", this.coalescer.getInFlightCount()));
+        return metrics;
+    }
+}
@@ -0,0 +1,85 @@
+package net.minepay.mcapi.mojang.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Provides utility methods for bridging between blocking and non-blocking client code.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Waits for a future to complete and unwraps its result.
+     *
+     * @param future a future.
+     * @param <T>    a result type.
+     * @return a result.
+     *
+     * @throws IOException when the future completed exceptionally or the thread was interrupted.
+     */
+    @Nullable
+    public static <T> T await(@Nonnull CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+
+            throw new InterruptedIOException("Interrupted while awaiting upstream response");
+        } catch (ExecutionException ex) {
+            throw unwrap(ex.getCause());
+        }
+    }
+
+    /**
+     * Creates a future which has been completed exceptionally.
+     *
+     * @param cause a cause.
+     * @param <T>   a result type.
+     * @return a future.
+     */
+    @Nonnull
+    public static <T> CompletableFuture<T> failed(@Nonnull Throwable cause) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(cause);
+        return future;
+    }
+
+    /**
+     * Unwraps the actual cause of a failed future stage.
+     *
+     * @param cause a cause as reported by a future.
+     * @return an exception.
+     */
+    @Nonnull
+    public static IOException unwrap(@Nonnull Throwable cause) {
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+
+        return new IOException(cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,94 @@
+package net.minepay.mcapi.mojang.client;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Decides when a second (hedged) request should be issued for a certain type of endpoint.
+ *
+ * <strong>Implementation Notes:</strong> A hedged request is issued once the original request has
+ * been outstanding for longer than the configured latency percentile of its endpoint. Hedging is
+ * disabled for endpoints with a percentile of zero and whenever not enough samples have been
+ * collected yet.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class HedgingPolicy {
+    private final String name;
+    private final LatencyTracker latencyTracker;
+    private final int percentile;
+    private final long minimumDelay;
+
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder won = new LongAdder();
+
+    /**
+     * @param name           an endpoint name.
+     * @param latencyTracker a latency tracker for the endpoint.
+     * @param percentile     a latency percentile or zero to disable hedging.
+     * @param minimumDelay   a minimum delay (in nanoseconds).
+     */
+    public HedgingPolicy(@Nonnull String name, @Nonnull LatencyTracker latencyTracker, @Nonnegative int percentile, @Nonnegative long minimumDelay) {
+        this.name = name;
+        this.latencyTracker = latencyTracker;
+        this.percentile = percentile;
+        this.minimumDelay = minimumDelay;
+    }
+
+    /**
+     * Retrieves the delay after which an outstanding request is hedged.
+     *
+     * @return a delay (in nanoseconds) or, if no hedging shall take place, -1.
+     */
+    public long getDelay() {
+        if (this.percentile == 0) {
+            return -1;
+        }
+
+        long delay = this.latencyTracker.getPercentile(this.percentile);
+
+        if (delay == -1) {
+            return -1;
+        }
+
+        return Math.max(this.minimumDelay, delay);
+    }
+
+    /**
+     * Records a hedged request.
+     */
+    public void recordHedge() {
+        this.hedged.increment();
+    }
+
+    /**
+     * Records a hedged request which answered before the original request did.
+     */
+    public void recordWin() {
+        this.won.increment();
+    }
+
+    @Nonnull
+    public String getName() {
+        return this.name;
+    }
+
+    @Nonnull
+    public LatencyTracker getLatencyTracker() {
+        return this.latencyTracker;
+    }
+
+    @Nonnegative
+    public long getHedgedCount() {
+        return this.hedged.sum();
+    }
+
+    @Nonnegative
+    public long getWonCount() {
+        return this.won.sum();
+    }
+}
@@ -0,0 +1,150 @@
+package net.minepay.mcapi.mojang.client;
+
+import net.minepay.mcapi.mojang.ProfileName;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Collects single name lookups for a short period of time and resolves them through a single bulk
+ * request.
+ *
+ * <strong>Implementation Notes:</strong> Mojang charges a bulk request against the rate limit just
+ * like a single lookup which makes it significantly cheaper to resolve a batch of names at once
+ * when many lookups arrive at the same time. Batches are flushed as soon as they reach their
+ * maximum size or after the configured delay has passed, whichever happens first.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class IdentifierBatcher {
+    private final Function<List<String>, CompletableFuture<List<ProfileName>>> lookup;
+    private final ScheduledExecutorService executor;
+    private final long delay;
+    private final int batchSize;
+
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private Map<String, Entry> batch;
+
+    public IdentifierBatcher(@Nonnull Function<List<String>, CompletableFuture<List<ProfileName>>> lookup, @Nonnull ScheduledExecutorService executor, @Nonnegative long delay, @Nonnegative int batchSize) {
+        this.lookup = lookup;
+        this.executor = executor;
+        this.delay = delay;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Enqueues a name for resolution as part of the next batch.
+     *
+     * @param name a name.
+     * @return a future which provides an identifier or, if no such name is registered, null.
+     */
+    @Nonnull
+    public CompletableFuture<ProfileName> submit(@Nonnull String name) {
+        String key = name.toLowerCase();
+        Map<String, Entry> flushed = null;
+        CompletableFuture<ProfileName> future;
+
+        synchronized (this.lock) {
+            if (this.batch == null) {
+                Map<String, Entry> batch = this.batch = new LinkedHashMap<>();
+                this.executor.schedule(() -> this.flush(batch), this.delay, TimeUnit.MILLISECONDS);
+            }
+
+            Entry entry = this.batch.get(key);
+
+            if (entry == null) {
+                entry = new Entry(name);
+                this.batch.put(key, entry);
+            }
+
+            future = entry.future;
+
+            if (this.batch.size() >= this.batchSize) {
+                flushed = this.batch;
+                this.batch = null;
+            }
+        }
+
+        if (flushed != null) {
+            this.dispatch(flushed);
+        }
+
+        return future;
+    }
+
+    /**
+     * Flushes the specified batch unless it has already been flushed due to its size.
+     *
+     * @param batch a batch.
+     */
+    private void flush(@Nonnull Map<String, Entry> batch) {
+        synchronized (this.lock) {
+            if (this.batch != batch) {
+                return;
+            }
+
+            this.batch = null;
+        }
+
+        this.dispatch(batch);
+    }
+
+    /**
+     * Resolves a batch of names and passes the results on to their respective callers.
+     *
+     * @param batch a batch.
+     */
+    private void dispatch(@Nonnull Map<String, Entry> batch) {
+        List<String> names = new ArrayList<>(batch.size());
+        batch.values().forEach((e) -> names.add(e.name));
+
+        CompletableFuture<List<ProfileName>> future;
+        try {
+            future = this.lookup.apply(names);
+        } catch (RuntimeException ex) {
+            future = Futures.failed(ex);
+        }
+
+        future.whenComplete((r, ex) -> {
+            if (ex != null) {
+                batch.values().forEach((e) -> e.future.completeExceptionally(ex));
+                return;
+            }
+
+            // the bulk endpoint silently omits unknown names
+            Map<String, ProfileName> results = new HashMap<>();
+
+            if (r != null) {
+                r.forEach((n) -> results.put(n.getName().toLowerCase(), n));
+            }
+
+            batch.forEach((k, e) -> e.future.complete(results.get(k)));
+        });
+    }
+
+    /**
+     * Represents a pending lookup within a batch.
+     */
+    private static class Entry {
+        private final String name;
+        private final CompletableFuture<ProfileName> future = new CompletableFuture<>();
+
+        private Entry(@Nonnull String name) {
+            this.name = name;
+        }
+    }
+}
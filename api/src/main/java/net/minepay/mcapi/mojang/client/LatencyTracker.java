@@ -0,0 +1,105 @@
+package net.minepay.mcapi.mojang.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Tracks the latency distribution of upstream requests within a lock-free histogram.
+ *
+ * <strong>Implementation Notes:</strong> Buckets grow exponentially (four buckets per power of two
+ * starting at one millisecond) which bounds the error of reported percentiles to roughly 19%. Old
+ * samples lose their weight over time as all buckets are periodically halved via {@link
+ * #decay()}.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class LatencyTracker {
+    private static final int BUCKETS_PER_DOUBLING = 4;
+    private static final int BUCKET_COUNT = 18 * BUCKETS_PER_DOUBLING;
+    private static final long[] BOUNDS = new long[BUCKET_COUNT];
+
+    static {
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            BOUNDS[i] = (long) (TimeUnit.MILLISECONDS.toNanos(1) * Math.pow(2, (double) i / BUCKETS_PER_DOUBLING));
+        }
+    }
+
+    private final int minimumSamples;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    public LatencyTracker(@Nonnegative int minimumSamples) {
+        this.minimumSamples = minimumSamples;
+    }
+
+    /**
+     * Records a single sample.
+     *
+     * @param latency a latency (in nanoseconds).
+     */
+    public void record(@Nonnegative long latency) {
+        int low = 0;
+        int high = BUCKET_COUNT - 1;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (BOUNDS[middle] < latency) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        this.counts.incrementAndGet(low);
+    }
+
+    /**
+     * Retrieves the upper bound of the specified percentile.
+     *
+     * @param percentile a percentile (between 1 and 100).
+     * @return a latency (in nanoseconds) or, if not enough samples have been recorded yet, -1.
+     */
+    public long getPercentile(@Nonnegative int percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            snapshot[i] = this.counts.get(i);
+            total += snapshot[i];
+        }
+
+        if (total == 0 || total < this.minimumSamples) {
+            return -1;
+        }
+
+        long target = (total * percentile + 99) / 100;
+        long cumulative = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            cumulative += snapshot[i];
+
+            if (cumulative >= target) {
+                return BOUNDS[i];
+            }
+        }
+
+        return BOUNDS[BUCKET_COUNT - 1];
+    }
+
+    /**
+     * Halves the weight of all previously recorded samples.
+     */
+    public void decay() {
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            long current;
+
+            do {
+                current = this.counts.get(i);
+            } while (!this.counts.compareAndSet(i, current, current >> 1));
+        }
+    }
+}
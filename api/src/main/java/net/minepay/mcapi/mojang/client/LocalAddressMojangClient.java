@@ -1,5 +1,6 @@
 package net.minepay.mcapi.mojang.client;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
@@ -10,25 +11,30 @@ import net.minepay.mcapi.mojang.ProfileName;
 import net.minepay.mcapi.mojang.ProfileNameChange;
 import net.minepay.mcapi.mojang.client.error.InterfaceException;
 import net.minepay.mcapi.mojang.client.error.RateLimitExceededException;
+import net.minepay.mcapi.mojang.json.MojangModule;
 
 import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
+import org.apache.http.conn.ConnectTimeoutException;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.client.HttpAsyncClient;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.SocketTimeoutException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
-import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
@@ -37,11 +43,15 @@ import javax.annotation.concurrent.ThreadSafe;
 /**
  * Provides a Mojang client for a specific local IP address.
  *
+ * <strong>Implementation Notes:</strong> All requests are executed on a non-blocking HTTP engine
+ * while the blocking methods of this client merely await the result of their respective
+ * asynchronous counterparts.
+ *
  * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
  */
 @Immutable
 @ThreadSafe
-public class LocalAddressMojangClient implements MojangClient {
+public class LocalAddressMojangClient implements MojangClient, AsyncMojangClient {
     private static final ObjectReader reader;
     private static final ObjectWriter writer;
 
@@ -49,6 +59,7 @@ public class LocalAddressMojangClient implements MojangClient {
         {
             ObjectMapper mapper = new ObjectMapper();
             mapper.findAndRegisterModules();
+            mapper.registerModule(new MojangModule());
             mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
             reader = mapper.reader();
@@ -57,135 +68,161 @@ public class LocalAddressMojangClient implements MojangClient {
     }
 
     private final PooledAddress address;
-    private final HttpClient client;
+    private final HttpAsyncClient client;
+    private final RequestConfig requestConfig;
+
+    public LocalAddressMojangClient(@Nonnull HttpAsyncClient client, @Nonnull PooledAddress address) {
+        this(client, address, RequestConfig.DEFAULT);
+    }
 
-    public LocalAddressMojangClient(@Nonnull HttpClient client, @Nonnull PooledAddress address) {
+    public LocalAddressMojangClient(@Nonnull HttpAsyncClient client, @Nonnull PooledAddress address, @Nonnull RequestConfig requestConfig) {
         this.client = client;
         this.address = address;
+
+        this.requestConfig = RequestConfig.copy(requestConfig)
+                .setLocalAddress(address.getDeviceAddress())
+                .setRedirectsEnabled(false)
+                .build();
     }
 
     /**
-     * Executes an HTTP request.
+     * Executes an HTTP request and decodes its response.
      *
-     * @param request a request.
-     * @return a response.
+     * The outcome of each request is reported to the health tracker of the backing address.
      *
-     * @throws IOException when an error occurs while connecting, writing or reading.
+     * @param request a request.
+     * @param reader  a reader for the expected response type.
+     * @param <T>     a response type.
+     * @return a future which provides the decoded response or, if the API reported no content,
+     * null.
      */
-    @Nullable
-    public HttpResponse execute(@Nonnull HttpRequestBase request) throws IOException {
-        request.setConfig(RequestConfig.custom().setLocalAddress(this.address.getDeviceAddress()).build());
-        HttpResponse response = this.client.execute(request);
-
-        switch (response.getStatusLine().getStatusCode()) {
-            case 200:
-                return response;
-            case 204:
-                return null;
-            case 429:
-                throw new RateLimitExceededException();
-            default:
-                throw new InterfaceException("Encountered unexpected status code " + response.getStatusLine().getStatusCode() + " while attempting to parse API response");
-        }
+    @Nonnull
+    public <T> CompletableFuture<T> execute(@Nonnull HttpRequestBase request, @Nonnull ObjectReader reader) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        AddressHealth health = this.address.getHealth();
+        request.setConfig(this.requestConfig);
+
+        this.client.execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(@Nonnull HttpResponse response) {
+                try {
+                    switch (response.getStatusLine().getStatusCode()) {
+                        case 200:
+                            health.recordSuccess();
+
+                            try (InputStream inputStream = response.getEntity().getContent()) {
+                                future.complete(reader.readValue(inputStream));
+                            }
+                            break;
+                        case 204:
+                            health.recordSuccess();
+                            future.complete(null);
+                            break;
+                        case 429:
+                            health.recordThrottle();
+                            throw new RateLimitExceededException();
+                        default:
+                            health.recordError();
+                            throw new InterfaceException("Encountered unexpected status code " + response.getStatusLine().getStatusCode() + " while attempting to parse API response");
+                    }
+                } catch (IOException | RuntimeException ex) {
+                    future.completeExceptionally(ex);
+                }
+            }
+
+            @Override
+            public void failed(@Nonnull Exception ex) {
+                if (ex instanceof SocketTimeoutException || ex instanceof ConnectTimeoutException) {
+                    health.recordTimeout();
+                } else {
+                    health.recordError();
+                }
+
+                future.completeExceptionally(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel(false);
+            }
+        });
+
+        return future;
     }
 
     /**
      * {@inheritDoc}
      */
-    @Nullable
+    @Nonnull
     @Override
-    public Profile findProfile(@Nonnull String identifier) throws IOException {
-        this.updateRequestCount();
-
+    public CompletableFuture<Profile> findProfileAsync(@Nonnull String identifier) {
         HttpGet request = new HttpGet("https://sessionserver.mojang.com/session/minecraft/profile/" + identifier + "?unsigned=false");
-        HttpResponse response = this.execute(request);
-
-        if (response == null) {
-            return null;
-        }
-
-        try (InputStream inputStream = response.getEntity().getContent()) {
-            return reader.forType(Profile.class).readValue(inputStream);
-        }
+        return this.execute(request, reader.forType(Profile.class));
     }
 
     /**
      * {@inheritDoc}
      */
-    @Nullable
+    @Nonnull
     @Override
-    public Profile findProfile(@Nonnull UUID identifier) throws IOException {
-        return this.findProfile(Profile.convertIdentifier(identifier));
+    public CompletableFuture<Profile> findProfileAsync(@Nonnull UUID identifier) {
+        return this.findProfileAsync(Profile.convertIdentifier(identifier));
     }
 
     /**
      * {@inheritDoc}
      */
-    @Nullable
+    @Nonnull
     @Override
-    public ProfileName findIdentifier(@Nonnull String name) throws IOException {
-        this.updateRequestCount();
-
-        HttpGet request = new HttpGet("https://api.mojang.com/users/profiles/minecraft/" + URLEncoder.encode(name, "UTF-8"));
-        HttpResponse response = this.execute(request);
-
-        if (response == null) {
-            return null;
-        }
-
-        try (InputStream inputStream = response.getEntity().getContent()) {
-            return reader.forType(ProfileName.class).readValue(inputStream);
-        }
+    public CompletableFuture<ProfileName> findIdentifierAsync(@Nonnull String name) {
+        HttpGet request = new HttpGet("https://api.mojang.com/users/profiles/minecraft/" + encode(name));
+        return this.execute(request, reader.forType(ProfileName.class));
     }
 
     /**
      * {@inheritDoc}
      */
-    @Nullable
+    @Nonnull
     @Override
-    public ProfileName findIdentifier(@Nonnull String name, @Nonnull Instant timestamp) throws IOException {
-        this.updateRequestCount();
-
-        HttpGet request = new HttpGet("https://api.mojang.com/users/profiles/minecraft/" + URLEncoder.encode(name, "UTF-8") + "?at=" + timestamp.getEpochSecond());
-        HttpResponse response = this.execute(request);
-
-        if (response == null) {
-            return null;
-        }
-
-        try (InputStream inputStream = response.getEntity().getContent()) {
-            return reader.forType(ProfileName.class).readValue(inputStream);
-        }
+    public CompletableFuture<ProfileName> findIdentifierAsync(@Nonnull String name, @Nonnull Instant timestamp) {
+        HttpGet request = new HttpGet("https://api.mojang.com/users/profiles/minecraft/" + encode(name) + "?at=" + timestamp.getEpochSecond());
+        return this.execute(request, reader.forType(ProfileName.class));
     }
 
     /**
      * {@inheritDoc}
      */
-    @Nullable
+    @Nonnull
     @Override
-    public List<ProfileName> findIdentifier(@Nonnull List<String> names) throws IOException {
-        this.updateRequestCount();
-
+    public CompletableFuture<List<ProfileName>> findIdentifierAsync(@Nonnull List<String> names) {
         HttpPost request = new HttpPost("https://api.mojang.com/profiles/minecraft");
-        {
-            BasicHttpEntity entity = new BasicHttpEntity();
 
-            ByteArrayInputStream inputStream = new ByteArrayInputStream(writer.writeValueAsString(names).getBytes(StandardCharsets.UTF_8));
-            entity.setContent(inputStream);
-            entity.setContentType("application/json;Charset=UTF-8");
-
-            request.setEntity(entity);
+        try {
+            request.setEntity(new ByteArrayEntity(writer.writeValueAsBytes(names), ContentType.APPLICATION_JSON));
+        } catch (JsonProcessingException ex) {
+            return Futures.failed(ex);
         }
 
-        HttpResponse response = this.execute(request);
+        return this.execute(request, reader.forType(reader.getTypeFactory().constructCollectionType(List.class, ProfileName.class)));
+    }
 
-        if (response == null) {
-            return null;
-        }
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<ProfileNameChange>> getNameHistoryAsync(@Nonnull String identifier) {
+        HttpGet request = new HttpGet("https://api.mojang.com/user/profiles/" + identifier + "/names");
+        return this.execute(request, reader.forType(reader.getTypeFactory().constructCollectionType(List.class, ProfileNameChange.class)));
+    }
 
-        try (InputStream inputStream = response.getEntity().getContent()) {
-            return reader.forType(reader.getTypeFactory().constructCollectionType(List.class, ProfileName.class)).readValue(inputStream);
-        }
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<ProfileNameChange>> getNameHistoryAsync(@Nonnull UUID identifier) {
+        return this.getNameHistoryAsync(Profile.convertIdentifier(identifier));
     }
 
     /**
@@ -193,19 +230,17 @@ public class LocalAddressMojangClient implements MojangClient {
      */
     @Nullable
     @Override
-    public List<ProfileNameChange> getNameHistory(@Nonnull String identifier) throws IOException {
-        this.updateRequestCount();
-
-        HttpGet request = new HttpGet("https://api.mojang.com/user/profiles/" + identifier + "/names");
-        HttpResponse response = this.execute(request);
-
-        if (response == null) {
-            return null;
-        }
+    public Profile findProfile(@Nonnull String identifier) throws IOException {
+        return Futures.await(this.findProfileAsync(identifier));
+    }
 
-        try (InputStream inputStream = response.getEntity().getContent()) {
-            return reader.forType(reader.getTypeFactory().constructCollectionType(List.class, ProfileNameChange.class)).readValue(inputStream);
-        }
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public Profile findProfile(@Nonnull UUID identifier) throws IOException {
+        return Futures.await(this.findProfileAsync(identifier));
     }
 
     /**
@@ -213,60 +248,68 @@ public class LocalAddressMojangClient implements MojangClient {
      */
     @Nullable
     @Override
-    public List<ProfileNameChange> getNameHistory(@Nonnull UUID identifier) throws IOException {
-        return this.getNameHistory(Profile.convertIdentifier(identifier));
+    public ProfileName findIdentifier(@Nonnull String name) throws IOException {
+        return Futures.await(this.findIdentifierAsync(name));
     }
 
     /**
-     * Checks whether the client has exceeded the configured rate limitation.
-     *
-     * @return true if exceeded, false otherwise.
+     * {@inheritDoc}
      */
-    boolean hasExceededRateLimitation() {
-        return this.address.getRequestCount().get() > this.address.getRateLimit();
+    @Nullable
+    @Override
+    public ProfileName findIdentifier(@Nonnull String name, @Nonnull Instant timestamp) throws IOException {
+        return Futures.await(this.findIdentifierAsync(name, timestamp));
     }
 
     /**
-     * Retrieves the address which will be utilized for queries.
-     *
-     * @return an address.
+     * {@inheritDoc}
      */
-    @Nonnull
-    public PooledAddress getAddress() {
-        return this.address;
+    @Nullable
+    @Override
+    public List<ProfileName> findIdentifier(@Nonnull List<String> names) throws IOException {
+        return Futures.await(this.findIdentifierAsync(names));
     }
 
     /**
-     * Retrieves the overall rate limitation for this client.
-     *
-     * @return a rate limit.
+     * {@inheritDoc}
      */
-    @Nonnegative
-    int getRateLimitation() {
-        return this.address.getRateLimit();
+    @Nullable
+    @Override
+    public List<ProfileNameChange> getNameHistory(@Nonnull String identifier) throws IOException {
+        return Futures.await(this.getNameHistoryAsync(identifier));
     }
 
     /**
-     * Retrieves the current rate limit usage for this client.
-     *
-     * @return a rate limit.
+     * {@inheritDoc}
      */
-    @Nonnegative
-    int getRequestCount() {
-        return this.address.getRequestCount().get();
+    @Nullable
+    @Override
+    public List<ProfileNameChange> getNameHistory(@Nonnull UUID identifier) throws IOException {
+        return Futures.await(this.getNameHistoryAsync(identifier));
     }
 
     /**
-     * Resets the rate limitation.
+     * URL encodes a display name.
+     *
+     * @param name a name.
+     * @return an encoded name.
      */
-    public void resetRateLimit() {
-        this.address.getRequestCount().reset();
+    @Nonnull
+    private static String encode(@Nonnull String name) {
+        try {
+            return URLEncoder.encode(name, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException("UTF-8 is not supported by this VM", ex);
+        }
     }
 
     /**
-     * Updates the request counter.
+     * Retrieves the address which will be utilized for queries.
+     *
+     * @return an address.
      */
-    private void updateRequestCount() {
-        this.address.getRequestCount().increment();
+    @Nonnull
+    public PooledAddress getAddress() {
+        return this.address;
     }
 }
@@ -1,6 +1,7 @@
 package net.minepay.mcapi.mojang.client;
 
 import java.net.InetAddress;
+import java.time.Duration;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -14,13 +15,67 @@ import javax.annotation.concurrent.ThreadSafe;
 @ThreadSafe
 public class PooledAddress {
     private final InetAddress deviceAddress;
-    private final CachingRedisInteger requestCount;
     private final int rateLimit;
+    private final TokenBucket bucket;
+    private final RateLease lease;
+    private final AddressHealth health;
 
-    public PooledAddress(@Nonnull InetAddress deviceAddress, @Nonnull CachingRedisInteger requestCount, @Nonnegative int rateLimit) {
+    public PooledAddress(@Nonnull InetAddress deviceAddress, @Nonnegative int rateLimit, @Nonnull Duration rateLimitWindow, @Nonnull RateLease lease, @Nonnull AddressHealth health) {
         this.deviceAddress = deviceAddress;
-        this.requestCount = requestCount;
         this.rateLimit = rateLimit;
+        this.lease = lease;
+        this.health = health;
+        this.bucket = new TokenBucket(rateLimit, rateLimitWindow);
+    }
+
+    /**
+     * Attempts to consume a single token from the cluster-wide lease as well as the local bucket
+     * of this address.
+     *
+     * When the lease has run out of tokens while the local bucket still permits requests, the
+     * lease is renewed on demand (which requires a round trip to the cluster).
+     *
+     * @return true if a token has been consumed, false if either budget is exhausted.
+     */
+    public boolean tryAcquire() {
+        return this.tryAcquire(true);
+    }
+
+    /**
+     * Attempts to consume a single token from the cluster-wide lease as well as the local bucket
+     * of this address.
+     *
+     * @param renew true if an empty lease shall be renewed on demand, false if only the tokens
+     *              which have already been leased may be consumed.
+     * @return true if a token has been consumed, false if either budget is exhausted.
+     */
+    public boolean tryAcquire(boolean renew) {
+        if (!this.lease.tryAcquire()) {
+            if (!renew || this.bucket.getRemaining() == 0 || !this.lease.renew() || !this.lease.tryAcquire()) {
+                return false;
+            }
+        }
+
+        if (this.bucket.tryAcquire()) {
+            return true;
+        }
+
+        this.lease.release();
+        return false;
+    }
+
+    /**
+     * Retrieves an estimate of the amount of requests which may currently be issued through this
+     * address.
+     *
+     * Empty leases are renewed on demand thus their remaining cluster-wide budget is reported
+     * instead.
+     *
+     * @return an amount of tokens.
+     */
+    @Nonnegative
+    public int getRemaining() {
+        return Math.min(this.bucket.getRemaining(), this.lease.getRemaining() + this.lease.getClusterRemaining());
     }
 
     @Nonnull
@@ -29,12 +84,22 @@ public class PooledAddress {
     }
 
     @Nonnull
-    public CachingRedisInteger getRequestCount() {
-        return this.requestCount;
+    public RateLease getLease() {
+        return this.lease;
     }
 
     @Nonnegative
     public int getRateLimit() {
         return this.rateLimit;
     }
+
+    @Nonnull
+    public TokenBucket getBucket() {
+        return this.bucket;
+    }
+
+    @Nonnull
+    public AddressHealth getHealth() {
+        return this.health;
+    }
 }
@@ -2,301 +2,687 @@ package net.minepay.mcapi.mojang.client;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import net.minepay.mcapi.configuration.ClientConfiguration;
 import net.minepay.mcapi.mojang.Profile;
 import net.minepay.mcapi.mojang.ProfileName;
 import net.minepay.mcapi.mojang.ProfileNameChange;
+import net.minepay.mcapi.mojang.client.error.RateLimitExceededException;
 
-import org.apache.commons.pool2.BasePooledObjectFactory;
-import org.apache.commons.pool2.ObjectPool;
-import org.apache.commons.pool2.PooledObject;
-import org.apache.commons.pool2.impl.DefaultPooledObject;
-import org.apache.commons.pool2.impl.GenericObjectPool;
-import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
-import org.apache.http.client.HttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.task.TaskExecutor;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetAddress;
+import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 import javax.annotation.concurrent.Immutable;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
+ * Distributes requests among all configured local addresses based on their remaining rate limit
+ * budget.
+ *
  * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
  */
 @Component
 @Immutable
 @ThreadSafe
-public class PooledMojangClient implements MojangClient {
-    private final ObjectPool<LocalAddressMojangClient> clientObjectPool;
+public class PooledMojangClient implements MojangClient, AsyncMojangClient, PublicMetrics {
+    private static final String USER_AGENT;
+
+    /**
+     * Defines the maximum amount of names Mojang permits within a single bulk request.
+     */
+    private static final int BULK_REQUEST_LIMIT = 10;
+
+    /**
+     * Defines the amount of samples an endpoint needs to collect before it is hedged.
+     */
+    private static final int HEDGE_MINIMUM_SAMPLES = 100;
+
+    /**
+     * Defines the interval (in seconds) at which old latency samples lose half of their weight.
+     */
+    private static final int LATENCY_DECAY_INTERVAL = 60;
+
+    static {
+        Package p = LocalAddressMojangClient.class.getPackage();
+
+        String name = p.getImplementationTitle();
+        String version = p.getImplementationVersion();
+        String vendor = p.getImplementationVendor();
+
+        if (name == null) {
+            name = "MCAPI";
+        }
+
+        if (version == null) {
+            version = "0.0.0-SNAPSHOT";
+        }
+
+        if (vendor == null) {
+            vendor = "Minepay";
+        }
+
+        USER_AGENT = String.format("%s/%s (+%s)", name, version, vendor);
+    }
+
+    private final CloseableHttpAsyncClient httpClient;
+    private final ScheduledExecutorService executor;
+    private final ScheduledExecutorService rateLimitExecutor;
+    private final ClusterRateLimiter rateLimiter;
+    private final List<RateLease> leases;
+    private final AddressScheduler scheduler;
+    private final Map<PooledAddress, LocalAddressMojangClient> clients;
+    private final IdentifierBatcher batcher;
+    private final RetryBudget retryBudget;
+    private final int retryAttempts;
+    private final long retryTimeout;
+    private final HedgingPolicy profileHedging;
+    private final HedgingPolicy nameHedging;
+    private final HedgingPolicy historyHedging;
+    private final double hedgeReserve;
 
     @Autowired
-    public PooledMojangClient(@Nonnull RedisTemplate<String, Integer> rateLimitRedisTemplate, @Nonnull TaskExecutor taskExecutor) throws IOException {
+    public PooledMojangClient(@Nonnull ClientConfiguration configuration, @Nonnull RedisTemplate<String, Integer> rateLimitRedisTemplate) throws IOException {
         try (InputStream inputStream = new FileInputStream(Paths.get("addresses.json").toFile())) {
             ObjectMapper mapper = new ObjectMapper();
             mapper.findAndRegisterModules();
             Map<String, Integer> addresses = mapper.readerFor(mapper.getTypeFactory().constructMapType(Map.class, String.class, Integer.class)).readValue(inputStream);
 
-            List<PooledAddress> clients = new ArrayList<>();
+            Duration window = Duration.ofSeconds(configuration.getRateLimitWindow());
+            Duration cooldown = Duration.ofSeconds(configuration.getCooldownTime());
+            Duration maximumCooldown = Duration.ofSeconds(configuration.getMaximumCooldownTime());
+            this.rateLimiter = new ClusterRateLimiter(rateLimitRedisTemplate, window, configuration.getRateLimitLease());
+
+            List<PooledAddress> pooledAddresses = new ArrayList<>();
             addresses.forEach((a, l) -> {
                 try {
                     if (a.contains("-")) {
-                        (new AddressRange(a)).forEach((addr) -> clients.add(new PooledAddress(addr, new CachingRedisInteger("address:" + addr.getHostAddress(), rateLimitRedisTemplate, taskExecutor), l)));
+                        (new AddressRange(a)).forEach((addr) -> pooledAddresses.add(new PooledAddress(addr, l, window, this.rateLimiter.createLease(addr.getHostAddress(), l), new AddressHealth(cooldown, maximumCooldown))));
                     } else {
-                        clients.add(new PooledAddress(InetAddress.getByName(a), new CachingRedisInteger("address:" + a, rateLimitRedisTemplate, taskExecutor), l));
+                        InetAddress addr = InetAddress.getByName(a);
+                        pooledAddresses.add(new PooledAddress(addr, l, window, this.rateLimiter.createLease(addr.getHostAddress(), l), new AddressHealth(cooldown, maximumCooldown)));
                     }
                 } catch (UnknownHostException ex) {
                     throw new IllegalArgumentException("Could not bind to local address: " + ex.getMessage(), ex);
                 }
             });
 
-            GenericObjectPoolConfig config = new GenericObjectPoolConfig();
-            config.setMinIdle(12);
-            config.setMaxIdle(24);
-            config.setMaxTotal(48);
-            config.setBlockWhenExhausted(false);
-            config.setMinEvictableIdleTimeMillis(1000);
-            config.setTestOnCreate(false);
-            config.setTestWhileIdle(false);
-            config.setTestOnReturn(true);
-            config.setTestOnBorrow(true);
-
-            this.clientObjectPool = new GenericObjectPool<>(new ClientPooledObjectFactory(clients), config);
+            // leases are acquired on demand once an address is first used thus idle addresses do
+            // not consume any of the cluster-wide budget
+            this.leases = pooledAddresses.stream().map(PooledAddress::getLease).collect(Collectors.toList());
+
+            this.httpClient = createHttpClient(pooledAddresses.size());
+            this.httpClient.start();
+
+            RequestConfig requestConfig = RequestConfig.custom()
+                    .setConnectTimeout(configuration.getConnectTimeout())
+                    .setSocketTimeout(configuration.getSocketTimeout())
+                    .build();
+
+            Map<PooledAddress, LocalAddressMojangClient> clients = new IdentityHashMap<>();
+            pooledAddresses.forEach((a) -> clients.put(a, new LocalAddressMojangClient(this.httpClient, a, requestConfig)));
+
+            this.scheduler = new AddressScheduler(pooledAddresses);
+            this.clients = Collections.unmodifiableMap(clients);
+        }
+
+        {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("mojang-client-");
+            threadFactory.setDaemon(true);
+
+            this.executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        }
+
+        {
+            // flushes block on a Redis round trip thus they are kept away from the executor which
+            // drives hedges and batch deadlines
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("mojang-rate-limit-");
+            threadFactory.setDaemon(true);
+
+            this.rateLimitExecutor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        }
+
+        this.retryBudget = new RetryBudget(configuration.getRetryRatio(), configuration.getRetryCapacity());
+        this.retryAttempts = Math.max(1, configuration.getRetryAttempts());
+        this.retryTimeout = Duration.ofMillis(configuration.getRetryTimeout()).toNanos();
+
+        {
+            long minimumDelay = Duration.ofMillis(configuration.getHedgeMinimumDelay()).toNanos();
+
+            this.profileHedging = new HedgingPolicy("profile", new LatencyTracker(HEDGE_MINIMUM_SAMPLES), configuration.getProfileHedgePercentile(), minimumDelay);
+            this.nameHedging = new HedgingPolicy("name", new LatencyTracker(HEDGE_MINIMUM_SAMPLES), configuration.getNameHedgePercentile(), minimumDelay);
+            this.historyHedging = new HedgingPolicy("history", new LatencyTracker(HEDGE_MINIMUM_SAMPLES), configuration.getHistoryHedgePercentile(), minimumDelay);
+            this.hedgeReserve = Math.min(100, configuration.getHedgeReserve()) / 100.0;
+
+            this.executor.scheduleAtFixedRate(() -> {
+                this.profileHedging.getLatencyTracker().decay();
+                this.nameHedging.getLatencyTracker().decay();
+                this.historyHedging.getLatencyTracker().decay();
+            }, LATENCY_DECAY_INTERVAL, LATENCY_DECAY_INTERVAL, TimeUnit.SECONDS);
+        }
+
+        {
+            long flushInterval = Math.max(1, configuration.getRateLimitFlushInterval());
+
+            this.rateLimitExecutor.scheduleWithFixedDelay(() -> {
+                try {
+                    this.rateLimiter.flush(this.leases);
+                } catch (RuntimeException ignore) {
+                    // failures are accounted for by the limiter and a periodic task must not die
+                }
+            }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        }
+
+        if (configuration.getBatchDelay() != 0 && configuration.getBatchSize() > 1) {
+            this.batcher = new IdentifierBatcher((n) -> this.findIdentifierAsync(n), this.executor, configuration.getBatchDelay(), configuration.getBatchSize());
+        } else {
+            this.batcher = null;
         }
     }
 
     /**
-     * {@inheritDoc}
+     * Creates a shared non-blocking HTTP client for all local addresses.
+     *
+     * @param addressCount the amount of local addresses.
+     * @return a client.
      */
-    @Nullable
-    @Override
-    public Profile findProfile(@Nonnull String identifier) throws IOException {
-        try {
-            LocalAddressMojangClient client = this.clientObjectPool.borrowObject();
+    @Nonnull
+    private static CloseableHttpAsyncClient createHttpClient(int addressCount) {
+        // routes are distinguished by their local address thus the overall amount of cached
+        // connections needs to grow with the amount of addresses (we're talking to two hosts)
+        return HttpAsyncClientBuilder.create()
+                .disableAuthCaching()
+                .disableCookieManagement()
+                .setMaxConnPerRoute(12) // Maximum amount of cached connections per route
+                .setMaxConnTotal(Math.max(128, addressCount * 2 * 12)) // Maximum amount of cached connections
+                .setUserAgent(USER_AGENT)
+                .build();
+    }
 
-            try {
-                return client.findProfile(identifier);
-            } finally {
-                this.clientObjectPool.returnObject(client);
-            }
-        } catch (Exception ex) {
-            throw new IOException("Could not borrow/return client from/to pool: " + ex.getMessage(), ex);
-        }
+    /**
+     * Shuts down the backing HTTP client and its I/O reactor.
+     *
+     * @throws IOException when closing the client fails.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        this.executor.shutdownNow();
+        this.rateLimitExecutor.shutdownNow();
+        this.httpClient.close();
     }
 
     /**
-     * {@inheritDoc}
+     * Retrieves a client for the address with the largest remaining rate limit budget.
+     *
+     * @return a client.
+     *
+     * @throws IOException when none of the addresses has any budget left.
      */
-    @Nullable
-    @Override
-    public Profile findProfile(@Nonnull UUID identifier) throws IOException {
-        try {
-            LocalAddressMojangClient client = this.clientObjectPool.borrowObject();
+    @Nonnull
+    private LocalAddressMojangClient acquireClient() throws IOException {
+        return this.clients.get(this.scheduler.acquire());
+    }
+
+    /**
+     * Retrieves a client for the address with the largest remaining rate limit budget while
+     * skipping all addresses within the specified set.
+     *
+     * @param excluded a set of excluded addresses.
+     * @return a client.
+     *
+     * @throws IOException when none of the eligible addresses has any budget left.
+     */
+    @Nonnull
+    private LocalAddressMojangClient acquireClient(@Nonnull Set<PooledAddress> excluded) throws IOException {
+        return this.clients.get(this.scheduler.acquire(excluded));
+    }
 
+    /**
+     * Dispatches a non-blocking request to the address with the largest remaining rate limit
+     * budget while avoiding the specified set of addresses where possible.
+     *
+     * Requests which are throttled or time out are transparently retried on a different address
+     * as long as the configured amount of attempts, the time budget and the global retry budget
+     * permit it.
+     *
+     * @param avoided a set of addresses to avoid (all attempted addresses are added to this set
+     *                thus it needs to be safe for concurrent use).
+     * @param request a request.
+     * @param <T>     a response type.
+     * @return a future.
+     */
+    @Nonnull
+    private <T> CompletableFuture<T> dispatch(@Nonnull Set<PooledAddress> avoided, @Nonnull Function<LocalAddressMojangClient, CompletableFuture<T>> request) {
+        LocalAddressMojangClient client;
+
+        try {
             try {
-                return client.findProfile(identifier);
-            } finally {
-                this.clientObjectPool.returnObject(client);
+                client = this.acquireClient(avoided);
+            } catch (RateLimitExceededException ex) {
+                client = this.acquireClient();
             }
-        } catch (Exception ex) {
-            throw new IOException("Could not borrow/return client from/to pool: " + ex.getMessage(), ex);
+        } catch (IOException ex) {
+            return Futures.failed(ex);
         }
+
+        this.retryBudget.recordRequest();
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Set<PooledAddress> attempted = new HashSet<>();
+        this.attempt(client, request, avoided, attempted, 1, System.nanoTime() + this.retryTimeout, future);
+        return future;
     }
 
     /**
-     * {@inheritDoc}
+     * Dispatches a non-blocking request and hedges it on a different address if it does not
+     * complete within the delay specified by the passed policy.
+     *
+     * Hedged requests are only issued when another address has spare budget (e.g. would retain
+     * more than the configured reserve of its capacity) and the first successful response wins.
+     * The request fails only when all issued requests fail. Once a response has been passed on,
+     * the original request is cancelled in order to stop any further retries on its behalf.
+     *
+     * @param policy  a hedging policy.
+     * @param request a request.
+     * @param <T>     a response type.
+     * @return a future.
      */
-    @Nullable
-    @Override
-    public ProfileName findIdentifier(@Nonnull String name) throws IOException {
-        try {
-            LocalAddressMojangClient client = this.clientObjectPool.borrowObject();
+    @Nonnull
+    private <T> CompletableFuture<T> dispatch(@Nonnull HedgingPolicy policy, @Nonnull Function<LocalAddressMojangClient, CompletableFuture<T>> request) {
+        long delay = policy.getDelay();
+        // retries of the original request record their addresses on I/O threads while the hedge
+        // consults the set on the executor thread
+        Set<PooledAddress> avoided = ConcurrentHashMap.newKeySet();
+        CompletableFuture<T> primary = this.dispatch(avoided, this.measure(policy, request));
+
+        if (delay == -1 || primary.isDone()) {
+            return primary;
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        BiConsumer<T, Throwable> handler = (r, ex) -> {
+            if (ex == null) {
+                future.complete(r);
+                return;
+            }
 
+            failure.compareAndSet(null, ex);
+
+            if (pending.decrementAndGet() == 0) {
+                future.completeExceptionally(failure.get());
+            }
+        };
+        primary.whenComplete(handler);
+
+        ScheduledFuture<?> hedge = this.executor.schedule(() -> {
+            PooledAddress address = this.scheduler.acquireSpare(avoided, this.hedgeReserve);
+
+            if (address == null) {
+                return;
+            }
+
+            // the original request may have failed in the meantime in which case its failure has
+            // already been passed on and the token we acquired is simply wasted
+            if (pending.getAndUpdate((p) -> p == 0 ? 0 : p + 1) == 0) {
+                return;
+            }
+
+            policy.recordHedge();
+
+            CompletableFuture<T> response;
             try {
-                return client.findIdentifier(name);
-            } finally {
-                this.clientObjectPool.returnObject(client);
+                response = this.measure(policy, request).apply(this.clients.get(address));
+            } catch (RuntimeException ex) {
+                response = Futures.failed(ex);
             }
-        } catch (Exception ex) {
-            throw new IOException("Could not borrow/return client from/to pool: " + ex.getMessage(), ex);
-        }
+
+            response.whenComplete((r, ex) -> {
+                if (ex == null && !primary.isDone()) {
+                    policy.recordWin();
+                }
+
+                handler.accept(r, ex);
+            });
+        }, delay, TimeUnit.NANOSECONDS);
+
+        future.whenComplete((r, ex) -> {
+            hedge.cancel(false);
+            primary.cancel(false);
+        });
+        return future;
     }
 
     /**
-     * {@inheritDoc}
+     * Wraps a request in order to record the latency of all successful responses.
+     *
+     * @param policy  a hedging policy.
+     * @param request a request.
+     * @param <T>     a response type.
+     * @return a wrapped request.
      */
-    @Nullable
-    @Override
-    public ProfileName findIdentifier(@Nonnull String name, @Nonnull Instant timestamp) throws IOException {
+    @Nonnull
+    private <T> Function<LocalAddressMojangClient, CompletableFuture<T>> measure(@Nonnull HedgingPolicy policy, @Nonnull Function<LocalAddressMojangClient, CompletableFuture<T>> request) {
+        return (c) -> {
+            long start = System.nanoTime();
+
+            return request.apply(c).whenComplete((r, ex) -> {
+                if (ex == null) {
+                    policy.getLatencyTracker().record(System.nanoTime() - start);
+                }
+            });
+        };
+    }
+
+    /**
+     * Executes a single attempt of a request and schedules a retry if the attempt failed.
+     *
+     * @param client    a client.
+     * @param request   a request.
+     * @param avoided   a set of addresses which are avoided by hedged requests.
+     * @param attempted a set of previously attempted addresses.
+     * @param attempt   the current attempt number.
+     * @param deadline  a deadline after which no further retries are scheduled.
+     * @param future    a future which is completed with the final result.
+     * @param <T>       a response type.
+     */
+    private <T> void attempt(@Nonnull LocalAddressMojangClient client, @Nonnull Function<LocalAddressMojangClient, CompletableFuture<T>> request, @Nonnull Set<PooledAddress> avoided, @Nonnull Set<PooledAddress> attempted, int attempt, long deadline, @Nonnull CompletableFuture<T> future) {
+        avoided.add(client.getAddress());
+        attempted.add(client.getAddress());
+
+        CompletableFuture<T> response;
         try {
-            LocalAddressMojangClient client = this.clientObjectPool.borrowObject();
+            response = request.apply(client);
+        } catch (RuntimeException ex) {
+            response = Futures.failed(ex);
+        }
 
-            try {
-                return client.findIdentifier(name, timestamp);
-            } finally {
-                this.clientObjectPool.returnObject(client);
+        response.whenComplete((r, ex) -> {
+            if (ex == null) {
+                future.complete(r);
+                return;
             }
-        } catch (Exception ex) {
-            throw new IOException("Could not borrow/return client from/to pool: " + ex.getMessage(), ex);
-        }
+
+            Throwable cause = ex;
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+
+            if (attempt < this.retryAttempts && isRetryable(cause) && deadline - System.nanoTime() > 0 && !future.isDone() && this.retryBudget.tryAcquire()) {
+                // retries are strictly bound to addresses we did not try yet thus we'll simply
+                // pass on the original failure when no other address has any budget left
+                try {
+                    this.attempt(this.acquireClient(attempted), request, avoided, attempted, attempt + 1, deadline, future);
+                    return;
+                } catch (IOException ignore) {
+                }
+            }
+
+            future.completeExceptionally(cause);
+        });
+    }
+
+    /**
+     * Checks whether a failed request may be retried on a different address.
+     *
+     * @param cause a failure cause.
+     * @return true if retryable, false otherwise.
+     */
+    private static boolean isRetryable(@Nonnull Throwable cause) {
+        return cause instanceof RateLimitExceededException || cause instanceof SocketTimeoutException || cause instanceof ConnectTimeoutException;
     }
 
     /**
      * {@inheritDoc}
      */
-    @Nullable
+    @Nonnull
     @Override
-    public List<ProfileName> findIdentifier(@Nonnull List<String> names) throws IOException {
-        try {
-            LocalAddressMojangClient client = this.clientObjectPool.borrowObject();
-
-            try {
-                return client.findIdentifier(names);
-            } finally {
-                this.clientObjectPool.returnObject(client);
-            }
-        } catch (Exception ex) {
-            throw new IOException("Could not borrow/return client from/to pool: " + ex.getMessage(), ex);
-        }
+    public CompletableFuture<Profile> findProfileAsync(@Nonnull String identifier) {
+        return this.dispatch(this.profileHedging, (c) -> c.findProfileAsync(identifier));
     }
 
     /**
      * {@inheritDoc}
      */
-    @Nullable
+    @Nonnull
     @Override
-    public List<ProfileNameChange> getNameHistory(@Nonnull String identifier) throws IOException {
-        try {
-            LocalAddressMojangClient client = this.clientObjectPool.borrowObject();
+    public CompletableFuture<Profile> findProfileAsync(@Nonnull UUID identifier) {
+        return this.dispatch(this.profileHedging, (c) -> c.findProfileAsync(identifier));
+    }
 
-            try {
-                return client.getNameHistory(identifier);
-            } finally {
-                this.clientObjectPool.returnObject(client);
-            }
-        } catch (Exception ex) {
-            throw new IOException("Could not borrow/return client from/to pool: " + ex.getMessage(), ex);
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<ProfileName> findIdentifierAsync(@Nonnull String name) {
+        if (this.batcher != null) {
+            return this.batcher.submit(name);
         }
+
+        return this.dispatch(this.nameHedging, (c) -> c.findIdentifierAsync(name));
     }
 
     /**
      * {@inheritDoc}
      */
-    @Nullable
+    @Nonnull
     @Override
-    public List<ProfileNameChange> getNameHistory(@Nonnull UUID identifier) throws IOException {
-        try {
-            LocalAddressMojangClient client = this.clientObjectPool.borrowObject();
-
-            try {
-                return client.getNameHistory(identifier);
-            } finally {
-                this.clientObjectPool.returnObject(client);
-            }
-        } catch (Exception ex) {
-            throw new IOException("Could not borrow/return client from/to pool: " + ex.getMessage(), ex);
-        }
+    public CompletableFuture<ProfileName> findIdentifierAsync(@Nonnull String name, @Nonnull Instant timestamp) {
+        return this.dispatch(this.nameHedging, (c) -> c.findIdentifierAsync(name, timestamp));
     }
 
     /**
-     * Provides a pooled object factory for Mojang client objects.
+     * {@inheritDoc}
      */
-    public static class ClientPooledObjectFactory extends BasePooledObjectFactory<LocalAddressMojangClient> {
-        private static final String USER_AGENT;
+    @Nonnull
+    @Override
+    public CompletableFuture<List<ProfileName>> findIdentifierAsync(@Nonnull List<String> names) {
+        Map<String, String> distinctNames = new LinkedHashMap<>();
+        names.forEach((n) -> distinctNames.putIfAbsent(n.toLowerCase(), n));
 
-        static {
-            Package p = LocalAddressMojangClient.class.getPackage();
+        // Mojang rejects bulk requests which exceed its limit thus we'll split larger requests
+        // into chunks and spread them among as many addresses as possible
+        List<String> pending = new ArrayList<>(distinctNames.values());
+        List<CompletableFuture<List<ProfileName>>> chunks = new ArrayList<>();
+        Set<PooledAddress> addresses = ConcurrentHashMap.newKeySet();
 
-            String name = p.getImplementationTitle();
-            String version = p.getImplementationVersion();
-            String vendor = p.getImplementationVendor();
+        for (int i = 0; i < pending.size(); i += BULK_REQUEST_LIMIT) {
+            List<String> chunk = pending.subList(i, Math.min(pending.size(), i + BULK_REQUEST_LIMIT));
 
-            if (name == null) {
-                name = "MCAPI";
+            if (addresses.size() == this.clients.size()) {
+                addresses.clear();
             }
 
-            if (version == null) {
-                version = "0.0.0-SNAPSHOT";
-            }
+            chunks.add(this.dispatch(addresses, (c) -> c.findIdentifierAsync(chunk)));
+        }
 
-            if (vendor == null) {
-                vendor = "Minepay";
-            }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[chunks.size()])).thenApply((v) -> {
+            Map<String, ProfileName> results = new HashMap<>();
 
-            USER_AGENT = String.format("%s/%s (+%s)", name, version, vendor);
-        }
+            chunks.forEach((c) -> {
+                List<ProfileName> chunk = c.join();
 
-        private final Deque<PooledAddress> addresses;
-        private final HttpClient client;
+                if (chunk != null) {
+                    chunk.forEach((n) -> results.put(n.getName().toLowerCase(), n));
+                }
+            });
 
-        public ClientPooledObjectFactory(@Nonnull List<PooledAddress> addresses) {
-            this.addresses = new ConcurrentLinkedDeque<>(addresses);
+            List<ProfileName> identifiers = new ArrayList<>(results.size());
+            distinctNames.keySet().forEach((k) -> {
+                ProfileName identifier = results.get(k);
 
-            PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager();
-            manager.setMaxTotal(128); // Maximum amount of cached connections
-            manager.setDefaultMaxPerRoute(12); // Maximum amount of cached connections per route
+                if (identifier != null) {
+                    identifiers.add(identifier);
+                }
+            });
+            return identifiers;
+        });
+    }
 
-            this.client = HttpClientBuilder.create()
-                    .disableAuthCaching()
-                    .disableCookieManagement()
-                    .disableRedirectHandling()
-                    .setConnectionManager(manager)
-                    .setUserAgent(USER_AGENT)
-                    .build();
-        }
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<ProfileNameChange>> getNameHistoryAsync(@Nonnull String identifier) {
+        return this.dispatch(this.historyHedging, (c) -> c.getNameHistoryAsync(identifier));
+    }
 
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public LocalAddressMojangClient create() throws Exception {
-            PooledAddress address = this.addresses.pop();
-            return new LocalAddressMojangClient(this.client, address);
-        }
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public CompletableFuture<List<ProfileNameChange>> getNameHistoryAsync(@Nonnull UUID identifier) {
+        return this.dispatch(this.historyHedging, (c) -> c.getNameHistoryAsync(identifier));
+    }
 
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public PooledObject<LocalAddressMojangClient> wrap(@Nonnull LocalAddressMojangClient obj) {
-            return new DefaultPooledObject<>(obj);
-        }
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public Profile findProfile(@Nonnull String identifier) throws IOException {
+        return Futures.await(this.findProfileAsync(identifier));
+    }
 
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public boolean validateObject(@Nonnull PooledObject<LocalAddressMojangClient> p) {
-            return !p.getObject().hasExceededRateLimitation();
-        }
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public Profile findProfile(@Nonnull UUID identifier) throws IOException {
+        return Futures.await(this.findProfileAsync(identifier));
+    }
 
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public void destroyObject(@Nonnull PooledObject<LocalAddressMojangClient> p) throws Exception {
-            LocalAddressMojangClient client = p.getObject();
-            client.resetRateLimit();
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public ProfileName findIdentifier(@Nonnull String name) throws IOException {
+        return Futures.await(this.findIdentifierAsync(name));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public ProfileName findIdentifier(@Nonnull String name, @Nonnull Instant timestamp) throws IOException {
+        return Futures.await(this.findIdentifierAsync(name, timestamp));
+    }
 
-            this.addresses.add(client.getAddress());
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public List<ProfileName> findIdentifier(@Nonnull List<String> names) throws IOException {
+        return Futures.await(this.findIdentifierAsync(names));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public List<ProfileNameChange> getNameHistory(@Nonnull String identifier) throws IOException {
+        return Futures.await(this.getNameHistoryAsync(identifier));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nullable
+    @Override
+    public List<ProfileNameChange> getNameHistory(@Nonnull UUID identifier) throws IOException {
+        return Futures.await(this.getNameHistoryAsync(identifier));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Collection<Metric<?>> metrics() {
+        Collection<Metric<?>> metrics = new ArrayList<>();
+
+        this.scheduler.getAddresses().forEach((a) -> {
+            String prefix = "mojang.address." + a.getDeviceAddress().getHostAddress();
+            AddressHealth health = a.getHealth();
+
+            metrics.add(new Metric<>(prefix + ".remaining", a.getRemaining()));
+            metrics.add(new Metric<>(prefix + ".lease", a.getLease().getRemaining()));
+            metrics.add(new Metric<>(prefix + ".cluster-remaining", a.getLease().getClusterRemaining()));
+            metrics.add(new Metric<>(prefix + ".score", health.getScore()));
+            metrics.add(new Metric<>(prefix + ".failure-rate", health.getFailureRate()));
+            metrics.add(new Metric<>(prefix + ".cooldown", health.getRemainingCooldown().toMillis()));
+            metrics.add(new Metric<>(prefix + ".successes", health.getSuccessCount()));
+            metrics.add(new Metric<>(prefix + ".throttles", health.getThrottleCount()));
+            metrics.add(new Metric<>(prefix + ".timeouts", health.getTimeoutCount()));
+            metrics.add(new Metric<>(prefix + ".errors", health.getErrorCount()));
+        });
+
+        metrics.add(new Metric<>("mojang.client.lease-renewals", this.rateLimiter.getRenewalCount()));
+        metrics.add(new Metric<>("mojang.client.lease-failures", this.rateLimiter.getFailureCount()));
+        metrics.add(new Metric<>("mojang.client.retries", this.retryBudget.getGrantedCount()));
+        metrics.add(new Metric<>("mojang.client.retries-rejected", this.retryBudget.getRejectedCount()));
+        metrics.add(new Metric<>("mojang.client.retry-budget", this.retryBudget.getRemaining()));
+
+        for (HedgingPolicy policy : new HedgingPolicy[]{this.profileHedging, this.nameHedging, this.historyHedging}) {
+            String prefix = "mojang.hedge." + policy.getName();
+
+            metrics.add(new Metric<>(prefix + ".delay", TimeUnit.NANOSECONDS.toMillis(Math.max(0, policy.getDelay()))));
+            metrics.add(new Metric<>(prefix + ".hedged", policy.getHedgedCount()));
+            metrics.add(new Metric<>(prefix + ".won", policy.getWonCount()));
         }
+
+        return metrics;
     }
 }
@@ -0,0 +1,241 @@
+package net.minepay.mcapi.mojang.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Represents a local share of the cluster-wide rate limit budget of a single address.
+ *
+ * <strong>Implementation Notes:</strong> Tokens are granted in batches by a {@link
+ * ClusterRateLimiter} and consumed without any coordination while issued requests are counted
+ * within a striped counter until the limiter reports them with its next flush. Granted tokens are
+ * only valid for a short period of time as tokens which have been accounted for within an older
+ * section of the cluster-wide window would otherwise permit nodes to exceed the limit once that
+ * section expires. Tokens which expire unused are refunded to the section they have been charged
+ * to with the next renewal or flush.
+ *
+ * Empty leases are renewed on demand by the first thread which fails to acquire a token while all
+ * concurrent threads wait for that renewal to complete.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class RateLease {
+    private final ClusterRateLimiter limiter;
+    private final String name;
+    private final int limit;
+
+    private final AtomicInteger tokens = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final ReentrantLock renewalLock = new ReentrantLock();
+    private volatile long expiration = System.nanoTime();
+    private volatile int clusterRemaining;
+
+    // guarded by renewalLock
+    private long section = -1;
+    private int sectionTokens;
+
+    RateLease(@Nonnull ClusterRateLimiter limiter, @Nonnull String name, @Nonnegative int limit) {
+        this.limiter = limiter;
+        this.name = name;
+        this.limit = limit;
+        this.clusterRemaining = limit;
+    }
+
+    /**
+     * Attempts to consume a single token from this lease.
+     *
+     * @return true if a token has been consumed, false if the lease is currently exhausted.
+     */
+    public boolean tryAcquire() {
+        if (this.isExpired()) {
+            return false;
+        }
+
+        while (true) {
+            int current = this.tokens.get();
+
+            if (current == 0) {
+                return false;
+            }
+
+            if (this.tokens.compareAndSet(current, current - 1)) {
+                this.requests.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns a previously acquired token to this lease.
+     */
+    public void release() {
+        this.requests.decrement();
+        this.tokens.incrementAndGet();
+    }
+
+    /**
+     * Renews this lease unless it still holds tokens or the cluster-wide budget is known to be
+     * exhausted.
+     *
+     * @return true if the lease holds tokens after the call, false otherwise.
+     */
+    public boolean renew() {
+        this.renewalLock.lock();
+
+        try {
+            // a concurrent thread may have renewed the lease while we've been waiting
+            if (this.getRemaining() != 0) {
+                return true;
+            }
+
+            if (this.getClusterRemaining() == 0) {
+                return false;
+            }
+
+            this.limiter.renew(this);
+            return this.getRemaining() != 0;
+        } finally {
+            this.renewalLock.unlock();
+        }
+    }
+
+    /**
+     * Attempts to lock this lease for a renewal without waiting for a concurrent renewal.
+     *
+     * @return true if locked, false otherwise.
+     */
+    boolean tryLock() {
+        return this.renewalLock.tryLock();
+    }
+
+    /**
+     * Unlocks this lease after a renewal.
+     */
+    void unlock() {
+        this.renewalLock.unlock();
+    }
+
+    /**
+     * Adds a batch of freshly granted tokens to this lease.
+     *
+     * @param tokens           an amount of tokens.
+     * @param clusterRemaining the remaining cluster-wide budget after the grant.
+     * @param section          the window section the tokens have been charged to or -1 if they
+     *                         have not been charged to the cluster-wide window.
+     * @param expiration       the time (in nanoseconds) at which the granted tokens expire.
+     */
+    void grant(@Nonnegative int tokens, @Nonnegative int clusterRemaining, long section, long expiration) {
+        if (this.isExpired()) {
+            this.tokens.set(tokens);
+        } else {
+            this.tokens.addAndGet(tokens);
+        }
+
+        if (section == -1 || section != this.section) {
+            this.sectionTokens = tokens;
+        } else {
+            this.sectionTokens += tokens;
+        }
+
+        this.section = section;
+        this.clusterRemaining = clusterRemaining;
+        this.expiration = expiration;
+    }
+
+    /**
+     * Retrieves the section to which a refund is to be credited.
+     *
+     * @return a section or -1 if no refund is pending.
+     */
+    long getRefundSection() {
+        return (this.isExpired() && this.tokens.get() != 0 ? this.section : -1);
+    }
+
+    /**
+     * Removes all expired tokens from this lease.
+     *
+     * Only tokens which have been charged to the most recent section are refunded while the
+     * remainder is discarded (it has been charged to an older section which may have already
+     * left the window).
+     *
+     * @return the amount of tokens which is to be refunded.
+     */
+    @Nonnegative
+    int takeRefund() {
+        if (!this.isExpired()) {
+            return 0;
+        }
+
+        int refund = Math.min(this.tokens.getAndSet(0), this.sectionTokens);
+        this.section = -1;
+        this.sectionTokens = 0;
+        return (refund < 0 ? 0 : refund);
+    }
+
+    /**
+     * Retrieves and resets the amount of requests which have been issued since the last call.
+     *
+     * @return an amount of requests.
+     */
+    long drainRequests() {
+        return this.requests.sumThenReset();
+    }
+
+    /**
+     * Returns a previously drained amount of requests (for instance when reporting them failed).
+     *
+     * @param requests an amount of requests.
+     */
+    void restoreRequests(long requests) {
+        this.requests.add(requests);
+    }
+
+    /**
+     * Checks whether the tokens within this lease are no longer valid.
+     *
+     * @return true if expired, false otherwise.
+     */
+    public boolean isExpired() {
+        return System.nanoTime() - this.expiration >= 0;
+    }
+
+    /**
+     * Retrieves the amount of locally available tokens.
+     *
+     * @return an amount of tokens.
+     */
+    @Nonnegative
+    public int getRemaining() {
+        return this.isExpired() ? 0 : this.tokens.get();
+    }
+
+    /**
+     * Retrieves the amount of tokens which remained within the cluster-wide window after the last
+     * renewal.
+     *
+     * Once the lease expires, the reported amount is no longer reliable as older sections may
+     * have left the window since thus the full limit is assumed until the lease is renewed.
+     *
+     * @return an amount of tokens.
+     */
+    @Nonnegative
+    public int getClusterRemaining() {
+        return this.isExpired() ? this.limit : this.clusterRemaining;
+    }
+
+    @Nonnull
+    public String getName() {
+        return this.name;
+    }
+
+    @Nonnegative
+    public int getLimit() {
+        return this.limit;
+    }
+}
@@ -0,0 +1,101 @@
+package net.minepay.mcapi.mojang.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Collapses concurrent requests for the same key into a single upstream request.
+ *
+ * <strong>Implementation Notes:</strong> The first caller for a given key (the leader) executes the
+ * actual request while all callers which arrive before said request completes receive a view of
+ * the very same result. Each caller receives a dependent future in order to prevent cancellations
+ * from propagating to other callers.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class RequestCoalescer {
+    private final ConcurrentMap<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    /**
+     * Executes a request or joins an equivalent request which is already in flight.
+     *
+     * @param key     a key which uniquely identifies the request.
+     * @param request a request.
+     * @param <T>     a result type.
+     * @return a future.
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(@Nonnull String key, @Nonnull Supplier<CompletableFuture<T>> request) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<?> existing = this.inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            this.collapsed.increment();
+            return ((CompletableFuture<T>) existing).thenApply(Function.identity());
+        }
+
+        this.executed.increment();
+
+        CompletableFuture<T> upstream;
+        try {
+            upstream = request.get();
+        } catch (RuntimeException ex) {
+            upstream = Futures.failed(ex);
+        }
+
+        upstream.whenComplete((r, ex) -> {
+            this.inFlight.remove(key, future);
+
+            if (ex != null) {
+                future.completeExceptionally(ex);
+            } else {
+                future.complete(r);
+            }
+        });
+
+        return future.thenApply(Function.identity());
+    }
+
+    /**
+     * Retrieves the amount of requests which have actually been executed.
+     *
+     * @return an amount of requests.
+     */
+    @Nonnegative
+    public long getExecutedCount() {
+        return this.executed.sum();
+    }
+
+    /**
+     * Retrieves the amount of requests which have been collapsed into an already executing
+     * request.
+     *
+     * @return an amount of requests.
+     */
+    @Nonnegative
+    public long getCollapsedCount() {
+        return this.collapsed.sum();
+    }
+
+    /**
+     * Retrieves the amount of requests which are currently in flight.
+     *
+     * @return an amount of requests.
+     */
+    @Nonnegative
+    public int getInFlightCount() {
+        return this.inFlight.size();
+    }
+}
@@ -0,0 +1,96 @@
+package net.minepay.mcapi.mojang.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Limits the amount of retries to a fixed ratio of the overall request volume.
+ *
+ * <strong>Implementation Notes:</strong> Every request deposits a fraction of a retry into a
+ * bounded balance while every retry withdraws a whole one. As a result, a global outage cannot
+ * cause more than the configured ratio of additional upstream traffic (plus the initial balance).
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class RetryBudget {
+    private static final long SCALE = 100;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param ratio    a percentage of requests which may be retried.
+     * @param capacity a maximum amount of retries which may be saved up.
+     */
+    public RetryBudget(@Nonnegative int ratio, @Nonnegative int capacity) {
+        this.deposit = ratio;
+        this.capacity = capacity * SCALE;
+        this.balance = new AtomicLong(this.capacity);
+    }
+
+    /**
+     * Records an initial request.
+     */
+    public void recordRequest() {
+        this.balance.accumulateAndGet(this.deposit, (a, b) -> Math.min(this.capacity, a + b));
+    }
+
+    /**
+     * Attempts to withdraw a single retry from the budget.
+     *
+     * @return true if a retry is permitted, false otherwise.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            long current = this.balance.get();
+
+            if (current < SCALE) {
+                this.rejected.increment();
+                return false;
+            }
+
+            if (this.balance.compareAndSet(current, current - SCALE)) {
+                this.granted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the amount of retries which are currently available.
+     *
+     * @return an amount of retries.
+     */
+    @Nonnegative
+    public long getRemaining() {
+        return this.balance.get() / SCALE;
+    }
+
+    /**
+     * Retrieves the amount of retries which have been permitted.
+     *
+     * @return an amount of retries.
+     */
+    @Nonnegative
+    public long getGrantedCount() {
+        return this.granted.sum();
+    }
+
+    /**
+     * Retrieves the amount of retries which have been rejected due to an exhausted budget.
+     *
+     * @return an amount of retries.
+     */
+    @Nonnegative
+    public long getRejectedCount() {
+        return this.rejected.sum();
+    }
+}
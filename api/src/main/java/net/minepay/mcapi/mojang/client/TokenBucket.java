@@ -0,0 +1,109 @@
+package net.minepay.mcapi.mojang.client;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Provides a lock-free token bucket which is continuously refilled over the course of a fixed
+ * window.
+ *
+ * <strong>Implementation Notes:</strong> Instead of tracking an actual token count, this bucket
+ * tracks the theoretical arrival time of the next request (GCRA) which permits all state to be
+ * updated with a single compare-and-swap operation.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class TokenBucket {
+    private final int capacity;
+    private final long window;
+    private final long emissionInterval;
+    private final LongSupplier clock;
+    private final AtomicLong arrivalTime;
+
+    public TokenBucket(@Nonnegative int capacity, @Nonnull Duration window) {
+        this(capacity, window, System::nanoTime);
+    }
+
+    TokenBucket(@Nonnegative int capacity, @Nonnull Duration window, @Nonnull LongSupplier clock) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: Must be greater than zero");
+        }
+
+        this.capacity = capacity;
+        this.window = window.toNanos();
+        this.emissionInterval = this.window / capacity;
+        this.clock = clock;
+        this.arrivalTime = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Attempts to consume a single token from this bucket.
+     *
+     * @return true if a token has been consumed, false if the bucket is currently empty.
+     */
+    public boolean tryAcquire() {
+        long now = this.clock.getAsLong();
+
+        while (true) {
+            long current = this.arrivalTime.get();
+            long next = Math.max(current, now) + this.emissionInterval;
+
+            if (next - now > this.window) {
+                return false;
+            }
+
+            if (this.arrivalTime.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Unconditionally consumes the specified amount of tokens (for instance in order to account
+     * for requests which have been issued by a previous instance).
+     *
+     * @param tokens an amount of tokens.
+     */
+    public void consume(@Nonnegative int tokens) {
+        long now = this.clock.getAsLong();
+        long cost = Math.min(tokens, this.capacity) * this.emissionInterval;
+
+        while (true) {
+            long current = this.arrivalTime.get();
+            long next = Math.min(Math.max(current, now) + cost, now + this.window);
+
+            if (this.arrivalTime.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the amount of tokens which are currently available within this bucket.
+     *
+     * @return an amount of tokens.
+     */
+    @Nonnegative
+    public int getRemaining() {
+        long now = this.clock.getAsLong();
+        long backlog = Math.max(0, this.arrivalTime.get() - now);
+
+        return (int) Math.min(this.capacity, (this.window - backlog) / this.emissionInterval);
+    }
+
+    /**
+     * Retrieves the maximum amount of tokens this bucket may hold.
+     *
+     * @return an amount of tokens.
+     */
+    @Nonnegative
+    public int getCapacity() {
+        return this.capacity;
+    }
+}
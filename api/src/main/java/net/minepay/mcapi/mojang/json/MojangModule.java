@@ -0,0 +1,30 @@
+package net.minepay.mcapi.mojang.json;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import net.minepay.mcapi.mojang.Profile;
+import net.minepay.mcapi.mojang.ProfileName;
+import net.minepay.mcapi.mojang.ProfileNameChange;
+
+/**
+ * Registers the streaming serializers and deserializers of all Mojang model classes which are
+ * exchanged with clients and the Mojang API.
+ *
+ * <strong>Implementation Notes:</strong> This module is only suitable for JSON mappers as the
+ * XML representation relies on databind in order to wrap collections.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class MojangModule extends SimpleModule {
+
+    public MojangModule() {
+        super(MojangModule.class.getSimpleName());
+
+        this.addSerializer(Profile.class, new ProfileSerializer());
+        this.addDeserializer(Profile.class, new ProfileDeserializer());
+        this.addSerializer(ProfileName.class, new ProfileNameSerializer());
+        this.addDeserializer(ProfileName.class, new ProfileNameDeserializer());
+        this.addSerializer(ProfileNameChange.class, new ProfileNameChangeSerializer());
+        this.addDeserializer(ProfileNameChange.class, new ProfileNameChangeDeserializer());
+    }
+}
@@ -0,0 +1,148 @@
+package net.minepay.mcapi.mojang.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import net.minepay.mcapi.mojang.Profile;
+import net.minepay.mcapi.mojang.ProfileProperty;
+import net.minepay.mcapi.mojang.ProfileTextures;
+import net.minepay.mcapi.mojang.TexturesProperty;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Reads profiles without building an intermediate tree (unknown fields are skipped).
+ *
+ * Encoded textures are kept in their encoded form (see {@link TexturesProperty}) while textures
+ * which have been written in their decoded form are passed on to the deserializer which has been
+ * registered with the mapper.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class ProfileDeserializer extends StdDeserializer<Profile> {
+
+    public ProfileDeserializer() {
+        super(Profile.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Profile deserialize(@Nonnull JsonParser parser, @Nonnull DeserializationContext context) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        } else if (token != JsonToken.FIELD_NAME) {
+            throw context.wrongTokenException(parser, JsonToken.START_OBJECT, "Expected profile object");
+        }
+
+        String id = null;
+        String name = null;
+        List<ProfileProperty<?>> properties = new ArrayList<>(1);
+
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            String field = parser.getCurrentName();
+            token = parser.nextToken();
+
+            switch (field) {
+                case "id":
+                    id = parser.getValueAsString();
+                    break;
+                case "name":
+                    name = parser.getValueAsString();
+                    break;
+                case "properties":
+                    if (token == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            properties.add(readProperty(parser, context));
+                        }
+                    } else if (token != JsonToken.VALUE_NULL) {
+                        throw context.wrongTokenException(parser, JsonToken.START_ARRAY, "Expected list of profile properties");
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        if (id == null || name == null) {
+            throw context.mappingException("Incomplete profile: Expected id and name");
+        }
+
+        return new Profile(id, name, properties);
+    }
+
+    /**
+     * Reads a single profile property.
+     *
+     * @param parser  a parser which points to the start of the property.
+     * @param context a context.
+     * @return a property.
+     *
+     * @throws IOException when reading fails or the property is malformed.
+     */
+    @Nonnull
+    private static ProfileProperty<?> readProperty(@Nonnull JsonParser parser, @Nonnull DeserializationContext context) throws IOException {
+        if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+            throw context.wrongTokenException(parser, JsonToken.START_OBJECT, "Expected profile property object");
+        }
+
+        String name = null;
+        String value = null;
+        ProfileTextures textures = null;
+        String signature = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+
+            switch (field) {
+                case "name":
+                    name = parser.getValueAsString();
+                    break;
+                case "value":
+                    if (token == JsonToken.START_OBJECT) {
+                        textures = context.readValue(parser, ProfileTextures.class);
+                    } else if (token.isScalarValue()) {
+                        value = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                case "signature":
+                    signature = parser.getValueAsString();
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        if (name == null) {
+            throw context.mappingException("Incomplete profile property: Expected name");
+        }
+
+        if ("textures".equalsIgnoreCase(name)) {
+            if (textures != null) {
+                return new ProfileProperty<>(name, textures, signature);
+            }
+
+            if (value != null) {
+                // textures are only decoded once a consumer actually accesses them
+                return new TexturesProperty(name, value, signature);
+            }
+        }
+
+        return new ProfileProperty<>(name, (value == null ? "" : value), signature);
+    }
+}
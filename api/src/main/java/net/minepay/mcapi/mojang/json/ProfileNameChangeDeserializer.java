@@ -0,0 +1,70 @@
+package net.minepay.mcapi.mojang.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import net.minepay.mcapi.mojang.ProfileNameChange;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Reads name changes without resorting to reflection (unknown fields are skipped).
+ *
+ * Timestamps are passed on to the deserializer which has been registered with the mapper thus
+ * they follow the configured date format.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class ProfileNameChangeDeserializer extends StdDeserializer<ProfileNameChange> {
+
+    public ProfileNameChangeDeserializer() {
+        super(ProfileNameChange.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProfileNameChange deserialize(@Nonnull JsonParser parser, @Nonnull DeserializationContext context) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        } else if (token != JsonToken.FIELD_NAME) {
+            throw context.wrongTokenException(parser, JsonToken.START_OBJECT, "Expected name change object");
+        }
+
+        String name = null;
+        Instant changedToAt = null;
+
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            String field = parser.getCurrentName();
+            token = parser.nextToken();
+
+            switch (field) {
+                case "name":
+                    name = parser.getValueAsString();
+                    break;
+                case "changedToAt":
+                    changedToAt = (token == JsonToken.VALUE_NULL ? null : context.readValue(parser, Instant.class));
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        if (name == null) {
+            throw context.mappingException("Incomplete name change: Expected name");
+        }
+
+        return new ProfileNameChange(name, changedToAt);
+    }
+}
@@ -0,0 +1,40 @@
+package net.minepay.mcapi.mojang.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import net.minepay.mcapi.mojang.ProfileNameChange;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Writes name changes without resorting to reflection.
+ *
+ * Timestamps are passed on to the serializer which has been registered with the mapper thus they
+ * follow the configured date format.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class ProfileNameChangeSerializer extends StdSerializer<ProfileNameChange> {
+
+    public ProfileNameChangeSerializer() {
+        super(ProfileNameChange.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serialize(@Nonnull ProfileNameChange value, @Nonnull JsonGenerator generator, @Nonnull SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("name", value.getName());
+        generator.writeFieldName("changedToAt");
+        provider.defaultSerializeValue(value.getChangedToAt(), generator);
+        generator.writeEndObject();
+    }
+}
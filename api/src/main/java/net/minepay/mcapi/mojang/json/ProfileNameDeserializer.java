@@ -0,0 +1,66 @@
+package net.minepay.mcapi.mojang.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import net.minepay.mcapi.mojang.ProfileName;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Reads profile identifiers without resorting to reflection (unknown fields are skipped).
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class ProfileNameDeserializer extends StdDeserializer<ProfileName> {
+
+    public ProfileNameDeserializer() {
+        super(ProfileName.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public ProfileName deserialize(@Nonnull JsonParser parser, @Nonnull DeserializationContext context) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        } else if (token != JsonToken.FIELD_NAME) {
+            throw context.wrongTokenException(parser, JsonToken.START_OBJECT, "Expected profile name object");
+        }
+
+        String id = null;
+        String name = null;
+
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+
+            switch (field) {
+                case "id":
+                    id = parser.getValueAsString();
+                    break;
+                case "name":
+                    name = parser.getValueAsString();
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        if (id == null || name == null) {
+            throw context.mappingException("Incomplete profile name: Expected id and name");
+        }
+
+        return new ProfileName(id, name);
+    }
+}
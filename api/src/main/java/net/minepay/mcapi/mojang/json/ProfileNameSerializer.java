@@ -0,0 +1,36 @@
+package net.minepay.mcapi.mojang.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import net.minepay.mcapi.mojang.ProfileName;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Writes profile identifiers without resorting to reflection.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class ProfileNameSerializer extends StdSerializer<ProfileName> {
+
+    public ProfileNameSerializer() {
+        super(ProfileName.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serialize(@Nonnull ProfileName value, @Nonnull JsonGenerator generator, @Nonnull SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", value.getId());
+        generator.writeStringField("name", value.getName());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,59 @@
+package net.minepay.mcapi.mojang.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import net.minepay.mcapi.mojang.Profile;
+import net.minepay.mcapi.mojang.ProfileProperty;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Writes profiles without resorting to reflection.
+ *
+ * Property values other than strings (such as decoded textures) are passed on to the serializer
+ * which has been registered with the mapper for their respective type.
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@ThreadSafe
+public class ProfileSerializer extends StdSerializer<Profile> {
+
+    public ProfileSerializer() {
+        super(Profile.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void serialize(@Nonnull Profile value, @Nonnull JsonGenerator generator, @Nonnull SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", value.getId());
+        generator.writeStringField("name", value.getName());
+        generator.writeArrayFieldStart("properties");
+
+        for (ProfileProperty<?> property : value.getProperties()) {
+            generator.writeStartObject();
+            generator.writeStringField("name", property.getName());
+            generator.writeFieldName("value");
+
+            Object propertyValue = property.getValue();
+            if (propertyValue instanceof String) {
+                generator.writeString((String) propertyValue);
+            } else {
+                provider.defaultSerializeValue(propertyValue, generator);
+            }
+
+            generator.writeStringField("signature", property.getSignature());
+            generator.writeEndObject();
+        }
+
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,73 @@
+package net.minepay.mcapi;
+
+import org.junit.rules.ExternalResource;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+
+import javax.annotation.Nonnull;
+
+import redis.embedded.RedisServer;
+
+/**
+ * Provides a throwaway Redis server for tests which need to verify actual Redis semantics (such as
+ * scripts or pipelines).
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class EmbeddedRedis extends ExternalResource {
+    private RedisServer server;
+    private JedisConnectionFactory connectionFactory;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void before() throws Throwable {
+        int port;
+
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        }
+
+        this.server = RedisServer.newRedisServer()
+                .port(port)
+                .bind("127.0.0.1")
+                .setting("save \"\"")
+                .build();
+        this.server.start();
+
+        this.connectionFactory = new JedisConnectionFactory();
+        this.connectionFactory.setHostName("127.0.0.1");
+        this.connectionFactory.setPort(port);
+        this.connectionFactory.setUsePool(false);
+        this.connectionFactory.afterPropertiesSet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void after() {
+        if (this.connectionFactory != null) {
+            this.connectionFactory.destroy();
+        }
+
+        try {
+            if (this.server != null) {
+                this.server.stop();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Nonnull
+    public RedisConnectionFactory getConnectionFactory() {
+        return this.connectionFactory;
+    }
+}
@@ -0,0 +1,99 @@
+package net.minepay.mcapi.controller;
+
+import net.minepay.mcapi.configuration.CacheConfiguration;
+import net.minepay.mcapi.mojang.ProfileName;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class ResponseCacheTest {
+    private static final ProfileName NOTCH = new ProfileName("069a79f444e94726a5befca90e38aaf5", "Notch");
+
+    private ResponseCache responseCache;
+    private int lookups;
+
+    @Before
+    public void setUp() {
+        RequestMappingHandlerAdapter handlerAdapter = new RequestMappingHandlerAdapter();
+        handlerAdapter.setMessageConverters(Arrays.asList(new StringHttpMessageConverter(), new MappingJackson2HttpMessageConverter()));
+
+        this.responseCache = new ResponseCache(new CacheConfiguration(), new ContentNegotiationManager(), handlerAdapter);
+        this.lookups = 0;
+    }
+
+    @Test
+    public void writeBrowserAccept() throws Exception {
+        // browsers prefer HTML but accept anything else with a lower quality
+        HttpServletResponse response = this.write("text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8");
+
+        verify(response).setContentType("application/json;charset=UTF-8");
+        assertEquals(1, this.lookups);
+
+        // quality parameters do not leak into the cache key
+        this.write("*/*;q=0.5");
+        this.write("application/json;q=0.7");
+        assertEquals(1, this.lookups);
+    }
+
+    @Test(expected = HttpMediaTypeNotAcceptableException.class)
+    public void writeUnsupported() throws Exception {
+        this.write("image/png");
+    }
+
+    /**
+     * Writes a cached value for the specified accept header.
+     *
+     * @param accept an accept header.
+     * @return the response.
+     */
+    private HttpServletResponse write(String accept) throws Exception {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeaders("Accept")).thenReturn(Collections.enumeration(Collections.singletonList(accept)));
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+        });
+
+        this.responseCache.write("name:notch", () -> {
+            ++this.lookups;
+            return NOTCH;
+        }, request, response);
+
+        assertTrue(body.toString("UTF-8").contains("\"Notch\""));
+        return response;
+    }
+}
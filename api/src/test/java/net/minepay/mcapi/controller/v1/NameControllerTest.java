@@ -0,0 +1,44 @@
+package net.minepay.mcapi.controller.v1;
+
+import net.minepay.mcapi.controller.ResponseCache;
+import net.minepay.mcapi.mojang.ProfileName;
+import net.minepay.mcapi.mojang.cache.MojangCache;
+import net.minepay.mcapi.mojang.client.MojangClient;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class NameControllerTest {
+
+    @Test
+    public void lookupIdentifiers() throws Exception {
+        MojangCache cache = mock(MojangCache.class);
+        MojangClient client = mock(MojangClient.class);
+        ProfileName notch = new ProfileName("069a79f444e94726a5befca90e38aaf5", "Notch");
+
+        when(cache.findIdentifiers(anyList())).thenAnswer((i) -> Collections.nCopies(((List<?>) i.getArguments()[0]).size(), null));
+        when(cache.isUnknownName("unknown")).thenReturn(true);
+        when(client.findIdentifier(Arrays.asList("Notch", "missing"))).thenReturn(Collections.singletonList(notch));
+
+        NameController controller = new NameController(cache, client, mock(ResponseCache.class));
+
+        // known unknown names are never passed on to Mojang
+        assertEquals(Collections.singletonList(notch), controller.lookupIdentifiers(Arrays.asList("Notch", "unknown", "missing")));
+        verify(client).findIdentifier(Arrays.asList("Notch", "missing"));
+        verify(cache).saveIdentifiers(Collections.singletonList(notch));
+
+        // names which Mojang did not resolve are recorded as unknown
+        verify(cache).saveUnknownName("missing");
+        verify(cache, never()).saveUnknownName("Notch");
+        verify(cache, never()).saveUnknownName("unknown");
+    }
+}
@@ -0,0 +1,90 @@
+package net.minepay.mcapi.mojang;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-profile cost of decoding session server responses with lazily decoded
+ * textures against eagerly decoding them through a freshly configured mapper (as done
+ * previously).
+ *
+ * This benchmark is not executed as part of the regular build and may be started via its main
+ * method instead (allocation rates are reported as {@code gc.alloc.rate.norm} in bytes per
+ * operation).
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProfileDecodingBenchmark {
+    private ObjectReader profileReader;
+    private byte[] response;
+
+    public static void main(String[] arguments) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProfileDecodingBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+
+    @Setup
+    public void setup() {
+        String textures = "{\"timestamp\":1480000000000,\"profileId\":\"069a79f444e94726a5befca90e38aaf5\",\"profileName\":\"Notch\",\"textures\":{\"SKIN\":{\"url\":\"http://textures.minecraft.net/texture/a116e69a845e227f7ca1fdde8c357c8c821ebd4ba619382ea4a1f87d4ae94\",\"metadata\":{\"model\":\"slim\"}},\"CAPE\":{\"url\":\"http://textures.minecraft.net/texture/3f688e0e699b3d9fe448b5bb50a3a288f9c589762b3dae8308842122dcb81\"}}}";
+        byte[] signature = new byte[512];
+        new Random(42).nextBytes(signature);
+
+        this.profileReader = Profile.reader.forType(Profile.class);
+        this.response = ("{\"id\":\"069a79f444e94726a5befca90e38aaf5\",\"name\":\"Notch\",\"properties\":[{\"name\":\"textures\",\"value\":\"" + Base64.getEncoder().encodeToString(textures.getBytes(StandardCharsets.UTF_8)) + "\",\"signature\":\"" + Base64.getEncoder().encodeToString(signature) + "\"}]}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes a profile and its textures the way profiles were decoded before textures were
+     * decoded lazily.
+     */
+    @Benchmark
+    public ProfileTextures decodeEager() throws IOException {
+        Profile profile = this.profileReader.readValue(this.response);
+        String encodedTextures = ((TexturesProperty) profile.getProperties().get(0)).getEncodedValue();
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.findAndRegisterModules();
+        mapper.configure(DeserializationFeature.FAIL_ON_IGNORED_PROPERTIES, false);
+
+        byte[] textureBytes = Base64.getDecoder().decode(encodedTextures);
+        return mapper.readerFor(ProfileTextures.class).readValue(new String(textureBytes, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public Profile decodeLazy() throws IOException {
+        return this.profileReader.readValue(this.response);
+    }
+
+    @Benchmark
+    public ProfileTextures decodeLazyWithTextures() throws IOException {
+        Profile profile = this.profileReader.readValue(this.response);
+        return (ProfileTextures) profile.getProperties().get(0).getValue();
+    }
+}
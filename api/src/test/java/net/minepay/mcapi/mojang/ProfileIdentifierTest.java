@@ -0,0 +1,75 @@
+package net.minepay.mcapi.mojang;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class ProfileIdentifierTest {
+
+    @Test
+    public void parse() {
+        UUID uuid = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+
+        assertEquals(uuid, ProfileIdentifier.parse("069a79f444e94726a5befca90e38aaf5").toUUID());
+        assertEquals(uuid, ProfileIdentifier.parse("069A79F444E94726A5BEFCA90E38AAF5").toUUID());
+        assertEquals(uuid, ProfileIdentifier.parse("069a79f4-44e9-4726-a5be-fca90e38aaf5").toUUID());
+        assertEquals(new ProfileIdentifier(-1, -1), ProfileIdentifier.parse("ffffffffffffffffffffffffffffffff"));
+    }
+
+    @Test
+    public void tryParse() {
+        assertNull(ProfileIdentifier.tryParse("HighLordAkkarin"));
+        assertNull(ProfileIdentifier.tryParse("069a79f444e94726a5befca90e38aaf"));
+        assertNull(ProfileIdentifier.tryParse("069a79f444e94726a5befca90e38aafg"));
+        assertNull(ProfileIdentifier.tryParse("069a79f4-44e9-4726-a5be+fca90e38aaf5"));
+        assertNull(ProfileIdentifier.tryParse("069a79f4444e9-4726-a5be-fca90e38aaf5"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseMalformed() {
+        ProfileIdentifier.parse("HighLordAkkarin");
+    }
+
+    @Test
+    public void format() {
+        ProfileIdentifier identifier = ProfileIdentifier.fromUUID(UUID.fromString("069A79F4-44E9-4726-A5BE-FCA90E38AAF5"));
+
+        assertEquals("069a79f444e94726a5befca90e38aaf5", identifier.toString());
+        assertEquals("069a79f4-44e9-4726-a5be-fca90e38aaf5", identifier.toUUIDString());
+        assertEquals("player:069a79f444e94726a5befca90e38aaf5", new String(identifier.toAscii("player:".getBytes(StandardCharsets.US_ASCII)), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void validate() {
+        assertTrue(ProfileIdentifier.isValidMojangIdentifier("069a79f444e94726a5befca90e38aaf5"));
+        assertTrue(ProfileIdentifier.isValidUUID("069a79f4-44e9-4726-a5be-fca90e38aaf5"));
+
+        // unsupported version
+        assertFalse(ProfileIdentifier.isValidMojangIdentifier("069a79f444e96726a5befca90e38aaf5"));
+        assertFalse(ProfileIdentifier.isValidUUID("069a79f4-44e9-6726-a5be-fca90e38aaf5"));
+
+        // unsupported variant
+        assertFalse(ProfileIdentifier.isValidMojangIdentifier("069a79f444e94726c5befca90e38aaf5"));
+        assertFalse(ProfileIdentifier.isValidUUID("069a79f4-44e9-4726-c5be-fca90e38aaf5"));
+
+        assertFalse(ProfileIdentifier.isValidMojangIdentifier("069a79f4-44e9-4726-a5be-fca90e38aaf5"));
+        assertFalse(ProfileIdentifier.isValidUUID("069a79f444e94726a5befca90e38aaf5"));
+    }
+
+    @Test
+    public void equality() {
+        ProfileIdentifier first = ProfileIdentifier.parse("069a79f444e94726a5befca90e38aaf5");
+        ProfileIdentifier second = ProfileIdentifier.parse("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(0, first.compareTo(second));
+        assertNotEquals(first, ProfileIdentifier.parse("069a79f444e94726a5befca90e38aaf6"));
+    }
+}
@@ -3,6 +3,8 @@ package net.minepay.mcapi.mojang;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.UUID;
 
 /**
@@ -37,4 +39,22 @@ public class ProfileTest {
         Assert.assertTrue(Profile.isValidIdentifier("00000000000000000000000000000000"));
         Assert.assertFalse(Profile.isValidIdentifier("HighLordAkkarin"));
     }
+
+    @Test
+    public void lazyTextures() throws IOException {
+        String encoded = "eyJ0aW1lc3RhbXAiOjE0ODAwMDAwMDAwMDAsInByb2ZpbGVJZCI6IjA2OWE3OWY0NDRlOTQ3MjZhNWJlZmNhOTBlMzhhYWY1IiwicHJvZmlsZU5hbWUiOiJOb3RjaCIsInRleHR1cmVzIjp7fX0=";
+        Profile profile = Profile.reader.forType(Profile.class).readValue("{\"id\":\"069a79f444e94726a5befca90e38aaf5\",\"name\":\"Notch\",\"properties\":[{\"name\":\"textures\",\"value\":\"" + encoded + "\"}]}");
+        TexturesProperty property = (TexturesProperty) profile.getProperties().get(0);
+
+        Assert.assertFalse(property.isDecoded());
+        Assert.assertEquals(encoded, property.getEncodedValue());
+        Assert.assertEquals("Notch", property.getValue().getProfileName());
+        Assert.assertTrue(property.isDecoded());
+        Assert.assertSame(property.getValue(), property.getValue());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void lazyTexturesMalformed() {
+        new TexturesProperty("textures", "!", null).getValue();
+    }
 }
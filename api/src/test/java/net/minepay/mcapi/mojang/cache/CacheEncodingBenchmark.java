@@ -0,0 +1,71 @@
+package net.minepay.mcapi.mojang.cache;
+
+import net.minepay.mcapi.mojang.Profile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary cache encoding against the legacy JSON encoding.
+ *
+ * This benchmark is not executed as part of the regular build and may be started via its main
+ * method instead (encoded sizes are printed before the measurements begin).
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CacheEncodingBenchmark {
+    private JacksonRedisSerializer<Profile> jsonSerializer;
+    private VersionedRedisSerializer<Profile> binarySerializer;
+    private byte[] json;
+    private byte[] binary;
+
+    public static void main(String[] arguments) throws IOException, RunnerException {
+        CacheEncodingBenchmark benchmark = new CacheEncodingBenchmark();
+        benchmark.setup();
+
+        System.out.println("JSON:   " + benchmark.json.length + " bytes");
+        System.out.println("Binary: " + benchmark.binary.length + " bytes");
+
+        new Runner(new OptionsBuilder().include(CacheEncodingBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        this.jsonSerializer = new JacksonRedisSerializer<>(Profile.class);
+        this.binarySerializer = new VersionedRedisSerializer<>(new ProfileCodec(), this.jsonSerializer);
+
+        Profile profile = VersionedRedisSerializerTest.createProfile();
+        this.json = this.jsonSerializer.serialize(profile);
+        this.binary = this.binarySerializer.serialize(profile);
+    }
+
+    @Benchmark
+    public Profile decodeJson() {
+        return this.jsonSerializer.deserialize(this.json);
+    }
+
+    @Benchmark
+    public Profile decodeBinary() {
+        return this.binarySerializer.deserialize(this.binary);
+    }
+}
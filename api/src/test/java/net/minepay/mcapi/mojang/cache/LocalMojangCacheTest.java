@@ -0,0 +1,147 @@
+package net.minepay.mcapi.mojang.cache;
+
+import net.minepay.mcapi.configuration.CacheConfiguration;
+import net.minepay.mcapi.mojang.Profile;
+import net.minepay.mcapi.mojang.ProfileIdentifier;
+import net.minepay.mcapi.mojang.ProfileName;
+import net.minepay.mcapi.mojang.ProfileNameChange;
+import net.minepay.mcapi.mojang.ProfileProperty;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class LocalMojangCacheTest {
+
+    @Test
+    public void findIdentifier() {
+        MojangCache backingCache = mock(MojangCache.class);
+        ProfileName name = new ProfileName("069a79f444e94726a5befca90e38aaf5", "Notch");
+        when(backingCache.findIdentifier("Notch")).thenReturn(name);
+
+        LocalMojangCache cache = new LocalMojangCache(new CacheConfiguration(), backingCache);
+
+        assertSame(name, cache.findIdentifier("Notch"));
+        assertSame(name, cache.findIdentifier("notch"));
+        verify(backingCache, times(1)).findIdentifier(anyString());
+
+        // misses are always passed on to the backing cache
+        assertNull(cache.findIdentifier("jeb_"));
+        assertNull(cache.findIdentifier("jeb_"));
+        verify(backingCache, times(2)).findIdentifier("jeb_");
+    }
+
+    @Test
+    public void saveIdentifier() {
+        MojangCache backingCache = mock(MojangCache.class);
+        ProfileName name = new ProfileName("853c80ef3c3749fdaa49938b674adae6", "jeb_");
+
+        LocalMojangCache cache = new LocalMojangCache(new CacheConfiguration(), backingCache);
+        cache.saveIdentifier(name);
+
+        assertSame(name, cache.findIdentifier("JEB_"));
+        verify(backingCache).saveIdentifier(name);
+        verify(backingCache, never()).findIdentifier(anyString());
+    }
+
+    @Test
+    public void findIdentifiers() {
+        MojangCache backingCache = mock(MojangCache.class);
+        ProfileName notch = new ProfileName("069a79f444e94726a5befca90e38aaf5", "Notch");
+        ProfileName jeb = new ProfileName("853c80ef3c3749fdaa49938b674adae6", "jeb_");
+        when(backingCache.findIdentifiers(Arrays.asList("jeb_", "Dinnerbone"))).thenReturn(Arrays.asList(jeb, null));
+
+        LocalMojangCache cache = new LocalMojangCache(new CacheConfiguration(), backingCache);
+        cache.saveIdentifier(notch);
+
+        assertEquals(Arrays.asList(notch, jeb, null), cache.findIdentifiers(Arrays.asList("notch", "jeb_", "Dinnerbone")));
+        assertSame(jeb, cache.findIdentifier("jeb_"));
+        verify(backingCache, never()).findIdentifier(anyString());
+    }
+
+    @Test
+    public void unknownKeysSkipBackingCache() {
+        MojangCache backingCache = mock(MojangCache.class);
+        ProfileIdentifier identifier = ProfileIdentifier.parse("069a79f444e94726a5befca90e38aaf5");
+
+        LocalMojangCache cache = new LocalMojangCache(new CacheConfiguration(), backingCache);
+        cache.saveUnknownName("jeb_");
+        cache.saveUnknownProfile(identifier);
+
+        assertNull(cache.findIdentifier("JEB_"));
+        assertNull(cache.findProfileByName("jeb_"));
+        assertNull(cache.findNameHistoryByName("jeb_"));
+        assertEquals(Collections.singletonList(null), cache.findIdentifiers(Collections.singletonList("jeb_")));
+        assertNull(cache.findProfile(identifier));
+        assertNull(cache.findNameHistory(identifier));
+        assertTrue(cache.isUnknownName("jeb_"));
+        assertTrue(cache.isUnknownProfile(identifier));
+
+        // known unknown keys never reach Redis
+        verify(backingCache).saveUnknownName("jeb_");
+        verify(backingCache).saveUnknownProfile(identifier);
+        verifyNoMoreInteractions(backingCache);
+    }
+
+    @Test
+    public void saveProfile() {
+        MojangCache backingCache = mock(MojangCache.class);
+        Profile profile = new Profile("069a79f444e94726a5befca90e38aaf5", "Notch", Collections.<ProfileProperty<?>>emptyList());
+
+        LocalMojangCache cache = new LocalMojangCache(new CacheConfiguration(), backingCache);
+        cache.saveProfile(profile);
+
+        // profiles populate the name mapping as well
+        assertSame(profile, cache.findProfileByName("notch"));
+        assertEquals("069a79f444e94726a5befca90e38aaf5", cache.findIdentifier("NOTCH").getId());
+        verify(backingCache).saveProfile(profile);
+        verify(backingCache, never()).findProfileByName(anyString());
+        verify(backingCache, never()).findIdentifier(anyString());
+    }
+
+    @Test
+    public void saveIdentifierReleasesPreviousName() {
+        MojangCache backingCache = mock(MojangCache.class);
+        CacheConfiguration configuration = new CacheConfiguration();
+        configuration.setProfileIndexSize(1);
+
+        LocalMojangCache cache = new LocalMojangCache(configuration, backingCache);
+        cache.saveIdentifier(new ProfileName("069a79f444e94726a5befca90e38aaf5", "Notch"));
+        cache.saveIdentifier(new ProfileName("069a79f444e94726a5befca90e38aaf5", "NotNotch"));
+
+        // the previous name is no longer served locally as it may have been acquired by another
+        // profile since
+        assertNull(cache.findIdentifier("Notch"));
+        assertEquals("NotNotch", cache.findIdentifier("notnotch").getName());
+        verify(backingCache).findIdentifier("Notch");
+    }
+
+    @Test
+    public void findIdentifiersSkipsRenamedProfiles() {
+        MojangCache backingCache = mock(MojangCache.class);
+        ProfileName notch = new ProfileName("069a79f444e94726a5befca90e38aaf5", "Notch");
+        when(backingCache.findIdentifiers(Collections.singletonList("Notch"))).thenReturn(Collections.singletonList(notch), Collections.singletonList(null));
+
+        CacheConfiguration configuration = new CacheConfiguration();
+        configuration.setProfileIndexSize(1);
+
+        LocalMojangCache cache = new LocalMojangCache(configuration, backingCache);
+        assertSame(notch, cache.findIdentifiers(Collections.singletonList("Notch")).get(0));
+        assertSame(notch, cache.findIdentifiers(Collections.singletonList("Notch")).get(0));
+        verify(backingCache, times(1)).findIdentifiers(anyListOf(String.class));
+
+        // a fresh name history reveals that the profile has since changed its name
+        cache.saveNameHistory(notch.getIdentifier(), Arrays.asList(new ProfileNameChange("Notch", null), new ProfileNameChange("NotNotch", Instant.now())));
+
+        assertNull(cache.findIdentifiers(Collections.singletonList("Notch")).get(0));
+        verify(backingCache, times(2)).findIdentifiers(anyListOf(String.class));
+    }
+}
@@ -0,0 +1,202 @@
+package net.minepay.mcapi.mojang.cache;
+
+import net.minepay.mcapi.EmbeddedRedis;
+import net.minepay.mcapi.configuration.CacheConfiguration;
+import net.minepay.mcapi.mojang.Profile;
+import net.minepay.mcapi.mojang.ProfileIdentifier;
+import net.minepay.mcapi.mojang.ProfileName;
+import net.minepay.mcapi.mojang.ProfileNameChange;
+import net.minepay.mcapi.mojang.ProfileProperty;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class MojangCacheImplTest {
+    @ClassRule
+    public static final EmbeddedRedis REDIS = new EmbeddedRedis();
+
+    private static final ProfileIdentifier NOTCH = ProfileIdentifier.parse("069a79f444e94726a5befca90e38aaf5");
+
+    private RedisTemplate<String, byte[]> redisTemplate;
+    private CacheRevalidator revalidator;
+    private MojangCacheImpl cache;
+
+    @Before
+    public void setUp() {
+        this.redisTemplate = new RedisTemplate<>();
+        this.redisTemplate.setConnectionFactory(REDIS.getConnectionFactory());
+        this.redisTemplate.setEnableDefaultSerializer(false);
+        this.redisTemplate.setKeySerializer(new StringRedisSerializer());
+        this.redisTemplate.afterPropertiesSet();
+
+        this.redisTemplate.execute((RedisCallback<Object>) (c) -> {
+            c.flushDb();
+            c.scriptFlush();
+            return null;
+        });
+
+        this.revalidator = mock(CacheRevalidator.class);
+        this.cache = new MojangCacheImpl(new CacheConfiguration(), this.revalidator, this.redisTemplate);
+    }
+
+    @After
+    public void tearDown() {
+        this.cache.close();
+    }
+
+    @Test
+    public void saveProfile() {
+        this.cache.saveProfile(new Profile(NOTCH.toString(), "Notch", Collections.<ProfileProperty<?>>emptyList()));
+        this.cache.close();
+
+        Profile profile = this.cache.findProfile(NOTCH);
+        assertNotNull(profile);
+        assertEquals("Notch", profile.getName());
+        assertEquals(NOTCH, profile.getIdentifier());
+
+        assertEquals("Notch", this.cache.findProfileByName("notch").getName());
+        assertEquals(NOTCH.toString(), this.cache.findIdentifier("NOTCH").getId());
+        assertNull(this.cache.findProfile(ProfileIdentifier.parse("853c80ef3c3749fdaa49938b674adae6")));
+        assertNull(this.cache.findProfileByName("jeb_"));
+        verifyZeroInteractions(this.revalidator);
+    }
+
+    @Test
+    public void saveBatches() {
+        CacheConfiguration configuration = new CacheConfiguration();
+        configuration.setWriteBatchSize(2);
+
+        // hash updates and plain commands are mixed across several batches
+        MojangCacheImpl cache = new MojangCacheImpl(configuration, this.revalidator, this.redisTemplate);
+        for (int i = 0; i < 5; ++i) {
+            cache.saveProfile(new Profile(String.format("%032x", i + 1), "Player" + i, Collections.<ProfileProperty<?>>emptyList()));
+            cache.saveUnknownName("Unknown" + i);
+        }
+        cache.close();
+
+        for (int i = 0; i < 5; ++i) {
+            Profile profile = cache.findProfileByName("player" + i);
+
+            assertNotNull(profile);
+            assertEquals(String.format("%032x", i + 1), profile.getId());
+            assertTrue(cache.isUnknownName("Unknown" + i));
+        }
+    }
+
+    @Test
+    public void saveIdentifiers() {
+        ProfileName notch = new ProfileName(NOTCH.toString(), "Notch");
+        ProfileName jeb = new ProfileName("853c80ef3c3749fdaa49938b674adae6", "jeb_");
+
+        this.cache.saveIdentifiers(Arrays.asList(notch, jeb));
+        this.cache.close();
+
+        List<ProfileName> identifiers = this.cache.findIdentifiers(Arrays.asList("jeb_", "Dinnerbone", "NOTCH"));
+        assertEquals(3, identifiers.size());
+        assertEquals(jeb.getId(), identifiers.get(0).getId());
+        assertNull(identifiers.get(1));
+        assertEquals("Notch", identifiers.get(2).getName());
+
+        // identifiers alone do not populate the profile field
+        assertNull(this.cache.findProfileByName("notch"));
+    }
+
+    @Test
+    public void saveNameHistory() {
+        List<ProfileNameChange> history = Arrays.asList(new ProfileNameChange("Notch", null));
+
+        this.cache.saveIdentifier(new ProfileName(NOTCH.toString(), "Notch"));
+        this.cache.saveNameHistory(NOTCH, history);
+        this.cache.close();
+
+        assertEquals(1, this.cache.findNameHistory(NOTCH).size());
+        assertEquals("Notch", this.cache.findNameHistoryByName("notch").get(0).getName());
+        assertEquals(NOTCH.toString(), this.cache.findIdentifier("notch", Instant.EPOCH).getId());
+
+        // the current name remains valid past the time at which the history has been retrieved
+        assertEquals(NOTCH.toString(), this.cache.findIdentifier("notch", Instant.now().plusSeconds(60)).getId());
+    }
+
+    @Test
+    public void saveIdentifierAt() {
+        Instant timestamp = Instant.ofEpochMilli(1420070400000L);
+        ProfileName notch = new ProfileName(NOTCH.toString(), "Notch");
+
+        assertNull(this.cache.findIdentifier("notch", timestamp));
+        this.cache.saveIdentifier("notch", notch, timestamp);
+        this.cache.saveIdentifier("Previous", notch, timestamp);
+        this.cache.close();
+
+        // repeated lookups for the same point in time are answered from the cached intervals
+        assertEquals(NOTCH.toString(), this.cache.findIdentifier("notch", timestamp).getId());
+        assertEquals(NOTCH.toString(), this.cache.findIdentifier("notch").getId());
+        assertTrue(this.redisTemplate.getExpire("name_intervals:notch") > 0);
+
+        // the current name is held from the requested time onwards
+        assertEquals(NOTCH.toString(), this.cache.findIdentifier("notch", Instant.now()).getId());
+        assertNull(this.cache.findIdentifier("notch", timestamp.minusMillis(1)));
+
+        // previous names are only known to have been held at the requested time
+        assertEquals("Notch", this.cache.findIdentifier("previous", timestamp).getName());
+        assertNull(this.cache.findIdentifier("previous", timestamp.plusSeconds(1)));
+        verifyZeroInteractions(this.revalidator);
+    }
+
+    @Test
+    public void saveIdentifierAtKeepsHistory() {
+        ProfileName notch = new ProfileName(NOTCH.toString(), "Notch");
+
+        this.cache.saveNameHistory(NOTCH, Collections.singletonList(new ProfileNameChange("Notch", null)));
+        this.cache.close();
+
+        // intervals which have been derived from a history are not narrowed by later lookups
+        MojangCacheImpl cache = new MojangCacheImpl(new CacheConfiguration(), this.revalidator, this.redisTemplate);
+        cache.saveIdentifier("notch", notch, Instant.now());
+        cache.close();
+
+        assertEquals(NOTCH.toString(), cache.findIdentifier("notch", Instant.EPOCH).getId());
+    }
+
+    @Test
+    public void scriptFlush() {
+        this.cache.saveIdentifier(new ProfileName(NOTCH.toString(), "Notch"));
+        this.cache.close();
+        assertNotNull(this.cache.findIdentifier("notch"));
+
+        // scripts which are no longer known to the server are transmitted again
+        this.redisTemplate.execute((RedisCallback<Object>) (c) -> {
+            c.scriptFlush();
+            return null;
+        });
+
+        assertNotNull(this.cache.findIdentifier("notch"));
+    }
+
+    @Test
+    public void saveUnknown() {
+        this.cache.saveUnknownName("jeb_");
+        this.cache.saveUnknownProfile(NOTCH);
+        this.cache.close();
+
+        assertTrue(this.cache.isUnknownName("JEB_"));
+        assertTrue(this.cache.isUnknownProfile(NOTCH));
+        assertFalse(this.cache.isUnknownName("Notch"));
+        assertTrue(this.redisTemplate.getExpire("unknown_name:jeb_") > 0);
+    }
+}
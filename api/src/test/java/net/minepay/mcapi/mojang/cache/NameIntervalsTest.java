@@ -0,0 +1,83 @@
+package net.minepay.mcapi.mojang.cache;
+
+import net.minepay.mcapi.mojang.ProfileName;
+import net.minepay.mcapi.mojang.ProfileNameChange;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class NameIntervalsTest {
+
+    @Test
+    public void find() {
+        Instant renamed = Instant.ofEpochSecond(1400000000);
+        Instant claimed = Instant.ofEpochSecond(1450000000);
+        Instant fetched = Instant.ofEpochSecond(1500000000);
+
+        // the first player has been renamed from "Alpha" to "Beta" which freed "Alpha" for the
+        // second player
+        Map<String, byte[]> first = NameIntervals.encode(Arrays.asList(new ProfileNameChange("Alpha", null), new ProfileNameChange("Beta", renamed)));
+        Map<String, byte[]> second = NameIntervals.encode(Arrays.asList(new ProfileNameChange("Gamma", null), new ProfileNameChange("alpha", claimed)));
+
+        assertEquals(2, first.size());
+        assertTrue(first.containsKey("alpha"));
+        assertTrue(first.containsKey("beta"));
+
+        Map<String, byte[]> entries = new HashMap<>();
+        entries.put("11111111111111111111111111111111", first.get("alpha"));
+        entries.put("22222222222222222222222222222222", second.get("alpha"));
+
+        ProfileName name = NameIntervals.find(entries, Instant.ofEpochSecond(0));
+        assertNotNull(name);
+        assertEquals("11111111111111111111111111111111", name.getId());
+        assertEquals("Beta", name.getName());
+
+        // the interval of the first holder ends when the name is changed
+        assertEquals("11111111111111111111111111111111", NameIntervals.find(entries, renamed.minusMillis(1)).getId());
+        assertNull(NameIntervals.find(entries, renamed));
+        assertNull(NameIntervals.find(entries, claimed.minusMillis(1)));
+
+        name = NameIntervals.find(entries, claimed);
+        assertNotNull(name);
+        assertEquals("22222222222222222222222222222222", name.getId());
+        assertEquals("alpha", name.getName());
+
+        // current names remain valid past the time at which the history has been retrieved
+        assertEquals("22222222222222222222222222222222", NameIntervals.find(entries, fetched).getId());
+        assertEquals("22222222222222222222222222222222", NameIntervals.find(entries, Instant.ofEpochSecond(4000000000L)).getId());
+    }
+
+    @Test
+    public void findReclaimed() {
+        Instant renamed = Instant.ofEpochSecond(1400000000);
+        Instant claimed = Instant.ofEpochSecond(1450000000);
+
+        // the history of the first player still lists "Alpha" as its current name while the
+        // second player has since claimed it
+        Map<String, byte[]> first = NameIntervals.encode(Collections.singletonList(new ProfileNameChange("Alpha", null)));
+        Map<String, byte[]> second = NameIntervals.encode(Arrays.asList(new ProfileNameChange("Gamma", null), new ProfileNameChange("Alpha", claimed)));
+
+        Map<String, byte[]> entries = new HashMap<>();
+        entries.put("11111111111111111111111111111111", first.get("alpha"));
+        entries.put("22222222222222222222222222222222", second.get("alpha"));
+
+        assertEquals("11111111111111111111111111111111", NameIntervals.find(entries, renamed).getId());
+        assertEquals("22222222222222222222222222222222", NameIntervals.find(entries, claimed).getId());
+    }
+
+    @Test
+    public void findEmpty() {
+        assertNull(NameIntervals.find(Collections.emptyMap(), Instant.now()));
+        assertNull(NameIntervals.find(Collections.singletonMap("11111111111111111111111111111111", new byte[]{1}), Instant.now()));
+    }
+}
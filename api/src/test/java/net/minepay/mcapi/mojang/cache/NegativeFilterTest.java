@@ -0,0 +1,51 @@
+package net.minepay.mcapi.mojang.cache;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class NegativeFilterTest {
+
+    @Test
+    public void mightContain() {
+        NegativeFilter filter = new NegativeFilter(1 << 16, Duration.ofMinutes(5));
+
+        for (int i = 0; i < 1000; ++i) {
+            filter.add("name:bot" + i);
+        }
+
+        for (int i = 0; i < 1000; ++i) {
+            assertTrue(filter.mightContain("name:bot" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 1000; ++i) {
+            if (filter.mightContain("name:player" + i)) {
+                ++falsePositives;
+            }
+        }
+
+        assertTrue(falsePositives < 10);
+    }
+
+    @Test
+    public void rotate() {
+        AtomicLong clock = new AtomicLong();
+        NegativeFilter filter = new NegativeFilter(1 << 10, Duration.ofNanos(100), clock::get);
+
+        filter.add("name:notch");
+        assertTrue(filter.mightContain("name:notch"));
+
+        clock.addAndGet(100);
+        assertTrue(filter.mightContain("name:notch"));
+
+        clock.addAndGet(100);
+        assertFalse(filter.mightContain("name:notch"));
+    }
+}
@@ -0,0 +1,113 @@
+package net.minepay.mcapi.mojang.cache;
+
+import net.minepay.mcapi.mojang.ProfileIdentifier;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class ProfileIndexTest {
+
+    @Test
+    public void putAndFind() {
+        AtomicLong clock = new AtomicLong(1000);
+        ProfileIndex index = new ProfileIndex(1000, clock::get);
+        ProfileIdentifier notch = ProfileIdentifier.parse("069a79f444e94726a5befca90e38aaf5");
+
+        assertNull(index.find(notch));
+        assertNull(index.put(notch, "Notch"));
+
+        ProfileIndex.Entry entry = index.find(notch);
+        assertNotNull(entry);
+        assertEquals("Notch", entry.getName());
+        assertEquals(Instant.ofEpochMilli(1000), entry.getUpdatedAt());
+
+        // unchanged names merely refresh the update time
+        clock.set(2000);
+        assertNull(index.put(notch, "Notch"));
+        assertEquals(Instant.ofEpochMilli(2000), index.find(notch).getUpdatedAt());
+
+        assertEquals("Notch", index.put(notch, "NotNotch"));
+        assertEquals("NotNotch", index.find(notch).getName());
+
+        // names of known profiles are only replaced on request
+        index.putIfAbsent(notch, "Notch");
+        assertEquals("NotNotch", index.find(notch).getName());
+        assertEquals(1, index.getSize());
+    }
+
+    @Test
+    public void nilIdentifier() {
+        ProfileIndex index = new ProfileIndex(1000);
+        ProfileIdentifier identifier = new ProfileIdentifier(0, 0);
+
+        index.put(identifier, "Nobody");
+        assertEquals("Nobody", index.find(identifier).getName());
+    }
+
+    @Test
+    public void growAndRemove() {
+        ProfileIndex index = new ProfileIndex(1_000_000);
+        ProfileIdentifier[] identifiers = new ProfileIdentifier[50_000];
+        Random random = new Random(42);
+
+        for (int i = 0; i < identifiers.length; ++i) {
+            identifiers[i] = new ProfileIdentifier(random.nextLong(), random.nextLong());
+            index.put(identifiers[i], "Player" + i);
+        }
+
+        assertEquals(identifiers.length, index.getSize());
+
+        for (int i = 0; i < identifiers.length; i += 2) {
+            assertTrue(index.remove(identifiers[i]));
+        }
+
+        assertFalse(index.remove(identifiers[0]));
+        assertEquals(identifiers.length / 2, index.getSize());
+
+        for (int i = 0; i < identifiers.length; ++i) {
+            ProfileIndex.Entry entry = index.find(identifiers[i]);
+
+            if (i % 2 == 0) {
+                assertNull(entry);
+            } else {
+                assertNotNull(entry);
+                assertEquals("Player" + i, entry.getName());
+            }
+        }
+    }
+
+    @Test
+    public void compact() {
+        ProfileIndex index = new ProfileIndex(1000);
+        ProfileIdentifier identifier = new ProfileIdentifier(1, 2);
+
+        for (int i = 0; i < 100_000; ++i) {
+            index.put(identifier, "Player" + i);
+        }
+
+        assertEquals("Player99999", index.find(identifier).getName());
+        assertTrue(index.getMemoryUsage() < 1024 * 1024);
+    }
+
+    @Test
+    public void rejectWhenFull() {
+        ProfileIndex index = new ProfileIndex(64);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10_000; ++i) {
+            index.put(new ProfileIdentifier(random.nextLong(), random.nextLong()), "Player");
+        }
+
+        assertTrue(index.getSize() < 10_000);
+        assertEquals(10_000 - index.getSize(), index.getRejectedCount());
+        assertNull(index.put(new ProfileIdentifier(0, 0), ""));
+    }
+}
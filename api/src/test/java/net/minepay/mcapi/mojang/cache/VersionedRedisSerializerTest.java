@@ -0,0 +1,126 @@
+package net.minepay.mcapi.mojang.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+import net.minepay.mcapi.mojang.Profile;
+import net.minepay.mcapi.mojang.ProfileNameChange;
+import net.minepay.mcapi.mojang.ProfileProperty;
+import net.minepay.mcapi.mojang.ProfileTextures;
+import net.minepay.mcapi.mojang.TexturesProperty;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Nonnull;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class VersionedRedisSerializerTest {
+
+    /**
+     * Creates a profile which resembles a typical response of the session server.
+     *
+     * @return a profile.
+     *
+     * @throws IOException when decoding the textures fails.
+     */
+    @Nonnull
+    static Profile createProfile() throws IOException {
+        String textures = "{\"timestamp\":1480000000000,\"profileId\":\"069a79f444e94726a5befca90e38aaf5\",\"profileName\":\"Notch\",\"textures\":{\"SKIN\":{\"url\":\"http://textures.minecraft.net/texture/a116e69a845e227f7ca1fdde8c357c8c821ebd4ba619382ea4a1f87d4ae94\",\"metadata\":{\"model\":\"slim\"}},\"CAPE\":{\"url\":\"http://textures.minecraft.net/texture/3f688e0e699b3d9fe448b5bb50a3a288f9c589762b3dae8308842122dcb81\"}}}";
+        byte[] signature = new byte[512];
+        new Random(42).nextBytes(signature);
+
+        ObjectNode property = JsonNodeFactory.instance.objectNode();
+        property.put("name", "textures");
+        property.put("value", Base64.getEncoder().encodeToString(textures.getBytes(StandardCharsets.UTF_8)));
+        property.put("signature", Base64.getEncoder().encodeToString(signature));
+
+        return new Profile("069a79f444e94726a5befca90e38aaf5", "Notch", Collections.<JsonNode>singletonList(property));
+    }
+
+    /**
+     * Evaluates whether two profiles carry the same information.
+     */
+    private static void assertProfileEquals(@Nonnull Profile expected, @Nonnull Profile actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getProperties().size(), actual.getProperties().size());
+
+        for (int i = 0; i < expected.getProperties().size(); ++i) {
+            ProfileProperty<?> expectedProperty = expected.getProperties().get(i);
+            ProfileProperty<?> actualProperty = actual.getProperties().get(i);
+
+            assertEquals(expectedProperty.getName(), actualProperty.getName());
+            assertEquals(expectedProperty.getSignature(), actualProperty.getSignature());
+
+            ProfileTextures expectedTextures = (ProfileTextures) expectedProperty.getValue();
+            ProfileTextures actualTextures = (ProfileTextures) actualProperty.getValue();
+
+            assertEquals(expectedTextures.getTimestamp(), actualTextures.getTimestamp());
+            assertEquals(expectedTextures.getProfileId(), actualTextures.getProfileId());
+            assertEquals(expectedTextures.getProfileName(), actualTextures.getProfileName());
+            assertEquals(expectedTextures.getTextures().keySet(), actualTextures.getTextures().keySet());
+
+            expectedTextures.getTextures().forEach((k, v) -> {
+                assertEquals(v.getUrl(), actualTextures.getTextures().get(k).getUrl());
+                assertEquals(v.getMetadata(), actualTextures.getTextures().get(k).getMetadata());
+            });
+        }
+    }
+
+    @Test
+    public void profile() throws IOException {
+        JacksonRedisSerializer<Profile> legacySerializer = new JacksonRedisSerializer<>(Profile.class);
+        VersionedRedisSerializer<Profile> serializer = new VersionedRedisSerializer<>(new ProfileCodec(), legacySerializer);
+        Profile profile = createProfile();
+
+        byte[] encoded = serializer.serialize(profile);
+        byte[] legacyEncoded = legacySerializer.serialize(profile);
+
+        assertEquals(VersionedRedisSerializer.VERSION, encoded[0]);
+        assertTrue(encoded.length < legacyEncoded.length);
+        assertProfileEquals(profile, serializer.deserialize(encoded));
+        assertProfileEquals(profile, serializer.deserialize(legacyEncoded));
+    }
+
+    @Test
+    public void profileTexturesRemainEncoded() throws IOException {
+        VersionedRedisSerializer<Profile> serializer = new VersionedRedisSerializer<>(new ProfileCodec(), new JacksonRedisSerializer<>(Profile.class));
+        Profile profile = createProfile();
+
+        Profile decoded = serializer.deserialize(serializer.serialize(profile));
+        TexturesProperty property = (TexturesProperty) decoded.getProperties().get(0);
+
+        assertFalse(property.isDecoded());
+        assertEquals(((TexturesProperty) profile.getProperties().get(0)).getEncodedValue(), property.getEncodedValue());
+        assertProfileEquals(profile, decoded);
+        assertTrue(property.isDecoded());
+    }
+
+    @Test
+    public void nameHistory() {
+        VersionedRedisSerializer<List<ProfileNameChange>> serializer = new VersionedRedisSerializer<>(new NameHistoryCodec(), new JacksonRedisSerializer<>(TypeFactory.defaultInstance().constructCollectionType(List.class, ProfileNameChange.class)));
+        List<ProfileNameChange> history = Arrays.asList(new ProfileNameChange("Jeb", null), new ProfileNameChange("jeb_", Instant.ofEpochMilli(1423059891000L)));
+
+        List<ProfileNameChange> decoded = serializer.deserialize(serializer.serialize(history));
+        assertEquals(2, decoded.size());
+        assertEquals("Jeb", decoded.get(0).getName());
+        assertNull(decoded.get(0).getChangedToAt());
+        assertEquals("jeb_", decoded.get(1).getName());
+        assertEquals(Instant.ofEpochMilli(1423059891000L), decoded.get(1).getChangedToAt());
+    }
+}
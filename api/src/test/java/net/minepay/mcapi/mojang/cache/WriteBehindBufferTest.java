@@ -0,0 +1,67 @@
+package net.minepay.mcapi.mojang.cache;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class WriteBehindBufferTest {
+
+    @Test
+    public void offer() {
+        // flushes are triggered manually in order to observe the buffer in a consistent state
+        List<List<Object>> batches = new ArrayList<>();
+
+        try (WriteBehindBuffer<Object> buffer = new WriteBehindBuffer<>(batches::add, 3, 2, Duration.ofHours(1), mock(ScheduledExecutorService.class))) {
+            Object first = new Object();
+            Object second = new Object();
+
+            assertTrue(buffer.offer("profile:a", first));
+            assertTrue(buffer.offer("profile:a", second));
+            assertEquals(1, buffer.getSize());
+            assertEquals(1, buffer.getMergedCount());
+
+            assertTrue(buffer.offer("profile:b", first));
+            assertTrue(buffer.offer("profile:c", first));
+
+            // writes for new entries are dropped once the buffer is full while pending entries may
+            // still be replaced
+            assertFalse(buffer.offer("profile:d", first));
+            assertTrue(buffer.offer("profile:c", second));
+            assertEquals(1, buffer.getDroppedCount());
+
+            buffer.flush();
+            assertEquals(0, buffer.getSize());
+            assertEquals(3, buffer.getFlushedCount());
+
+            int total = 0;
+            for (List<Object> batch : batches) {
+                assertTrue(batch.size() <= 2);
+                total += batch.size();
+            }
+            assertEquals(3, total);
+        }
+    }
+
+    @Test
+    public void flushFailure() {
+        try (WriteBehindBuffer<Object> buffer = new WriteBehindBuffer<>((b) -> {
+            throw new IllegalStateException();
+        }, 10, 10, Duration.ofHours(1), mock(ScheduledExecutorService.class))) {
+            buffer.offer("profile:a", new Object());
+            buffer.flush();
+
+            assertEquals(0, buffer.getSize());
+            assertEquals(1, buffer.getFailureCount());
+            assertEquals(0, buffer.getFlushedCount());
+        }
+    }
+}
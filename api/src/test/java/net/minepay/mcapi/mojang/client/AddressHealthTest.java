@@ -0,0 +1,63 @@
+package net.minepay.mcapi.mojang.client;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class AddressHealthTest {
+
+    @Test
+    public void cooldown() {
+        AtomicLong clock = new AtomicLong();
+        AddressHealth health = new AddressHealth(Duration.ofSeconds(1), Duration.ofSeconds(3), clock::get);
+
+        assertFalse(health.isCoolingDown());
+        assertEquals(1, health.getScore(), 0.0001);
+
+        health.recordThrottle();
+        assertTrue(health.isCoolingDown());
+        assertEquals(0, health.getScore(), 0.0001);
+        assertEquals(Duration.ofSeconds(1), health.getRemainingCooldown());
+
+        health.recordThrottle();
+        assertEquals(Duration.ofSeconds(2), health.getRemainingCooldown());
+
+        health.recordThrottle();
+        assertEquals(Duration.ofSeconds(3), health.getRemainingCooldown());
+
+        clock.addAndGet(Duration.ofSeconds(3).toNanos());
+        assertFalse(health.isCoolingDown());
+        assertTrue(health.getScore() > 0);
+        assertTrue(health.getScore() < 1);
+
+        health.recordSuccess();
+        health.recordThrottle();
+        assertEquals(Duration.ofSeconds(1), health.getRemainingCooldown());
+        assertEquals(4, health.getThrottleCount());
+        assertEquals(1, health.getSuccessCount());
+    }
+
+    @Test
+    public void failureRate() {
+        AddressHealth health = new AddressHealth(Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+        for (int i = 0; i < 100; ++i) {
+            health.recordTimeout();
+        }
+
+        assertEquals(1, health.getFailureRate(), 0.001);
+        assertEquals(0.05, health.getScore(), 0.001);
+
+        for (int i = 0; i < 100; ++i) {
+            health.recordSuccess();
+        }
+
+        assertEquals(0, health.getFailureRate(), 0.001);
+    }
+}
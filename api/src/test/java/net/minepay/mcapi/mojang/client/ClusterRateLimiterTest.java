@@ -0,0 +1,124 @@
+package net.minepay.mcapi.mojang.client;
+
+import net.minepay.mcapi.EmbeddedRedis;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class ClusterRateLimiterTest {
+    @ClassRule
+    public static final EmbeddedRedis REDIS = new EmbeddedRedis();
+
+    private RedisTemplate<String, Integer> redisTemplate;
+
+    @Before
+    public void setUp() {
+        this.redisTemplate = new RedisTemplate<>();
+        this.redisTemplate.setConnectionFactory(REDIS.getConnectionFactory());
+        this.redisTemplate.setDefaultSerializer(new GenericToStringSerializer<>(Integer.class));
+        this.redisTemplate.setKeySerializer(new StringRedisSerializer());
+        this.redisTemplate.afterPropertiesSet();
+
+        this.redisTemplate.execute((RedisCallback<Object>) (c) -> {
+            c.flushDb();
+            return null;
+        });
+    }
+
+    @Test
+    public void renew() {
+        ClusterRateLimiter limiter = new ClusterRateLimiter(this.redisTemplate, Duration.ofMinutes(10), 4);
+        RateLease first = limiter.createLease("10.0.0.1", 6);
+        RateLease second = limiter.createLease("10.0.0.2", 600);
+
+        assertTrue(first.renew());
+        assertTrue(second.renew());
+        assertEquals(0, limiter.getFailureCount());
+        assertEquals(2, limiter.getRenewalCount());
+        assertEquals(4, first.getRemaining());
+        assertEquals(2, first.getClusterRemaining());
+        assertEquals(4, second.getRemaining());
+        assertEquals(596, second.getClusterRemaining());
+
+        // a second node shares the same budget
+        ClusterRateLimiter other = new ClusterRateLimiter(this.redisTemplate, Duration.ofMinutes(10), 4);
+        RateLease shared = other.createLease("10.0.0.1", 6);
+
+        assertTrue(shared.renew());
+        assertEquals(0, other.getFailureCount());
+        assertEquals(2, shared.getRemaining());
+        assertEquals(0, shared.getClusterRemaining());
+    }
+
+    @Test
+    public void report() {
+        ClusterRateLimiter limiter = new ClusterRateLimiter(this.redisTemplate, Duration.ofMinutes(10), 4);
+        RateLease lease = limiter.createLease("10.0.0.1", 600);
+
+        assertTrue(lease.renew());
+
+        for (int i = 0; i < 3; ++i) {
+            assertTrue(lease.tryAcquire());
+        }
+
+        limiter.flush(Collections.singletonList(lease));
+        assertEquals(0, limiter.getFailureCount());
+        assertEquals(2, limiter.getRenewalCount());
+        assertEquals(5, lease.getRemaining());
+        assertEquals(Integer.valueOf(3), this.redisTemplate.opsForValue().get("address:10.0.0.1"));
+        assertTrue(this.redisTemplate.getExpire("address:10.0.0.1") > 0);
+    }
+
+    @Test
+    public void idle() {
+        ClusterRateLimiter limiter = new ClusterRateLimiter(this.redisTemplate, Duration.ofMinutes(10), 4);
+        RateLease lease = limiter.createLease("10.0.0.1", 600);
+
+        // leases which have not been used are left to be renewed on demand
+        limiter.flush(Collections.singletonList(lease));
+        assertEquals(0, limiter.getRenewalCount());
+        assertEquals(0, lease.getRemaining());
+        assertEquals(600, lease.getClusterRemaining());
+        assertFalse(this.redisTemplate.hasKey("rate_limit:10.0.0.1"));
+    }
+
+    @Test
+    public void refund() throws InterruptedException {
+        ClusterRateLimiter limiter = new ClusterRateLimiter(this.redisTemplate, Duration.ofMinutes(1), 4);
+        RateLease lease = limiter.createLease("10.0.0.1", 6);
+
+        assertTrue(lease.renew());
+        assertTrue(lease.tryAcquire());
+        assertEquals(3, lease.getRemaining());
+        assertEquals(2, lease.getClusterRemaining());
+
+        limiter.flush(Collections.singletonList(lease));
+        Thread.sleep(1100);
+        assertTrue(lease.isExpired());
+
+        // the unused remainder of the expired lease is returned to the cluster
+        limiter.flush(Collections.singletonList(lease));
+        assertEquals(0, limiter.getFailureCount());
+        assertEquals(1, limiter.getRenewalCount());
+
+        ClusterRateLimiter other = new ClusterRateLimiter(this.redisTemplate, Duration.ofMinutes(1), 4);
+        RateLease shared = other.createLease("10.0.0.1", 6);
+
+        assertTrue(shared.renew());
+        assertEquals(4, shared.getRemaining());
+        assertEquals(1, shared.getClusterRemaining());
+    }
+}
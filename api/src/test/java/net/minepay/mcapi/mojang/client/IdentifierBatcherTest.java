@@ -0,0 +1,80 @@
+package net.minepay.mcapi.mojang.client;
+
+import net.minepay.mcapi.mojang.ProfileName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class IdentifierBatcherTest {
+    private ScheduledExecutorService executor;
+
+    @Before
+    public void setUp() {
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void flushOnSize() throws Exception {
+        List<List<String>> requests = Collections.synchronizedList(new ArrayList<>());
+        IdentifierBatcher batcher = new IdentifierBatcher((n) -> {
+            requests.add(n);
+            return CompletableFuture.completedFuture(Collections.singletonList(new ProfileName("00000000000000000000000000000000", "Notch")));
+        }, this.executor, TimeUnit.HOURS.toMillis(1), 3);
+
+        CompletableFuture<ProfileName> first = batcher.submit("notch");
+        CompletableFuture<ProfileName> second = batcher.submit("NOTCH");
+        CompletableFuture<ProfileName> third = batcher.submit("jeb_");
+
+        assertFalse(first.isDone());
+        assertTrue(requests.isEmpty());
+
+        CompletableFuture<ProfileName> fourth = batcher.submit("Dinnerbone");
+
+        assertEquals(1, requests.size());
+        assertEquals(Arrays.asList("notch", "jeb_", "Dinnerbone"), requests.get(0));
+        assertSame(first.get(), second.get());
+        assertEquals("Notch", first.get().getName());
+        assertNull(third.get());
+        assertNull(fourth.get());
+    }
+
+    @Test
+    public void flushOnDelay() throws Exception {
+        IdentifierBatcher batcher = new IdentifierBatcher((n) -> CompletableFuture.completedFuture(Collections.emptyList()), this.executor, 10, 10);
+
+        assertNull(batcher.submit("Notch").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void failure() throws Exception {
+        IdentifierBatcher batcher = new IdentifierBatcher((n) -> Futures.failed(new IllegalStateException()), this.executor, 10, 10);
+
+        try {
+            batcher.submit("Notch").get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof IllegalStateException);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package net.minepay.mcapi.mojang.client;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class LatencyTrackerTest {
+
+    @Test
+    public void percentile() {
+        LatencyTracker tracker = new LatencyTracker(100);
+
+        for (int i = 0; i < 90; ++i) {
+            tracker.record(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        assertEquals(-1, tracker.getPercentile(50));
+
+        for (int i = 0; i < 10; ++i) {
+            tracker.record(TimeUnit.MILLISECONDS.toNanos(200));
+        }
+
+        long median = tracker.getPercentile(50);
+        assertTrue(median >= TimeUnit.MILLISECONDS.toNanos(10));
+        assertTrue(median < TimeUnit.MILLISECONDS.toNanos(12));
+
+        long tail = tracker.getPercentile(95);
+        assertTrue(tail >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertTrue(tail < TimeUnit.MILLISECONDS.toNanos(240));
+    }
+
+    @Test
+    public void decay() {
+        LatencyTracker tracker = new LatencyTracker(100);
+
+        for (int i = 0; i < 100; ++i) {
+            tracker.record(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        assertNotEquals(-1, tracker.getPercentile(50));
+
+        tracker.decay();
+        assertEquals(-1, tracker.getPercentile(50));
+    }
+}
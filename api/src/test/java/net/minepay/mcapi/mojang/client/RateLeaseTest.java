@@ -0,0 +1,53 @@
+package net.minepay.mcapi.mojang.client;
+
+import org.junit.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class RateLeaseTest {
+
+    @Test
+    public void acquire() {
+        ClusterRateLimiter limiter = new ClusterRateLimiter(new RedisTemplate<>(), Duration.ofMinutes(10), 4);
+        RateLease lease = limiter.createLease("127.0.0.1", 600);
+
+        assertFalse(lease.tryAcquire());
+        assertEquals(0, lease.getRemaining());
+
+        // an unreachable Redis server causes leases to be granted locally
+        assertTrue(lease.renew());
+        assertEquals(4, lease.getRemaining());
+        assertEquals(1, limiter.getFailureCount());
+
+        for (int i = 0; i < 4; ++i) {
+            assertTrue(lease.tryAcquire());
+        }
+
+        assertFalse(lease.tryAcquire());
+
+        lease.release();
+        assertTrue(lease.tryAcquire());
+    }
+
+    @Test
+    public void restoreRequests() {
+        ClusterRateLimiter limiter = new ClusterRateLimiter(new RedisTemplate<>(), Duration.ofMinutes(10), 4);
+        RateLease lease = limiter.createLease("127.0.0.1", 600);
+
+        assertTrue(lease.renew());
+        assertTrue(lease.tryAcquire());
+        assertTrue(lease.tryAcquire());
+
+        // requests which could not be reported are retained for the next flush
+        limiter.flush(Collections.singletonList(lease));
+        assertEquals(2, lease.drainRequests());
+        assertEquals(0, lease.drainRequests());
+    }
+}
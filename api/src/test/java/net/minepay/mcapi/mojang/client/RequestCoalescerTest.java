@@ -0,0 +1,67 @@
+package net.minepay.mcapi.mojang.client;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class RequestCoalescerTest {
+
+    @Test
+    public void collapse() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = coalescer.execute("name:test", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = coalescer.execute("name:test", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+
+        assertEquals(1, coalescer.getInFlightCount());
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+
+        upstream.complete("result");
+
+        assertEquals("result", first.get());
+        assertEquals("result", second.get());
+        assertEquals(1, calls.get());
+        assertEquals(1, coalescer.getExecutedCount());
+        assertEquals(1, coalescer.getCollapsedCount());
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+
+    @Test
+    public void cancel() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = coalescer.execute("name:test", () -> upstream);
+        CompletableFuture<String> second = coalescer.execute("name:test", () -> upstream);
+
+        first.cancel(false);
+        upstream.complete("result");
+
+        assertEquals("result", second.get());
+    }
+
+    @Test
+    public void expire() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+
+        assertEquals("a", coalescer.execute("name:test", () -> CompletableFuture.completedFuture("a")).get());
+        assertEquals("b", coalescer.execute("name:test", () -> CompletableFuture.completedFuture("b")).get());
+        assertEquals(2, coalescer.getExecutedCount());
+        assertEquals(0, coalescer.getCollapsedCount());
+    }
+}
@@ -0,0 +1,43 @@
+package net.minepay.mcapi.mojang.client;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class RetryBudgetTest {
+
+    @Test
+    public void acquire() {
+        RetryBudget budget = new RetryBudget(10, 2);
+
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+
+        for (int i = 0; i < 9; ++i) {
+            budget.recordRequest();
+        }
+
+        assertFalse(budget.tryAcquire());
+
+        budget.recordRequest();
+        assertTrue(budget.tryAcquire());
+
+        assertEquals(3, budget.getGrantedCount());
+        assertEquals(2, budget.getRejectedCount());
+    }
+
+    @Test
+    public void capacity() {
+        RetryBudget budget = new RetryBudget(50, 1);
+
+        for (int i = 0; i < 100; ++i) {
+            budget.recordRequest();
+        }
+
+        assertEquals(1, budget.getRemaining());
+    }
+}
@@ -0,0 +1,58 @@
+package net.minepay.mcapi.mojang.client;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class TokenBucketTest {
+
+    @Test
+    public void acquire() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10, Duration.ofSeconds(10), clock::get);
+
+        assertEquals(10, bucket.getRemaining());
+
+        for (int i = 0; i < 10; ++i) {
+            assertTrue(bucket.tryAcquire());
+        }
+
+        assertEquals(0, bucket.getRemaining());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void refill() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10, Duration.ofSeconds(10), clock::get);
+
+        for (int i = 0; i < 10; ++i) {
+            assertTrue(bucket.tryAcquire());
+        }
+
+        clock.addAndGet(Duration.ofSeconds(3).toNanos());
+        assertEquals(3, bucket.getRemaining());
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertEquals(10, bucket.getRemaining());
+    }
+
+    @Test
+    public void consume() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10, Duration.ofSeconds(10), clock::get);
+
+        bucket.consume(4);
+        assertEquals(6, bucket.getRemaining());
+
+        bucket.consume(40);
+        assertEquals(0, bucket.getRemaining());
+        assertFalse(bucket.tryAcquire());
+    }
+}
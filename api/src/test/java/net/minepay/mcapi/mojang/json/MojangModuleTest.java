@@ -0,0 +1,118 @@
+package net.minepay.mcapi.mojang.json;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import net.minepay.mcapi.mojang.Profile;
+import net.minepay.mcapi.mojang.ProfileName;
+import net.minepay.mcapi.mojang.ProfileNameChange;
+import net.minepay.mcapi.mojang.ProfileProperty;
+import net.minepay.mcapi.mojang.ProfileTextures;
+import net.minepay.mcapi.mojang.TexturesProperty;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+public class MojangModuleTest {
+    private static final String TEXTURES = "eyJ0aW1lc3RhbXAiOjE0ODAwMDAwMDAwMDAsInByb2ZpbGVJZCI6IjA2OWE3OWY0NDRlOTQ3MjZhNWJlZmNhOTBlMzhhYWY1IiwicHJvZmlsZU5hbWUiOiJOb3RjaCIsInRleHR1cmVzIjp7fX0=";
+
+    private ObjectMapper databindMapper;
+    private ObjectMapper streamingMapper;
+
+    @Before
+    public void setup() {
+        this.databindMapper = new ObjectMapper().findAndRegisterModules().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.streamingMapper = new ObjectMapper().findAndRegisterModules().registerModule(new MojangModule());
+    }
+
+    @Test
+    public void serializeProfile() throws IOException {
+        Profile profile = new Profile("069a79f444e94726a5befca90e38aaf5", "Notch", Arrays.asList(new ProfileProperty<>("foo", "bar", null), new TexturesProperty("textures", TEXTURES, "signature")));
+
+        assertEquals(this.databindMapper.writeValueAsString(profile), this.streamingMapper.writeValueAsString(profile));
+        assertEquals(this.databindMapper.writeValueAsString(new Profile("069a79f444e94726a5befca90e38aaf5", "Notch", Collections.<ProfileProperty<?>>emptyList())), this.streamingMapper.writeValueAsString(new Profile("069a79f444e94726a5befca90e38aaf5", "Notch", Collections.<ProfileProperty<?>>emptyList())));
+    }
+
+    @Test
+    public void serializeProfileName() throws IOException {
+        ProfileName name = new ProfileName("069a79f444e94726a5befca90e38aaf5", "Notch");
+
+        assertEquals(this.databindMapper.writeValueAsString(name), this.streamingMapper.writeValueAsString(name));
+    }
+
+    @Test
+    public void serializeNameHistory() throws IOException {
+        List<ProfileNameChange> history = Arrays.asList(new ProfileNameChange("Notch", null), new ProfileNameChange("Notch2", Instant.ofEpochMilli(1480000000000L)));
+
+        assertEquals(this.databindMapper.writeValueAsString(history), this.streamingMapper.writeValueAsString(history));
+    }
+
+    @Test
+    public void deserializeProfile() throws IOException {
+        Profile profile = this.streamingMapper.readValue("{\"id\":\"069a79f444e94726a5befca90e38aaf5\",\"name\":\"Notch\",\"legacy\":true,\"properties\":[{\"name\":\"textures\",\"value\":\"" + TEXTURES + "\",\"signature\":\"signature\",\"extra\":{\"a\":[1]}},{\"name\":\"foo\",\"value\":\"bar\"}]}", Profile.class);
+
+        assertEquals("069a79f444e94726a5befca90e38aaf5", profile.getId());
+        assertEquals("Notch", profile.getName());
+        assertEquals(2, profile.getProperties().size());
+
+        TexturesProperty textures = (TexturesProperty) profile.getProperties().get(0);
+        assertEquals(TEXTURES, textures.getEncodedValue());
+        assertEquals("signature", textures.getSignature());
+        assertFalse(textures.isDecoded());
+
+        assertEquals("foo", profile.getProperties().get(1).getName());
+        assertEquals("bar", profile.getProperties().get(1).getValue());
+        assertNull(profile.getProperties().get(1).getSignature());
+    }
+
+    @Test
+    public void roundTripProfile() throws IOException {
+        Profile profile = new Profile("069a79f444e94726a5befca90e38aaf5", "Notch", Collections.singletonList(new TexturesProperty("textures", TEXTURES, null)));
+        String encoded = this.streamingMapper.writeValueAsString(profile);
+        Profile decoded = this.streamingMapper.readValue(encoded, Profile.class);
+
+        assertEquals("Notch", ((ProfileTextures) decoded.getProperties().get(0).getValue()).getProfileName());
+        assertEquals(encoded, this.streamingMapper.writeValueAsString(decoded));
+    }
+
+    @Test
+    public void deserializeNameHistory() throws IOException {
+        String encoded = "[{\"name\":\"Notch\"},{\"name\":\"Notch2\",\"changedToAt\":1480000000000,\"extra\":null}]";
+        TypeReference<List<ProfileNameChange>> type = new TypeReference<List<ProfileNameChange>>() {
+        };
+        List<ProfileNameChange> expected = this.databindMapper.readValue(encoded, type);
+        List<ProfileNameChange> history = this.streamingMapper.readValue(encoded, type);
+
+        assertEquals(2, history.size());
+        assertEquals("Notch", history.get(0).getName());
+        assertNull(history.get(0).getChangedToAt());
+        assertEquals("Notch2", history.get(1).getName());
+        assertEquals(expected.get(1).getChangedToAt(), history.get(1).getChangedToAt());
+    }
+
+    @Test
+    public void deserializeProfileName() throws IOException {
+        ProfileName name = this.streamingMapper.readValue("{\"id\":\"069a79f444e94726a5befca90e38aaf5\",\"legacy\":true,\"name\":\"Notch\"}", ProfileName.class);
+
+        assertEquals("069a79f444e94726a5befca90e38aaf5", name.getId());
+        assertEquals("Notch", name.getName());
+    }
+
+    @Test(expected = JsonMappingException.class)
+    public void deserializeIncomplete() throws IOException {
+        this.streamingMapper.readValue("{\"name\":\"Notch\"}", ProfileName.class);
+    }
+}
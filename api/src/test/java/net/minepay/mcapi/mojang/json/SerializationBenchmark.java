@@ -0,0 +1,143 @@
+package net.minepay.mcapi.mojang.json;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import net.minepay.mcapi.mojang.Profile;
+import net.minepay.mcapi.mojang.ProfileName;
+import net.minepay.mcapi.mojang.ProfileNameChange;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of encoding the payloads of the profile, name and name history endpoints
+ * (as well as decoding session server responses) through the streaming codecs against the
+ * reflective databind path.
+ *
+ * This benchmark is not executed as part of the regular build and may be started via its main
+ * method instead (allocation rates are reported as {@code gc.alloc.rate.norm} in bytes per
+ * operation).
+ *
+ * @author <a href="mailto:johannesd@torchmind.com">Johannes Donath</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SerializationBenchmark {
+    private ObjectWriter databindWriter;
+    private ObjectWriter streamingWriter;
+    private ObjectReader databindProfileReader;
+    private ObjectReader streamingProfileReader;
+
+    private byte[] response;
+    private Profile profile;
+    private ProfileName name;
+    private List<ProfileNameChange> history;
+
+    public static void main(String[] arguments) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SerializationBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper databindMapper = new ObjectMapper().findAndRegisterModules().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        ObjectMapper streamingMapper = new ObjectMapper().findAndRegisterModules().registerModule(new MojangModule());
+
+        this.databindWriter = databindMapper.writer();
+        this.streamingWriter = streamingMapper.writer();
+        this.databindProfileReader = databindMapper.readerFor(Profile.class);
+        this.streamingProfileReader = streamingMapper.readerFor(Profile.class);
+
+        String textures = "{\"timestamp\":1480000000000,\"profileId\":\"069a79f444e94726a5befca90e38aaf5\",\"profileName\":\"Notch\",\"textures\":{\"SKIN\":{\"url\":\"http://textures.minecraft.net/texture/a116e69a845e227f7ca1fdde8c357c8c821ebd4ba619382ea4a1f87d4ae94\",\"metadata\":{\"model\":\"slim\"}},\"CAPE\":{\"url\":\"http://textures.minecraft.net/texture/3f688e0e699b3d9fe448b5bb50a3a288f9c589762b3dae8308842122dcb81\"}}}";
+        byte[] signature = new byte[512];
+        new Random(42).nextBytes(signature);
+
+        this.response = ("{\"id\":\"069a79f444e94726a5befca90e38aaf5\",\"name\":\"Notch\",\"properties\":[{\"name\":\"textures\",\"value\":\"" + Base64.getEncoder().encodeToString(textures.getBytes(StandardCharsets.UTF_8)) + "\",\"signature\":\"" + Base64.getEncoder().encodeToString(signature) + "\"}]}").getBytes(StandardCharsets.UTF_8);
+        this.profile = this.streamingProfileReader.readValue(this.response);
+        this.profile.getProperties().get(0).getValue(); // textures are decoded once per cached profile
+
+        this.name = new ProfileName("069a79f444e94726a5befca90e38aaf5", "Notch");
+        this.history = new ArrayList<>();
+        this.history.add(new ProfileNameChange("Notch", null));
+        for (int i = 0; i < 9; ++i) {
+            this.history.add(new ProfileNameChange("Notch" + i, Instant.ofEpochMilli(1420000000000L + i * 2592000000L)));
+        }
+
+        // both paths are expected to produce identical output
+        TypeReference<List<ProfileNameChange>> historyType = new TypeReference<List<ProfileNameChange>>() {
+        };
+        if (!this.databindWriter.writeValueAsString(this.profile).equals(this.streamingWriter.writeValueAsString(this.profile))
+                || !this.databindWriter.writeValueAsString(this.name).equals(this.streamingWriter.writeValueAsString(this.name))
+                || !this.databindWriter.forType(historyType).writeValueAsString(this.history).equals(this.streamingWriter.forType(historyType).writeValueAsString(this.history))) {
+            throw new IllegalStateException("Streaming codecs diverge from databind output");
+        }
+    }
+
+    @Benchmark
+    public byte[] profileDatabind() throws IOException {
+        return this.databindWriter.writeValueAsBytes(this.profile);
+    }
+
+    @Benchmark
+    public byte[] profileStreaming() throws IOException {
+        return this.streamingWriter.writeValueAsBytes(this.profile);
+    }
+
+    @Benchmark
+    public byte[] nameDatabind() throws IOException {
+        return this.databindWriter.writeValueAsBytes(this.name);
+    }
+
+    @Benchmark
+    public byte[] nameStreaming() throws IOException {
+        return this.streamingWriter.writeValueAsBytes(this.name);
+    }
+
+    @Benchmark
+    public byte[] nameHistoryDatabind() throws IOException {
+        return this.databindWriter.writeValueAsBytes(this.history);
+    }
+
+    @Benchmark
+    public byte[] nameHistoryStreaming() throws IOException {
+        return this.streamingWriter.writeValueAsBytes(this.history);
+    }
+
+    @Benchmark
+    public Profile decodeProfileDatabind() throws IOException {
+        return this.databindProfileReader.readValue(this.response);
+    }
+
+    @Benchmark
+    public Profile decodeProfileStreaming() throws IOException {
+        return this.streamingProfileReader.readValue(this.response);
+    }
+}